@@ -0,0 +1,60 @@
+package com.quardintel.product_api.benchmark;
+
+import com.quardintel.product_api.model.Category;
+import com.quardintel.product_api.model.Product;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Shared test data for the benchmarks, so every benchmark measures the same shapes.
+ */
+final class BenchmarkFixtures {
+
+    static final String USERNAME = "bench-user";
+
+    private BenchmarkFixtures() {
+    }
+
+    static UserDetails user() {
+        return User.withUsername(USERNAME)
+                .password("{noop}password")
+                .roles("USER")
+                .build();
+    }
+
+    static Category category(long id, String name) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(name);
+        return category;
+    }
+
+    /**
+     * Builds products with IDs 1..count, each in two of four categories.
+     */
+    static List<Product> products(int count) {
+        List<Category> categories = List.of(
+                category(1L, "Electronics"), category(2L, "Books"),
+                category(3L, "Garden"), category(4L, "Toys"));
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Product product = new Product();
+            product.setId((long) i);
+            product.setName("Product " + i);
+            product.setDescription("Description of product " + i + " used for serialization benchmarks");
+            product.setPrice(1.0 + (i % 1000) / 10.0);
+            product.setQuantity(i % 500);
+            Set<Category> productCategories = new LinkedHashSet<>();
+            productCategories.add(categories.get(i % 4));
+            productCategories.add(categories.get((i + 1) % 4));
+            product.setCategories(productCategories);
+            products.add(product);
+        }
+        return products;
+    }
+}
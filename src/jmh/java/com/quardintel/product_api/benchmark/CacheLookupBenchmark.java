@@ -0,0 +1,72 @@
+package com.quardintel.product_api.benchmark;
+
+import com.quardintel.product_api.cache.BoundedCacheManager;
+import com.quardintel.product_api.config.CacheConfig;
+import com.quardintel.product_api.config.CacheProperties;
+import com.quardintel.product_api.dto.ProductView;
+import com.quardintel.product_api.model.Product;
+import com.quardintel.product_api.service.ProductCacheService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product cache lookups through the manager built by {@link CacheConfig}, with the production sizing.
+ * Runs on four threads, since contention on the read path is what the cache is designed around.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class CacheLookupBenchmark {
+
+    private static final int CACHED_PRODUCTS = 5_000;
+
+    private Cache products;
+
+    @Setup
+    public void setUp() {
+        CacheProperties.Spec spec = new CacheProperties.Spec();
+        spec.setMaximumWeight(10_000);
+        spec.setExpireAfterWrite(Duration.ofMinutes(10));
+        spec.setExpireAfterAccess(Duration.ofMinutes(5));
+        CacheProperties properties = new CacheProperties();
+        properties.getSpecs().put(ProductCacheService.PRODUCTS_CACHE, spec);
+
+        BoundedCacheManager cacheManager = new CacheConfig().cacheManager(properties);
+        cacheManager.initializeCaches();
+        products = cacheManager.getCache(ProductCacheService.PRODUCTS_CACHE);
+
+        List<Product> fixtures = BenchmarkFixtures.products(CACHED_PRODUCTS);
+        for (Product product : fixtures) {
+            products.put(product.getId(), ProductView.of(product));
+        }
+    }
+
+    @Benchmark
+    public Cache.ValueWrapper hit() {
+        return products.get((long) ThreadLocalRandom.current().nextInt(1, CACHED_PRODUCTS + 1));
+    }
+
+    @Benchmark
+    public Cache.ValueWrapper miss() {
+        return products.get((long) ThreadLocalRandom.current().nextInt(CACHED_PRODUCTS + 1, Integer.MAX_VALUE));
+    }
+}
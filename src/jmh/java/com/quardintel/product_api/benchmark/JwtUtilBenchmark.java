@@ -0,0 +1,75 @@
+package com.quardintel.product_api.benchmark;
+
+import com.quardintel.product_api.metrics.MetricsRegistry;
+import com.quardintel.product_api.security.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and validation cost.
+ * {@code validateCached} hits the verified-claims cache; {@code validateUncached} cycles through more
+ * distinct tokens than the cache holds, so every call pays for parsing and the signature check.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private static final int UNCACHED_TOKENS = 1024;
+
+    private UserDetails user;
+    private JwtUtil cachingJwtUtil;
+    private JwtUtil nonCachingJwtUtil;
+    private String token;
+    private String[] uncachedTokens;
+    private UserDetails[] uncachedUsers;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        user = BenchmarkFixtures.user();
+        cachingJwtUtil = new JwtUtil(10_000, new MetricsRegistry());
+        nonCachingJwtUtil = new JwtUtil(1, new MetricsRegistry());
+        token = cachingJwtUtil.generateToken(user);
+
+        // One user per token: tokens issued within the same second for the same user would be identical
+        uncachedUsers = new UserDetails[UNCACHED_TOKENS];
+        uncachedTokens = new String[UNCACHED_TOKENS];
+        for (int i = 0; i < UNCACHED_TOKENS; i++) {
+            uncachedUsers[i] = User.withUserDetails(user).username(BenchmarkFixtures.USERNAME + "-" + i).build();
+            uncachedTokens[i] = nonCachingJwtUtil.generateToken(uncachedUsers[i]);
+        }
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cachingJwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean validateCached() {
+        return cachingJwtUtil.validateToken(token, user);
+    }
+
+    @Benchmark
+    public boolean validateUncached() {
+        int i = next;
+        next = (i + 1) % UNCACHED_TOKENS;
+        return nonCachingJwtUtil.validateToken(uncachedTokens[i], uncachedUsers[i]);
+    }
+}
@@ -0,0 +1,94 @@
+package com.quardintel.product_api.benchmark;
+
+import com.quardintel.product_api.ProductApiApplication;
+import com.quardintel.product_api.dto.ProductView;
+import com.quardintel.product_api.model.Product;
+import com.quardintel.product_api.repository.ProductRepository;
+import com.quardintel.product_api.service.ProductCacheService;
+import com.quardintel.product_api.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ProductService#getProduct} through the Spring proxy against an in-memory H2 database.
+ * {@code cached} is served from the product cache; {@code uncached} evicts the entry first,
+ * so it measures the cache miss path including the database read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+    private static final int PRODUCTS = 1_000;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private Cache productCache;
+    private long firstId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ProductApiApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.com.quardintel=WARN")
+                .run();
+        productService = context.getBean(ProductService.class);
+        productCache = context.getBean(CacheManager.class).getCache(ProductCacheService.PRODUCTS_CACHE);
+
+        List<Product> products = BenchmarkFixtures.products(PRODUCTS);
+        products.forEach(product -> {
+            product.setId(null);
+            product.getCategories().clear(); // Categories are not persisted here; the lookup is by ID only
+        });
+        firstId = context.getBean(ProductRepository.class).saveAll(products).get(0).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ProductView cached() {
+        return productService.getProduct(randomId());
+    }
+
+    @Benchmark
+    public ProductView uncached() {
+        Long id = randomId();
+        productCache.evict(id);
+        return productService.getProduct(id);
+    }
+
+    private Long randomId() {
+        return firstId + ThreadLocalRandom.current().nextInt(PRODUCTS);
+    }
+}
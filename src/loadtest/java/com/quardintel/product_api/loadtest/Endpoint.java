@@ -0,0 +1,30 @@
+package com.quardintel.product_api.loadtest;
+
+/**
+ * Endpoints driven by the load test, with the name used in the mix setting and the report.
+ */
+enum Endpoint {
+    LOGIN("login"),
+    LIST("list"),
+    GET("get"),
+    SELL("sell");
+
+    private final String key;
+
+    Endpoint(String key) {
+        this.key = key;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    static Endpoint fromKey(String key) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.key.equalsIgnoreCase(key.trim())) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("Unknown endpoint in mix: " + key);
+    }
+}
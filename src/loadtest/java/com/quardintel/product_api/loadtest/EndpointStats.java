@@ -0,0 +1,23 @@
+package com.quardintel.product_api.loadtest;
+
+/**
+ * Results for one endpoint. Latencies are in milliseconds; only successful requests are sampled.
+ */
+record EndpointStats(long requests, long errors, long throttled, double throughputPerSecond,
+                     double p50Millis, double p95Millis, double p99Millis, double p999Millis, double maxMillis) {
+
+    static EndpointStats of(long[] sortedNanos, long errors, long throttled, double seconds) {
+        long requests = sortedNanos.length + errors + throttled;
+        return new EndpointStats(requests, errors, throttled,
+                seconds > 0 ? sortedNanos.length / seconds : 0,
+                millis(LatencyRecorder.percentile(sortedNanos, 50)),
+                millis(LatencyRecorder.percentile(sortedNanos, 95)),
+                millis(LatencyRecorder.percentile(sortedNanos, 99)),
+                millis(LatencyRecorder.percentile(sortedNanos, 99.9)),
+                millis(sortedNanos.length == 0 ? 0 : sortedNanos[sortedNanos.length - 1]));
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
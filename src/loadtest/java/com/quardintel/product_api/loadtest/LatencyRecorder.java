@@ -0,0 +1,71 @@
+package com.quardintel.product_api.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Growable array of latency samples in nanoseconds. Each client thread owns its recorders,
+ * so recording is a plain array write; recorders are merged once the run is over.
+ */
+final class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int size;
+    private long errors;
+    private long throttled;
+
+    void record(long nanos) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+    }
+
+    void recordError() {
+        errors++;
+    }
+
+    void recordThrottled() {
+        throttled++;
+    }
+
+    long errors() {
+        return errors;
+    }
+
+    long throttled() {
+        return throttled;
+    }
+
+    /**
+     * Merges the samples of several recorders into one sorted array.
+     */
+    static long[] sortedSamples(Iterable<LatencyRecorder> recorders) {
+        int total = 0;
+        for (LatencyRecorder recorder : recorders) {
+            total += recorder.size;
+        }
+        long[] merged = new long[total];
+        int offset = 0;
+        for (LatencyRecorder recorder : recorders) {
+            System.arraycopy(recorder.samples, 0, merged, offset, recorder.size);
+            offset += recorder.size;
+        }
+        Arrays.sort(merged);
+        return merged;
+    }
+
+    /**
+     * Nearest-rank percentile of sorted samples.
+     *
+     * @param sorted     Sorted samples
+     * @param percentile Percentile between 0 and 100
+     * @return The sample at that rank, or 0 when there are no samples
+     */
+    static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.min(Math.max(rank, 1), sorted.length) - 1];
+    }
+}
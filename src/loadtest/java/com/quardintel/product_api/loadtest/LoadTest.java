@@ -0,0 +1,275 @@
+package com.quardintel.product_api.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.quardintel.product_api.ProductApiApplication;
+import com.quardintel.product_api.model.Product;
+import com.quardintel.product_api.repository.ProductRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntFunction;
+
+/**
+ * Offline end-to-end load test.
+ * Boots the application on an in-memory H2 database with a seeded catalog, then drives login, list, get-by-ID
+ * and sell over HTTP on the loopback interface with a fixed number of clients and a weighted request mix.
+ * Writes throughput and latency percentiles per endpoint as JSON, and exits with status 1 when a baseline
+ * report is given and any endpoint regressed beyond the allowed ratio.
+ *
+ * <p>Run with {@code mvn -Ploadtest test-compile exec:exec}; see the README for the settings.
+ */
+public final class LoadTest {
+
+    private static final String USERNAME = "loadtest";
+    private static final String PASSWORD = "loadtest-password";
+    private static final int SEED_CHUNK = 1_000;
+    private static final int SEED_QUANTITY = 1_000_000; // High enough that sells do not run out during a run
+    private static final int PAGE_SIZE = 20;
+
+    private final LoadTestSettings settings;
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToEnable(SerializationFeature.INDENT_OUTPUT)
+            .build();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private String baseUrl;
+    private String token;
+    private long firstProductId;
+
+    private LoadTest(LoadTestSettings settings) {
+        this.settings = settings;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        int status;
+        try (ConfigurableApplicationContext context = start()) {
+            status = new LoadTest(settings).run(context);
+        }
+        System.exit(status);
+    }
+
+    private static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(ProductApiApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.com.quardintel=WARN")
+                .run();
+    }
+
+    private int run(ConfigurableApplicationContext context) throws Exception {
+        int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+        baseUrl = "http://127.0.0.1:" + port;
+
+        seed(context.getBean(ProductRepository.class));
+        token = registerAndLogin();
+
+        System.out.printf("Warming up for %ds with %d clients%n", settings.warmup().toSeconds(), settings.concurrency());
+        drive(settings.warmup());
+
+        System.out.printf("Measuring for %ds%n", settings.duration().toSeconds());
+        long start = System.nanoTime();
+        List<Map<Endpoint, LatencyRecorder>> recorders = drive(settings.duration());
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Map<String, EndpointStats> endpoints = new LinkedHashMap<>();
+        for (Endpoint endpoint : Endpoint.values()) {
+            List<LatencyRecorder> perClient = recorders.stream().map(r -> r.get(endpoint)).toList();
+            long errors = perClient.stream().mapToLong(LatencyRecorder::errors).sum();
+            long throttled = perClient.stream().mapToLong(LatencyRecorder::throttled).sum();
+            endpoints.put(endpoint.getKey(),
+                    EndpointStats.of(LatencyRecorder.sortedSamples(perClient), errors, throttled, seconds));
+        }
+        LoadTestReport report = new LoadTestReport(settings, seconds, endpoints);
+
+        File reportFile = new File(settings.report());
+        if (reportFile.getParentFile() != null) {
+            reportFile.getParentFile().mkdirs();
+        }
+        objectMapper.writeValue(reportFile, report);
+        endpoints.forEach((name, stats) -> System.out.printf(
+                "%-6s %8d req %6d err %6d 429 %10.1f/s  p50 %8.3f  p95 %8.3f  p99 %8.3f  p999 %8.3f ms%n",
+                name, stats.requests(), stats.errors(), stats.throttled(), stats.throughputPerSecond(),
+                stats.p50Millis(), stats.p95Millis(), stats.p99Millis(), stats.p999Millis()));
+        System.out.println("Report written to " + reportFile.getAbsolutePath());
+
+        if (settings.baseline() == null) {
+            return 0;
+        }
+        LoadTestReport baseline = objectMapper.readValue(new File(settings.baseline()), LoadTestReport.class);
+        List<String> regressions = report.regressionsAgainst(baseline, settings.maxRegression());
+        regressions.forEach(regression -> System.out.println("REGRESSION " + regression));
+        return regressions.isEmpty() ? 0 : 1;
+    }
+
+    // Products are saved through the repository in chunks so batched inserts keep seeding fast
+    private void seed(ProductRepository productRepository) {
+        System.out.printf("Seeding %d products%n", settings.products());
+        for (int from = 0; from < settings.products(); from += SEED_CHUNK) {
+            int to = Math.min(from + SEED_CHUNK, settings.products());
+            List<Product> chunk = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                Product product = new Product();
+                product.setName("Product " + i);
+                product.setDescription("Load test product " + i);
+                product.setPrice(1.0 + (i % 10_000) / 10.0);
+                product.setQuantity(SEED_QUANTITY);
+                chunk.add(product);
+            }
+            List<Product> saved = productRepository.saveAll(chunk);
+            if (from == 0) {
+                firstProductId = saved.get(0).getId();
+            }
+        }
+    }
+
+    // The email domain makes the user an admin, which selling requires
+    private String registerAndLogin() throws IOException, InterruptedException {
+        HttpResponse<String> registered = send(post("/auth/register", Map.of(
+                "username", USERNAME, "email", USERNAME + "@quardintel.com", "password", PASSWORD)));
+        if (registered.statusCode() != 200) {
+            throw new IllegalStateException("Registration failed: " + registered.statusCode() + " " + registered.body());
+        }
+        HttpResponse<String> login = send(loginRequest());
+        if (login.statusCode() != 200) {
+            throw new IllegalStateException("Login failed: " + login.statusCode() + " " + login.body());
+        }
+        return objectMapper.readTree(login.body()).get("token").asText();
+    }
+
+    private List<Map<Endpoint, LatencyRecorder>> drive(Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService clients = Executors.newFixedThreadPool(settings.concurrency());
+        try {
+            List<Future<Map<Endpoint, LatencyRecorder>>> futures = new ArrayList<>();
+            for (int i = 0; i < settings.concurrency(); i++) {
+                futures.add(clients.submit(() -> client(deadline)));
+            }
+            List<Map<Endpoint, LatencyRecorder>> results = new ArrayList<>();
+            for (Future<Map<Endpoint, LatencyRecorder>> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private Map<Endpoint, LatencyRecorder> client(long deadline) throws InterruptedException {
+        Map<Endpoint, LatencyRecorder> recorders = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            recorders.put(endpoint, new LatencyRecorder());
+        }
+        IntFunction<Endpoint> picker = weightedPicker();
+        int totalWeight = settings.mix().values().stream().mapToInt(Integer::intValue).sum();
+
+        while (System.nanoTime() < deadline) {
+            Endpoint endpoint = picker.apply(ThreadLocalRandom.current().nextInt(totalWeight));
+            LatencyRecorder recorder = recorders.get(endpoint);
+            HttpRequest request = request(endpoint);
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                long elapsed = System.nanoTime() - start;
+                if (response.statusCode() == 429) {
+                    recorder.recordThrottled();
+                } else if (response.statusCode() >= 400) {
+                    recorder.recordError();
+                } else {
+                    recorder.record(elapsed);
+                }
+            } catch (IOException e) {
+                recorder.recordError();
+            }
+        }
+        return recorders;
+    }
+
+    // Maps a number in [0, total weight) to an endpoint according to the mix
+    private IntFunction<Endpoint> weightedPicker() {
+        Endpoint[] endpoints = Endpoint.values();
+        int[] upperBounds = new int[endpoints.length];
+        int sum = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            sum += settings.mix().getOrDefault(endpoints[i], 0);
+            upperBounds[i] = sum;
+        }
+        return value -> {
+            for (int i = 0; i < upperBounds.length; i++) {
+                if (value < upperBounds[i]) {
+                    return endpoints[i];
+                }
+            }
+            throw new IllegalStateException("Value outside the mix: " + value);
+        };
+    }
+
+    private HttpRequest request(Endpoint endpoint) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long productId = firstProductId + random.nextInt(settings.products());
+        return switch (endpoint) {
+            case LOGIN -> loginRequest();
+            case GET -> authorized("/api/products/" + productId).GET().build();
+            case SELL -> authorized("/api/products/" + productId + "/sell/1")
+                    .POST(HttpRequest.BodyPublishers.noBody()).build();
+            case LIST -> {
+                // Price-sorted pages starting at random price bounds, so requests spread across the catalog
+                double minPrice = 1.0 + random.nextInt(1_000);
+                yield authorized("/api/products?size=" + PAGE_SIZE + "&sort=price&minPrice=" + minPrice).GET().build();
+            }
+        };
+    }
+
+    private HttpRequest loginRequest() {
+        return post("/auth/login", Map.of("username", USERNAME, "password", PASSWORD));
+    }
+
+    private HttpRequest.Builder authorized(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token);
+    }
+
+    private HttpRequest post(String path, Map<String, String> body) {
+        try {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
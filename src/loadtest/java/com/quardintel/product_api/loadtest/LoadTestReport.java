@@ -0,0 +1,36 @@
+package com.quardintel.product_api.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Machine-readable result of one run, keyed by endpoint name.
+ */
+record LoadTestReport(LoadTestSettings settings, double durationSeconds, Map<String, EndpointStats> endpoints) {
+
+    /**
+     * Lists the endpoints whose p99 latency grew, or whose throughput fell, by more than the allowed ratio.
+     *
+     * @param baseline      Report of an earlier run
+     * @param maxRegression Allowed relative change (0.1 = 10%)
+     * @return Human-readable regressions; empty if there are none
+     */
+    List<String> regressionsAgainst(LoadTestReport baseline, double maxRegression) {
+        List<String> regressions = new ArrayList<>();
+        endpoints.forEach((name, current) -> {
+            EndpointStats previous = baseline.endpoints().get(name);
+            if (previous == null || previous.requests() == 0 || current.requests() == 0) {
+                return;
+            }
+            if (current.p99Millis() > previous.p99Millis() * (1 + maxRegression)) {
+                regressions.add(String.format("%s: p99 %.3f ms -> %.3f ms", name, previous.p99Millis(), current.p99Millis()));
+            }
+            if (current.throughputPerSecond() < previous.throughputPerSecond() * (1 - maxRegression)) {
+                regressions.add(String.format("%s: throughput %.1f/s -> %.1f/s", name,
+                        previous.throughputPerSecond(), current.throughputPerSecond()));
+            }
+        });
+        return regressions;
+    }
+}
@@ -0,0 +1,60 @@
+package com.quardintel.product_api.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Load test settings, read from {@code loadtest.*} system properties.
+ *
+ * @param products       Number of products seeded before the run
+ * @param concurrency    Number of concurrent clients
+ * @param warmup         Time driven before measuring; samples from this phase are discarded
+ * @param duration       Measured run time
+ * @param mix            Relative weight of each endpoint (e.g. {@code login=1,list=30,get=60,sell=9})
+ * @param report         File the JSON report is written to
+ * @param baseline       Earlier report to compare against, or null
+ * @param maxRegression  Allowed relative p99 increase or throughput drop against the baseline (0.1 = 10%)
+ */
+record LoadTestSettings(int products, int concurrency, Duration warmup, Duration duration,
+                        Map<Endpoint, Integer> mix, String report, String baseline, double maxRegression) {
+
+    LoadTestSettings {
+        if (products < 1 || concurrency < 1) {
+            throw new IllegalArgumentException("Products and concurrency must be at least 1.");
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("The endpoint mix must have a positive total weight.");
+        }
+        mix = Map.copyOf(mix);
+    }
+
+    static LoadTestSettings fromSystemProperties() {
+        String baseline = System.getProperty("loadtest.baseline", "");
+        return new LoadTestSettings(
+                Integer.getInteger("loadtest.products", 50_000),
+                Integer.getInteger("loadtest.concurrency", 32),
+                Duration.ofSeconds(Integer.getInteger("loadtest.warmup-seconds", 10)),
+                Duration.ofSeconds(Integer.getInteger("loadtest.duration-seconds", 60)),
+                parseMix(System.getProperty("loadtest.mix", "login=1,list=30,get=60,sell=9")),
+                System.getProperty("loadtest.report", "target/loadtest-report.json"),
+                baseline.isBlank() ? null : baseline,
+                Double.parseDouble(System.getProperty("loadtest.max-regression", "0.10")));
+    }
+
+    static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Mix weights cannot be negative: " + entry);
+            }
+            weights.put(Endpoint.fromKey(parts[0]), weight);
+        }
+        return weights;
+    }
+}
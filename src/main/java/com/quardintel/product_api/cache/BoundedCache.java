@@ -0,0 +1,546 @@
+package com.quardintel.product_api.cache;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Size-bounded Spring {@link org.springframework.cache.Cache} with optional expiry and a W-TinyLFU style eviction policy.
+ * <p>
+ * New entries land in a small LRU admission window (1% of the weight bound). Entries pushed out of the window
+ * only make it into the main LRU space if a frequency sketch says they are accessed more often than the
+ * entry they would replace, so one-off reads (e.g. a crawler walking the catalog) cannot flush the hot set.
+ * <p>
+ * Reads are lock-free; access-order and frequency bookkeeping is skipped when the policy lock is contended.
+ * Expired entries are removed lazily on read and opportunistically on write.
+ * <p>
+ * A value computed by {@link #get(Object, Callable)} is returned but not stored if its key is evicted (or the
+ * cache cleared) while the loader runs: the loader may have read the data before the write that caused the
+ * eviction, and storing its result would bring the stale value back until it expires.
+ * <p>
+ * Values can carry tags (e.g. the IDs of the products on a cached page); an index from tag to keys, kept in
+ * step with every insertion and removal, lets {@link #invalidateTagged(Object)} drop the entries with a tag
+ * without scanning the cache.
+ */
+public class BoundedCache extends AbstractValueAdaptingCache {
+
+    private static final int EXPIRY_SWEEP_LIMIT = 8; // Eldest entries checked for expiry on each write
+
+    private final String name;
+    private final long maximumWeight;
+    private final long windowMaximum;
+    private final long expireAfterWriteNanos;
+    private final long expireAfterAccessNanos;
+    private final ToLongFunction<Object> weigher;
+    private final Function<Object, Collection<?>> tagger;
+
+    private final ConcurrentHashMap<Object, Entry> store = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Object, Load> loads = new ConcurrentHashMap<>();
+
+    // Guarded by policyLock
+    private final ReentrantLock policyLock = new ReentrantLock();
+    private final LinkedHashMap<Object, Entry> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<Object, Entry> main = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+    private final Map<Object, Set<Object>> keysByTag = new HashMap<>();
+    private long windowWeight;
+    private long totalWeight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder evictionWeight = new LongAdder();
+    private final LongAdder loadSuccesses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+
+    /**
+     * @param name              Cache name
+     * @param maximumWeight     Upper bound on the summed weight of all entries
+     * @param expireAfterWrite  Time after which an entry expires once written, or null for no limit
+     * @param expireAfterAccess Time after which an entry expires once last read or written, or null for no limit
+     * @param weigher           Computes the weight of a value (values weigh at least 1)
+     */
+    public BoundedCache(String name, long maximumWeight, Duration expireAfterWrite, Duration expireAfterAccess,
+                        ToLongFunction<Object> weigher) {
+        this(name, maximumWeight, expireAfterWrite, expireAfterAccess, weigher, value -> List.of());
+    }
+
+    /**
+     * @param name              Cache name
+     * @param maximumWeight     Upper bound on the summed weight of all entries
+     * @param expireAfterWrite  Time after which an entry expires once written, or null for no limit
+     * @param expireAfterAccess Time after which an entry expires once last read or written, or null for no limit
+     * @param weigher           Computes the weight of a value (values weigh at least 1)
+     * @param tagger            Returns the tags of a value, for {@link #invalidateTagged(Object)}
+     */
+    public BoundedCache(String name, long maximumWeight, Duration expireAfterWrite, Duration expireAfterAccess,
+                        ToLongFunction<Object> weigher, Function<Object, Collection<?>> tagger) {
+        super(true);
+        if (maximumWeight < 1) {
+            throw new IllegalArgumentException("Maximum weight of cache '" + name + "' must be positive.");
+        }
+        this.name = name;
+        this.maximumWeight = maximumWeight;
+        this.windowMaximum = Math.max(1, maximumWeight / 100);
+        this.expireAfterWriteNanos = expireAfterWrite == null ? 0 : expireAfterWrite.toNanos();
+        this.expireAfterAccessNanos = expireAfterAccess == null ? 0 : expireAfterAccess.toNanos();
+        this.weigher = weigher;
+        this.tagger = tagger;
+        this.sketch = new FrequencySketch(maximumWeight);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Entry entry = lookupEntry(key);
+        return entry == null ? null : entry.value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Entry entry = lookupEntry(key);
+        if (entry != null) {
+            return (T) fromStoreValue(entry.value);
+        }
+
+        // Only one caller computes a missing value; concurrent callers for the same key wait for it
+        Load load = new Load();
+        Load inFlight = loads.putIfAbsent(key, load);
+        if (inFlight != null) {
+            try {
+                return (T) fromStoreValue(inFlight.join());
+            } catch (CompletionException ex) {
+                throw new ValueRetrievalException(key, valueLoader, ex.getCause());
+            }
+        }
+
+        long start = System.nanoTime();
+        try {
+            T value = valueLoader.call();
+            totalLoadTime.add(System.nanoTime() - start);
+            loadSuccesses.increment();
+            policyLock.lock();
+            try {
+                if (!load.invalidated) {
+                    put(key, value); // Re-entrant: the policy lock is already held
+                }
+            } finally {
+                policyLock.unlock();
+            }
+            load.complete(toStoreValue(value));
+            return value;
+        } catch (Throwable ex) {
+            totalLoadTime.add(System.nanoTime() - start);
+            loadFailures.increment();
+            load.completeExceptionally(ex);
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        } finally {
+            loads.remove(key, load);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Object storeValue = toStoreValue(value);
+        long weight = Math.max(1, value == null ? 1 : weigher.applyAsLong(value));
+        if (weight > maximumWeight) {
+            evict(key); // Can never fit; make sure no stale value stays behind
+            return;
+        }
+        Collection<?> tags = value == null ? List.of() : List.copyOf(tagger.apply(value));
+        Entry entry = new Entry(storeValue, weight, tags, System.nanoTime());
+
+        policyLock.lock();
+        try {
+            Entry previous = store.put(key, entry);
+            if (previous != null) {
+                unlink(key, previous);
+            }
+            for (Object tag : tags) {
+                keysByTag.computeIfAbsent(tag, t -> new HashSet<>()).add(key);
+            }
+            sketch.increment(key);
+            entry.inWindow = true;
+            window.put(key, entry);
+            windowWeight += weight;
+            totalWeight += weight;
+            expireEldest(entry.writeNanos);
+            evictIfNeeded();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        policyLock.lock();
+        try {
+            Entry existing = lookupEntry(key);
+            if (existing != null) {
+                return new SimpleValueWrapper(fromStoreValue(existing.value));
+            }
+            put(key, value); // Re-entrant: the policy lock is already held
+            return null;
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        policyLock.lock();
+        try {
+            invalidateLoad(key);
+            Entry removed = store.remove(key);
+            if (removed != null) {
+                unlink(key, removed);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        policyLock.lock();
+        try {
+            invalidateLoad(key);
+            Entry removed = store.remove(key);
+            if (removed == null) {
+                return false;
+            }
+            unlink(key, removed);
+            return true;
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        policyLock.lock();
+        try {
+            loads.values().forEach(load -> load.invalidated = true);
+            store.clear();
+            keysByTag.clear();
+            window.clear();
+            main.clear();
+            windowWeight = 0;
+            totalWeight = 0;
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean notEmpty = !store.isEmpty();
+        clear();
+        return notEmpty;
+    }
+
+    /**
+     * Removes every entry whose key and value match the predicate.
+     * Visits every entry; prefer {@link #invalidateTagged(Object)} where values carry tags. Removals are not
+     * counted as evictions. Loads in flight are not stored, since the predicate cannot be applied to values that
+     * are still being computed.
+     *
+     * @param predicate Test applied to each key and (unwrapped) value
+     * @return Number of entries removed
+     */
+    public int invalidateIf(BiPredicate<Object, Object> predicate) {
+        if (!loads.isEmpty()) {
+            policyLock.lock();
+            try {
+                loads.values().forEach(load -> load.invalidated = true);
+            } finally {
+                policyLock.unlock();
+            }
+        }
+        int removed = 0;
+        for (Map.Entry<Object, Entry> mapping : store.entrySet()) {
+            Entry entry = mapping.getValue();
+            if (predicate.test(mapping.getKey(), fromStoreValue(entry.value))) {
+                policyLock.lock();
+                try {
+                    if (store.remove(mapping.getKey(), entry)) {
+                        unlink(mapping.getKey(), entry);
+                        removed++;
+                    }
+                } finally {
+                    policyLock.unlock();
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Removes every entry whose value carries the tag, looking them up in the tag index.
+     * Removals are not counted as evictions. Loads in flight are not stored, since their tags are not known yet.
+     *
+     * @param tag Tag as returned by the cache's tagger
+     * @return Number of entries removed
+     */
+    public int invalidateTagged(Object tag) {
+        policyLock.lock();
+        try {
+            loads.values().forEach(load -> load.invalidated = true);
+            Set<Object> keys = keysByTag.remove(tag);
+            if (keys == null) {
+                return 0;
+            }
+            int removed = 0;
+            for (Object key : keys) {
+                Entry entry = store.remove(key);
+                if (entry != null) {
+                    unlink(key, entry);
+                    removed++;
+                }
+            }
+            return removed;
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * Returns a snapshot of this cache's statistics.
+     */
+    public CacheStats stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        long loadCount = loadSuccesses.sum() + loadFailures.sum();
+        long loadTime = totalLoadTime.sum();
+        long weightedSize;
+        policyLock.lock();
+        try {
+            weightedSize = totalWeight;
+        } finally {
+            policyLock.unlock();
+        }
+        return new CacheStats(
+                hitCount,
+                missCount,
+                lookups == 0 ? 1.0 : (double) hitCount / lookups,
+                evictions.sum(),
+                evictionWeight.sum(),
+                loadSuccesses.sum(),
+                loadFailures.sum(),
+                loadTime,
+                loadCount == 0 ? 0.0 : (double) loadTime / loadCount,
+                store.size(),
+                weightedSize,
+                maximumWeight
+        );
+    }
+
+    private Entry lookupEntry(Object key) {
+        Entry entry = store.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        long now = System.nanoTime();
+        if (isExpired(entry, now)) {
+            expire(key, entry);
+            misses.increment();
+            return null;
+        }
+        entry.accessNanos = now;
+        hits.increment();
+        afterRead(key, entry);
+        return entry;
+    }
+
+    // Record the access for the eviction policy, unless another thread is busy with the policy
+    private void afterRead(Object key, Entry entry) {
+        if (policyLock.tryLock()) {
+            try {
+                sketch.increment(key);
+                (entry.inWindow ? window : main).get(key); // Moves the key to the most recently used end
+            } finally {
+                policyLock.unlock();
+            }
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return (expireAfterWriteNanos > 0 && now - entry.writeNanos >= expireAfterWriteNanos)
+                || (expireAfterAccessNanos > 0 && now - entry.accessNanos >= expireAfterAccessNanos);
+    }
+
+    private void expire(Object key, Entry entry) {
+        policyLock.lock();
+        try {
+            if (store.remove(key, entry)) {
+                unlink(key, entry);
+                recordEviction(entry);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    // Drops a few of the least recently used entries if they have expired; caller holds the policy lock
+    private void expireEldest(long now) {
+        if (expireAfterWriteNanos == 0 && expireAfterAccessNanos == 0) {
+            return;
+        }
+        expireEldest(window, now);
+        expireEldest(main, now);
+    }
+
+    private void expireEldest(LinkedHashMap<Object, Entry> queue, long now) {
+        Iterator<Map.Entry<Object, Entry>> iterator = queue.entrySet().iterator();
+        for (int i = 0; i < EXPIRY_SWEEP_LIMIT && iterator.hasNext(); i++) {
+            Map.Entry<Object, Entry> eldest = iterator.next();
+            Entry entry = eldest.getValue();
+            if (isExpired(entry, now)) {
+                iterator.remove();
+                store.remove(eldest.getKey(), entry);
+                untag(eldest.getKey(), entry);
+                subtractWeight(entry);
+                recordEviction(entry);
+            }
+        }
+    }
+
+    // Moves window overflow into the main space and enforces the weight bound; caller holds the policy lock
+    private void evictIfNeeded() {
+        while (windowWeight > windowMaximum && !window.isEmpty()) {
+            Iterator<Map.Entry<Object, Entry>> iterator = window.entrySet().iterator();
+            Map.Entry<Object, Entry> eldest = iterator.next();
+            iterator.remove();
+            Entry candidate = eldest.getValue();
+            windowWeight -= candidate.weight;
+            candidate.inWindow = false;
+            admit(eldest.getKey(), candidate);
+        }
+        while (totalWeight > maximumWeight && !main.isEmpty()) {
+            evictEldest(main);
+        }
+        while (totalWeight > maximumWeight && !window.isEmpty()) {
+            evictEldest(window);
+        }
+    }
+
+    // The candidate enters the main space only if it is more popular than every entry it displaces
+    private void admit(Object key, Entry candidate) {
+        int candidateFrequency = sketch.frequency(key);
+        while (totalWeight > maximumWeight && !main.isEmpty()) {
+            Map.Entry<Object, Entry> victim = main.entrySet().iterator().next();
+            if (sketch.frequency(victim.getKey()) >= candidateFrequency) {
+                store.remove(key, candidate);
+                untag(key, candidate);
+                totalWeight -= candidate.weight;
+                recordEviction(candidate);
+                return;
+            }
+            evictEldest(main);
+        }
+        main.put(key, candidate);
+    }
+
+    private void evictEldest(LinkedHashMap<Object, Entry> queue) {
+        Iterator<Map.Entry<Object, Entry>> iterator = queue.entrySet().iterator();
+        Map.Entry<Object, Entry> eldest = iterator.next();
+        iterator.remove();
+        Entry entry = eldest.getValue();
+        store.remove(eldest.getKey(), entry);
+        untag(eldest.getKey(), entry);
+        subtractWeight(entry);
+        recordEviction(entry);
+    }
+
+    // Keeps a load of the key that is in flight from storing its result; caller holds the policy lock
+    private void invalidateLoad(Object key) {
+        Load load = loads.get(key);
+        if (load != null) {
+            load.invalidated = true;
+        }
+    }
+
+    // Removes an entry that has already been taken out of the store from its policy queue
+    private void unlink(Object key, Entry entry) {
+        untag(key, entry);
+        LinkedHashMap<Object, Entry> queue = entry.inWindow ? window : main;
+        if (queue.remove(key, entry)) {
+            subtractWeight(entry);
+        }
+    }
+
+    // Drops a removed entry's key from the tag index; caller holds the policy lock
+    private void untag(Object key, Entry entry) {
+        for (Object tag : entry.tags) {
+            Set<Object> keys = keysByTag.get(tag);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                keysByTag.remove(tag);
+            }
+        }
+    }
+
+    private void subtractWeight(Entry entry) {
+        totalWeight -= entry.weight;
+        if (entry.inWindow) {
+            windowWeight -= entry.weight;
+        }
+    }
+
+    private void recordEviction(Entry entry) {
+        evictions.increment();
+        evictionWeight.add(entry.weight);
+    }
+
+    private static final class Entry {
+        final Object value;
+        final long weight;
+        final Collection<?> tags;
+        final long writeNanos;
+        volatile long accessNanos;
+        boolean inWindow; // Guarded by policyLock
+
+        Entry(Object value, long weight, Collection<?> tags, long writeNanos) {
+            this.value = value;
+            this.weight = weight;
+            this.tags = tags;
+            this.writeNanos = writeNanos;
+            this.accessNanos = writeNanos;
+        }
+    }
+
+    // A value being computed by get(key, loader); the result is discarded if the key is evicted meanwhile
+    private static final class Load extends CompletableFuture<Object> {
+        boolean invalidated; // Guarded by policyLock
+    }
+}
@@ -0,0 +1,59 @@
+package com.quardintel.product_api.cache;
+
+import com.quardintel.product_api.config.CacheProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractCacheManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Cache manager that creates one {@link BoundedCache} per configured cache name.
+ * Cache names without a spec are rejected instead of being created unbounded on the fly.
+ */
+public class BoundedCacheManager extends AbstractCacheManager {
+
+    private final Map<String, CacheProperties.Spec> specs;
+    private final ToLongFunction<Object> weigher;
+    private final Function<Object, Collection<?>> tagger;
+
+    public BoundedCacheManager(Map<String, CacheProperties.Spec> specs, ToLongFunction<Object> weigher,
+                               Function<Object, Collection<?>> tagger) {
+        this.specs = new LinkedHashMap<>(specs);
+        this.weigher = weigher;
+        this.tagger = tagger;
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        List<Cache> caches = new ArrayList<>();
+        specs.forEach((name, spec) -> caches.add(new BoundedCache(
+                name,
+                spec.getMaximumWeight(),
+                spec.getExpireAfterWrite(),
+                spec.getExpireAfterAccess(),
+                weigher,
+                tagger
+        )));
+        return caches;
+    }
+
+    /**
+     * Returns the statistics of every cache managed here, keyed by cache name.
+     */
+    public Map<String, CacheStats> stats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        for (String name : getCacheNames()) {
+            Cache cache = getCache(name);
+            if (cache != null && cache.getNativeCache() instanceof BoundedCache boundedCache) {
+                stats.put(name, boundedCache.stats());
+            }
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,31 @@
+package com.quardintel.product_api.cache;
+
+/**
+ * Point-in-time statistics of a {@link BoundedCache}.
+ *
+ * @param hitCount                Lookups that found a live entry
+ * @param missCount               Lookups that found no entry or an expired one
+ * @param hitRate                 hitCount / (hitCount + missCount), or 1.0 when there were no lookups
+ * @param evictionCount           Entries removed because of the size bound or expiry
+ * @param evictionWeight          Total weight of the evicted entries
+ * @param loadSuccessCount        Values computed successfully on a miss
+ * @param loadFailureCount        Value computations that threw
+ * @param totalLoadTimeNanos      Time spent computing values on a miss
+ * @param averageLoadPenaltyNanos Average time spent computing one value on a miss
+ * @param estimatedSize           Number of entries currently held
+ * @param weightedSize            Total weight of the entries currently held
+ * @param maximumWeight           Configured weight bound
+ */
+public record CacheStats(long hitCount,
+                         long missCount,
+                         double hitRate,
+                         long evictionCount,
+                         long evictionWeight,
+                         long loadSuccessCount,
+                         long loadFailureCount,
+                         long totalLoadTimeNanos,
+                         double averageLoadPenaltyNanos,
+                         long estimatedSize,
+                         long weightedSize,
+                         long maximumWeight) {
+}
@@ -1,17 +1,39 @@
 package com.quardintel.product_api.config;
 
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import com.quardintel.product_api.cache.BoundedCacheManager;
+import com.quardintel.product_api.dto.ProductPage;
+import com.quardintel.product_api.dto.ProductView;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.cache.annotation.EnableCaching;
 
+import java.util.Collection;
+import java.util.List;
+
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
 public class CacheConfig {
 
     @Bean
-    public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager("products");
+    public BoundedCacheManager cacheManager(CacheProperties cacheProperties) {
+        return new BoundedCacheManager(cacheProperties.getSpecs(), CacheConfig::weigh, CacheConfig::tags);
+    }
+
+    // Pages are weighed by the number of products they hold so that the bound tracks memory use
+    private static long weigh(Object value) {
+        if (value instanceof ProductPage page) {
+            return Math.max(1, page.items().size());
+        }
+        return 1;
+    }
+
+    // Pages are tagged with the IDs of their products, so a product's pages are found without a scan
+    private static Collection<?> tags(Object value) {
+        if (value instanceof ProductPage page) {
+            return page.items().stream().map(ProductView::id).toList();
+        }
+        return List.of();
     }
 }
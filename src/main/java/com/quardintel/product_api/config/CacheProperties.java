@@ -0,0 +1,60 @@
+package com.quardintel.product_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-cache size and expiry settings, bound from {@code app.cache.specs[<cache name>].*}.
+ */
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheProperties {
+
+    private Map<String, Spec> specs = new LinkedHashMap<>();
+
+    public Map<String, Spec> getSpecs() {
+        return specs;
+    }
+
+    public void setSpecs(Map<String, Spec> specs) {
+        this.specs = specs;
+    }
+
+    public static class Spec {
+
+        // Upper bound on the summed weight of the entries (a single product weighs 1, a page weighs its item count)
+        private long maximumWeight = 10_000;
+
+        // Time after which an entry expires once written (no limit if unset)
+        private Duration expireAfterWrite;
+
+        // Time after which an entry expires once last accessed (no limit if unset)
+        private Duration expireAfterAccess;
+
+        public long getMaximumWeight() {
+            return maximumWeight;
+        }
+
+        public void setMaximumWeight(long maximumWeight) {
+            this.maximumWeight = maximumWeight;
+        }
+
+        public Duration getExpireAfterWrite() {
+            return expireAfterWrite;
+        }
+
+        public void setExpireAfterWrite(Duration expireAfterWrite) {
+            this.expireAfterWrite = expireAfterWrite;
+        }
+
+        public Duration getExpireAfterAccess() {
+            return expireAfterAccess;
+        }
+
+        public void setExpireAfterAccess(Duration expireAfterAccess) {
+            this.expireAfterAccess = expireAfterAccess;
+        }
+    }
+}
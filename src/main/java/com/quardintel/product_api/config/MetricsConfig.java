@@ -0,0 +1,45 @@
+package com.quardintel.product_api.config;
+
+import com.quardintel.product_api.cache.BoundedCache;
+import com.quardintel.product_api.cache.BoundedCacheManager;
+import com.quardintel.product_api.metrics.MetricsRegistry;
+import com.quardintel.product_api.metrics.QueryCountInspector;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.cache.Cache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    // Counts the statements of every Hibernate session, for the per-request query metrics
+    @Bean
+    public HibernatePropertiesCustomizer queryCountCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCountInspector());
+    }
+
+    // Exposes the statistics each cache already keeps; they are read at scrape time, not on every lookup
+    @Bean
+    public SmartInitializingSingleton cacheMetrics(BoundedCacheManager cacheManager, MetricsRegistry registry) {
+        return () -> {
+            for (String name : cacheManager.getCacheNames()) {
+                Cache cache = cacheManager.getCache(name);
+                if (cache == null || !(cache.getNativeCache() instanceof BoundedCache boundedCache)) {
+                    continue;
+                }
+                registry.counterFunction("cache_gets_total", "Cache lookups",
+                        () -> boundedCache.stats().hitCount(), "cache", name, "result", "hit");
+                registry.counterFunction("cache_gets_total", "Cache lookups",
+                        () -> boundedCache.stats().missCount(), "cache", name, "result", "miss");
+                registry.counterFunction("cache_evictions_total", "Entries evicted by size or expiry",
+                        () -> boundedCache.stats().evictionCount(), "cache", name);
+                registry.gauge("cache_size", "Entries currently cached",
+                        () -> boundedCache.stats().estimatedSize(), "cache", name);
+                registry.gauge("cache_weight", "Weight currently cached",
+                        () -> boundedCache.stats().weightedSize(), "cache", name);
+            }
+        };
+    }
+}
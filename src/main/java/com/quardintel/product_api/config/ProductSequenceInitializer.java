@@ -0,0 +1,55 @@
+package com.quardintel.product_api.config;
+
+import com.quardintel.product_api.model.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Moves the product ID sequence past the IDs already in use.
+ * <p>
+ * Product IDs come from {@code product_seq}. Databases created while IDs were assigned by IDENTITY get that
+ * sequence from schema update starting at 1, so the first inserts would reuse existing IDs. On MySQL and
+ * MariaDB the sequence is a one-row table, which is raised here to above {@code max(id)} before the web
+ * server starts; it is never lowered. Other databases keep native sequences and are created fresh.
+ */
+@Component
+public class ProductSequenceInitializer implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSequenceInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductSequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (database == null || !database.toLowerCase(Locale.ROOT).matches("mysql|mariadb")) {
+            return;
+        }
+        seedTable();
+    }
+
+    // One pooled block past max(id): the next block handed out starts above every existing ID
+    private void seedTable() {
+        Long maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from product", Long.class);
+        long floor = maxId + Product.ID_ALLOCATION_SIZE + 1;
+        List<Long> current = jdbcTemplate.queryForList("select next_val from product_seq", Long.class);
+        if (current.isEmpty()) {
+            jdbcTemplate.update("insert into product_seq (next_val) values (?)", floor);
+            logger.info("Seeded product_seq at {}", floor);
+        } else if (jdbcTemplate.update("update product_seq set next_val = ? where next_val < ?", floor, floor) > 0) {
+            logger.info("Raised product_seq from {} to {} (max product ID {})", current.get(0), floor, maxId);
+        }
+    }
+}
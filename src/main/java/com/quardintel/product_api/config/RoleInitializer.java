@@ -2,28 +2,41 @@ package com.quardintel.product_api.config;
 
 import com.quardintel.product_api.model.Role;
 import com.quardintel.product_api.repository.RoleRepository;
-import org.springframework.boot.CommandLineRunner;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
+import com.quardintel.product_api.service.RoleRegistry;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
 
-@Configuration
-public class RoleInitializer {
+/**
+ * Creates the ADMIN and USER roles if missing and loads the {@link RoleRegistry}.
+ * Runs before the web server starts, so no registration can arrive while the registry is still empty.
+ */
+@Component
+public class RoleInitializer implements SmartInitializingSingleton {
 
-    @Bean
-    public CommandLineRunner initRoles(RoleRepository roleRepository) {
-        return args -> {
-            // Check if the roles already exist
-            if (roleRepository.findByName("ADMIN").isEmpty()) {
-                Role adminRole = new Role();
-                adminRole.setName("ADMIN");
-                roleRepository.save(adminRole);
-            }
+    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
 
-            if (roleRepository.findByName("USER").isEmpty()) {
-                Role userRole = new Role();
-                userRole.setName("USER");
-                roleRepository.save(userRole);
-            }
-        };
+    public RoleInitializer(RoleRepository roleRepository, RoleRegistry roleRegistry) {
+        this.roleRepository = roleRepository;
+        this.roleRegistry = roleRegistry;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        // Check if the roles already exist
+        if (roleRepository.findByName("ADMIN").isEmpty()) {
+            Role adminRole = new Role();
+            adminRole.setName("ADMIN");
+            roleRepository.save(adminRole);
+        }
+
+        if (roleRepository.findByName("USER").isEmpty()) {
+            Role userRole = new Role();
+            userRole.setName("USER");
+            roleRepository.save(userRole);
+        }
+
+        // Keep the roles in memory so registration never has to query them
+        roleRegistry.load(roleRepository.findAll());
     }
 }
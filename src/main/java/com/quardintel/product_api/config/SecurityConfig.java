@@ -4,13 +4,16 @@ import com.quardintel.product_api.exception.CustomAccessDeniedHandler;
 import com.quardintel.product_api.exception.CustomAuthenticationEntryPoint;
 import com.quardintel.product_api.security.JwtAuthenticationFilter;
 import com.quardintel.product_api.security.JwtUtil;
+import com.quardintel.product_api.security.MetricsScrapeFilter;
+import com.quardintel.product_api.security.UserStateCache;
 import com.quardintel.product_api.service.CustomUserDetailsService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
-import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -21,19 +24,32 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 
 @Configuration
 @EnableWebSecurity
+@EnableMethodSecurity // Applies the @PreAuthorize checks on the controllers
 public class SecurityConfig {
     private final JwtUtil jwtTokenUtil;
     private final CustomUserDetailsService customUserDetailsService;
     private final CustomAuthenticationEntryPoint customAuthenticationEntryPoint;
     private final CustomAccessDeniedHandler customAccessDeniedHandler;
+    private final UserStateCache userStateCache;
+    private final boolean claimsOnlyAuthentication;
+    private final int bcryptStrength;
+    private final String metricsScrapeToken;
 
     // Constructor injection
     public SecurityConfig(JwtUtil jwtTokenUtil,
-                          CustomUserDetailsService customUserDetailsService, CustomAuthenticationEntryPoint customAuthenticationEntryPoint, CustomAccessDeniedHandler customAccessDeniedHandler) {
+                          CustomUserDetailsService customUserDetailsService, CustomAuthenticationEntryPoint customAuthenticationEntryPoint, CustomAccessDeniedHandler customAccessDeniedHandler,
+                          UserStateCache userStateCache,
+                          @Value("${app.security.jwt.claims-only:true}") boolean claimsOnlyAuthentication,
+                          @Value("${app.security.bcrypt.strength:10}") int bcryptStrength,
+                          @Value("${app.metrics.scrape-token:}") String metricsScrapeToken) {
         this.jwtTokenUtil = jwtTokenUtil;
         this.customUserDetailsService = customUserDetailsService;
         this.customAuthenticationEntryPoint = customAuthenticationEntryPoint;
         this.customAccessDeniedHandler = customAccessDeniedHandler;
+        this.userStateCache = userStateCache;
+        this.claimsOnlyAuthentication = claimsOnlyAuthentication;
+        this.bcryptStrength = bcryptStrength;
+        this.metricsScrapeToken = metricsScrapeToken;
     }
 
     @Bean
@@ -43,9 +59,11 @@ public class SecurityConfig {
                 .requestMatchers("/auth/login", "/auth/register").permitAll()// Allow public access to login & registration
                 // Role-based access control using hasRole
                 .requestMatchers(HttpMethod.GET, "/api/products/**").hasAnyRole("USER", "ADMIN") // Users and Admins can view products
-                .requestMatchers(HttpMethod.POST, "/api/products").hasRole("ADMIN") // Only Admins can create products
+                .requestMatchers(HttpMethod.POST, "/api/products", "/api/products/**").hasRole("ADMIN") // Only Admins can create, import and sell products
                 .requestMatchers(HttpMethod.PUT, "/api/products/**").hasRole("ADMIN") // Only Admins can update products
                 .requestMatchers(HttpMethod.DELETE, "/api/products/**").hasRole("ADMIN") // Only Admins can delete products
+                .requestMatchers("/api/admin/**").hasRole("ADMIN") // Statistics and runtime switches are Admin only
+                .requestMatchers(HttpMethod.GET, MetricsScrapeFilter.SCRAPE_PATH).hasAnyRole(MetricsScrapeFilter.SCRAPER_ROLE, "ADMIN") // Scrapers with the scrape token, and Admins
                 .anyRequest().authenticated() // Secure all other endpoints
                 .and()
                 .exceptionHandling()
@@ -55,8 +73,11 @@ public class SecurityConfig {
                 .addFilterBefore(new JwtAuthenticationFilter(
                         authenticationManager(http.getSharedObject(AuthenticationConfiguration.class)),
                         jwtTokenUtil,
-                        customUserDetailsService
-                ), UsernamePasswordAuthenticationFilter.class);
+                        customUserDetailsService,
+                        userStateCache,
+                        claimsOnlyAuthentication
+                ), UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(new MetricsScrapeFilter(metricsScrapeToken), JwtAuthenticationFilter.class); // Runs first: the scrape token is not a JWT
 
         return http.build();
     }
@@ -68,6 +89,6 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 }
@@ -0,0 +1,72 @@
+package com.quardintel.product_api.controller;
+
+import com.quardintel.product_api.cache.BoundedCacheManager;
+import com.quardintel.product_api.cache.CacheStats;
+import com.quardintel.product_api.dto.FlashSaleStatus;
+import com.quardintel.product_api.dto.LoginPoolStats;
+import com.quardintel.product_api.service.FlashSaleService;
+import com.quardintel.product_api.service.PasswordHashingService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private final BoundedCacheManager cacheManager;
+    private final PasswordHashingService passwordHashingService;
+    private final FlashSaleService flashSaleService;
+
+    public AdminController(BoundedCacheManager cacheManager, PasswordHashingService passwordHashingService,
+                           FlashSaleService flashSaleService) {
+        this.cacheManager = cacheManager;
+        this.passwordHashingService = passwordHashingService;
+        this.flashSaleService = flashSaleService;
+    }
+
+    // Hit, miss, eviction and load-time statistics per cache (only Admin)
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/caches")
+    public ResponseEntity<Map<String, CacheStats>> getCacheStats() {
+        return ResponseEntity.ok(cacheManager.stats());
+    }
+
+    // Queue depth, rejections and hash time of the login hashing pool (only Admin)
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/login-pool")
+    public ResponseEntity<LoginPoolStats> getLoginPoolStats() {
+        return ResponseEntity.ok(passwordHashingService.stats());
+    }
+
+    // Products in flash-sale mode and the stock left in their counters (only Admin)
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/flash-sales")
+    public ResponseEntity<List<FlashSaleStatus>> getFlashSales() {
+        return ResponseEntity.ok(flashSaleService.status());
+    }
+
+    // Switch a product to flash-sale mode (only Admin)
+    @PreAuthorize("hasRole('ADMIN')")
+    @PutMapping("/flash-sales/{id}")
+    public ResponseEntity<FlashSaleStatus> enableFlashSale(@PathVariable Long id) {
+        return ResponseEntity.ok(flashSaleService.enable(id));
+    }
+
+    // Switch a product back to database stock once its flash sales are flushed (only Admin)
+    @PreAuthorize("hasRole('ADMIN')")
+    @DeleteMapping("/flash-sales/{id}")
+    public ResponseEntity<Void> disableFlashSale(@PathVariable Long id) {
+        return flashSaleService.disable(id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+}
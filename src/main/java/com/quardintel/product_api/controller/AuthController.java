@@ -9,6 +9,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 
 @RestController
 @RequestMapping("/auth")
@@ -35,17 +37,15 @@ public class AuthController {
 
     /**
      * Authenticates a user based on the provided credentials.
+     * Completes asynchronously once the password has been checked on the hashing pool;
+     * returns 429 if that pool is saturated.
      *
      * @param request Contains login credentials (username and password).
      * @return ResponseEntity containing authentication details or an error message.
      */
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> loginUser(@Valid @RequestBody LoginRequest request) {
-        try {
-            AuthResponse response = userService.authenticateUser(request);
-            return ResponseEntity.ok(response);
-        } catch (IllegalArgumentException ex) {
-            return ResponseEntity.badRequest().body(new AuthResponse(ex.getMessage(), null, null, null));
-        }
+    public CompletableFuture<ResponseEntity<AuthResponse>> loginUser(@Valid @RequestBody LoginRequest request) {
+        return userService.authenticateUser(request)
+                .thenApply(ResponseEntity::ok);
     }
 }
@@ -0,0 +1,25 @@
+package com.quardintel.product_api.controller;
+
+import com.quardintel.product_api.metrics.MetricsRegistry;
+import com.quardintel.product_api.security.MetricsScrapeFilter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class MetricsController {
+
+    private final MetricsRegistry metricsRegistry;
+
+    public MetricsController(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    // Metrics in the Prometheus text format for scrapers holding the scrape token (or Admin)
+    @PreAuthorize("hasAnyRole('METRICS', 'ADMIN')")
+    @GetMapping(value = MetricsScrapeFilter.SCRAPE_PATH, produces = "text/plain;version=0.0.4;charset=utf-8")
+    public ResponseEntity<String> scrape() {
+        return ResponseEntity.ok(metricsRegistry.scrape());
+    }
+}
@@ -1,13 +1,38 @@
 package com.quardintel.product_api.controller;
 
+import com.quardintel.product_api.dto.CategoryFilter;
+import com.quardintel.product_api.dto.ProductChangePage;
+import com.quardintel.product_api.dto.EncodedProduct;
+import com.quardintel.product_api.dto.ProductImportResult;
+import com.quardintel.product_api.dto.ProductPage;
+import com.quardintel.product_api.dto.ProductPageRequest;
+import com.quardintel.product_api.dto.ProductSearchHit;
+import com.quardintel.product_api.dto.ProductSortKey;
+import com.quardintel.product_api.dto.ProductView;
+import com.quardintel.product_api.dto.SellLineResult;
+import com.quardintel.product_api.dto.SellOrderRequest;
+import com.quardintel.product_api.index.ProductRangeIndex;
+import com.quardintel.product_api.index.ProductSearchIndex;
 import com.quardintel.product_api.model.Product;
+import com.quardintel.product_api.service.ProductCacheService;
+import com.quardintel.product_api.service.ProductChangeService;
+import com.quardintel.product_api.service.ProductImportService;
 import com.quardintel.product_api.service.ProductService;
+import com.quardintel.product_api.service.ProductStreamService;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -15,31 +40,164 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductCacheService productCacheService;
+    private final ProductChangeService productChangeService;
+    private final ProductStreamService productStreamService;
+    private final boolean serveEncodedProducts;
+    private final boolean mergeStockConflicts;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductImportService productImportService,
+                             ProductSearchIndex productSearchIndex, ProductCacheService productCacheService,
+                             ProductChangeService productChangeService, ProductStreamService productStreamService,
+                             @Value("${app.cache.product-json.enabled:false}") boolean serveEncodedProducts,
+                             @Value("${app.products.merge-stock-conflicts:false}") boolean mergeStockConflicts) {
         this.productService = productService;
+        this.productImportService = productImportService;
+        this.productSearchIndex = productSearchIndex;
+        this.productCacheService = productCacheService;
+        this.productChangeService = productChangeService;
+        this.productStreamService = productStreamService;
+        this.serveEncodedProducts = serveEncodedProducts;
+        this.mergeStockConflicts = mergeStockConflicts;
     }
 
-    // Get all products (accessible by both Admin and User)
+    // Get a page of products using keyset pagination (accessible by both Admin and User)
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        List<Product> products = productService.getAllProducts();
-        if (products.isEmpty()) {
+    public ResponseEntity<ProductPage> getProducts(@RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "" + ProductPageRequest.DEFAULT_PAGE_SIZE) int size,
+                                                   @RequestParam(defaultValue = "id") String sort,
+                                                   @RequestParam(defaultValue = "asc") String direction,
+                                                   @RequestParam(required = false) String name,
+                                                   @RequestParam(required = false) Double minPrice,
+                                                   @RequestParam(required = false) Double maxPrice,
+                                                   @RequestParam(required = false) List<Long> category,
+                                                   @RequestParam(defaultValue = "any") String match,
+                                                   @RequestParam(required = false) List<Long> excludeCategory,
+                                                   WebRequest webRequest) {
+        String catalogTag = productCacheService.catalogETag();
+        // Validated first, so a malformed request gets 400 rather than 304
+        ProductPageRequest request = new ProductPageRequest(cursor, size, ProductSortKey.fromParam(sort),
+                ProductPageRequest.isAscending(direction), name, minPrice, maxPrice,
+                CategoryFilter.of(category, match, excludeCategory));
+        productService.checkPageRequest(request);
+        if (webRequest.checkNotModified(catalogTag)) {
+            return null;  // Return 304 if nothing in the catalog changed since the client's copy
+        }
+        ProductPage page = productService.getProductPage(request);
+        if (page.items().isEmpty() && request.cursor() == null) {
             return ResponseEntity.noContent().build();  // Return 204 if no products are found
         }
-        return ResponseEntity.ok(products);
+        return ResponseEntity.ok().eTag(catalogTag).body(page);
+    }
+
+    // Full-text search over product names and descriptions, served from the in-memory index (accessible by both Admin and User)
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductSearchHit>> searchProducts(@RequestParam String q,
+                                                                 @RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1 || limit > ProductPageRequest.MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + ProductPageRequest.MAX_PAGE_SIZE + ".");
+        }
+        return ResponseEntity.ok(productSearchIndex.search(q, limit));
+    }
+
+    // Products priced within a range, ordered by price (accessible by both Admin and User)
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @GetMapping("/price-range")
+    public ResponseEntity<ProductPage> getProductsByPrice(@RequestParam(defaultValue = "0") double min,
+                                                          @RequestParam(defaultValue = "" + Double.MAX_VALUE) double max,
+                                                          @RequestParam(defaultValue = "asc") String direction,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(defaultValue = "" + ProductPageRequest.DEFAULT_PAGE_SIZE) int size,
+                                                          WebRequest webRequest) {
+        String catalogTag = productCacheService.catalogETag();
+        boolean ascending = ProductPageRequest.isAscending(direction);
+        productService.checkRangePageRequest(ProductRangeIndex.Field.PRICE, min, max, ascending, cursor, size);
+        if (webRequest.checkNotModified(catalogTag)) {
+            return null;  // Return 304 if nothing in the catalog changed since the client's copy
+        }
+        return ResponseEntity.ok().eTag(catalogTag).body(productService.getProductRangePage(ProductRangeIndex.Field.PRICE,
+                min, max, ascending, cursor, size));
+    }
+
+    // Products with stock within a range, ordered by quantity (accessible by both Admin and User)
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @GetMapping("/stock-range")
+    public ResponseEntity<ProductPage> getProductsByStock(@RequestParam(defaultValue = "0") int min,
+                                                          @RequestParam(defaultValue = "" + Integer.MAX_VALUE) int max,
+                                                          @RequestParam(defaultValue = "asc") String direction,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(defaultValue = "" + ProductPageRequest.DEFAULT_PAGE_SIZE) int size,
+                                                          WebRequest webRequest) {
+        String catalogTag = productCacheService.catalogETag();
+        boolean ascending = ProductPageRequest.isAscending(direction);
+        productService.checkRangePageRequest(ProductRangeIndex.Field.QUANTITY, min, max, ascending, cursor, size);
+        if (webRequest.checkNotModified(catalogTag)) {
+            return null;  // Return 304 if nothing in the catalog changed since the client's copy
+        }
+        return ResponseEntity.ok().eTag(catalogTag).body(productService.getProductRangePage(ProductRangeIndex.Field.QUANTITY,
+                min, max, ascending, cursor, size));
+    }
+
+    // Export the whole catalog as newline-delimited JSON (accessible by both Admin and User)
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        StreamingResponseBody body = productService::exportCatalog;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    // Products changed or deleted after a sync token (accessible by both Admin and User)
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChangePage> getChanges(@RequestParam(defaultValue = "0") String since,
+                                                        @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(productChangeService.getChanges(since, limit));
+    }
+
+    // Every change after a sync token as newline-delimited JSON, for large gaps (accessible by both Admin and User)
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @GetMapping(value = "/changes/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamChanges(@RequestParam(defaultValue = "0") String since) {
+        productChangeService.checkToken(since); // Rejected with a status before the stream starts
+        StreamingResponseBody body = out -> productChangeService.streamChanges(since, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    // Live product changes as Server-Sent Events, optionally for given products or categories (accessible by both Admin and User)
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamProducts(@RequestParam(name = "product", required = false) List<Long> productIds,
+                                     @RequestParam(name = "category", required = false) List<Long> categoryIds) {
+        return productStreamService.subscribe(productIds, categoryIds);
     }
 
     // Get a product by ID (accessible by both Admin and User)
+    // Tagged with the product version, also for cached JSON, so the tag can be sent back as If-Match;
+    // a matching If-None-Match gets 304 and no body
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProduct(@PathVariable Long id) {
-        Product product = productService.getProduct(id);
+    public ResponseEntity<?> getProduct(@PathVariable Long id) {
+        if (serveEncodedProducts) {
+            // Cached response bytes are written as they are, without serialization
+            EncodedProduct encoded = productService.getEncodedProduct(id);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .eTag("v" + encoded.version())
+                    .body(encoded.json());
+        }
+        ProductView product = productService.getProduct(id);
         if (product == null) {
             return ResponseEntity.notFound().build();  // Return 404 if product is not found
         }
-        return ResponseEntity.ok(product);
+        return ResponseEntity.ok().eTag("v" + product.version()).body(product);
     }
 
     // Create a new product (only Admin)
@@ -50,15 +208,52 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdProduct);
     }
 
+    // Bulk import products from a JSON array (only Admin)
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ProductImportResult> importProductsJson(InputStream body) throws IOException {
+        return ResponseEntity.ok(productImportService.importJson(body));
+    }
+
+    // Bulk import products from CSV (only Admin)
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ProductImportResult> importProductsCsv(InputStream body) throws IOException {
+        return ResponseEntity.ok(productImportService.importCsv(body));
+    }
+
     // Update an existing product (only Admin)
+    // The expected version comes from If-Match or the body's version; a stale one gets 409 with the current version
+    // baseQuantity is the stock the new quantity was derived from; when merging is enabled it lets a stale
+    // stock-only update apply its change to the current stock
     @PreAuthorize("hasRole('ADMIN')")
     @PutMapping("/{id}")
-    public ResponseEntity<Product> updateProduct(@PathVariable Long id, @Valid @RequestBody Product product) {
-        Product updatedProduct = productService.updateProduct(id, product);
+    public ResponseEntity<Product> updateProduct(@PathVariable Long id, @Valid @RequestBody Product product,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                 @RequestParam(required = false) Integer baseQuantity) {
+        Long expectedVersion = ifMatch != null ? versionFromETag(ifMatch) : product.getVersion();
+        Product updatedProduct = productService.updateProduct(id, product, expectedVersion,
+                mergeStockConflicts ? baseQuantity : null);
         if (updatedProduct == null) {
             return ResponseEntity.notFound().build();  // Return 404 if product to update is not found
         }
-        return ResponseEntity.ok(updatedProduct);
+        return ResponseEntity.ok().eTag("v" + updatedProduct.getVersion()).body(updatedProduct);
+    }
+
+    // Version from a product ETag ("v<version>"); "*" matches any version
+    private static Long versionFromETag(String ifMatch) {
+        String tag = ifMatch.trim();
+        if (tag.equals("*")) {
+            return null;
+        }
+        if (tag.length() > 3 && tag.startsWith("\"v") && tag.endsWith("\"")) {
+            try {
+                return Long.valueOf(tag.substring(2, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // Fall through to the error below
+            }
+        }
+        throw new IllegalArgumentException("If-Match must be a product version ETag such as \"v3\".");
     }
 
     // Delete a product (only Admin)
@@ -83,4 +278,11 @@ public class ProductController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);  // Return 400 if the sale is invalid
         }
     }
+
+    // Sell several products in one all-or-nothing transaction (only Admin)
+    @PostMapping("/sell")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<SellLineResult>> sellProducts(@Valid @RequestBody SellOrderRequest order) {
+        return ResponseEntity.ok(productService.sellProducts(order.getLines()));  // Returns 400 if any line has insufficient stock
+    }
 }
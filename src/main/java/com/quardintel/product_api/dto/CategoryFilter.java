@@ -0,0 +1,49 @@
+package com.quardintel.product_api.dto;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Category filter of the product listing.
+ *
+ * @param included Category IDs to match; empty means every product
+ * @param matchAll True if a product must be in all included categories, false if any one is enough
+ * @param excluded Category IDs a product must not be in
+ */
+public record CategoryFilter(Set<Long> included, boolean matchAll, Set<Long> excluded) {
+
+    public static final CategoryFilter NONE = new CategoryFilter(Set.of(), false, Set.of());
+
+    public CategoryFilter {
+        included = included == null ? Set.of() : Set.copyOf(included);
+        excluded = excluded == null ? Set.of() : Set.copyOf(excluded);
+    }
+
+    /**
+     * Builds a filter from the listing's request parameters.
+     *
+     * @param included Category IDs, or null
+     * @param match    "any" or "all"
+     * @param excluded Excluded category IDs, or null
+     * @return The filter, or {@link #NONE} if no categories were given
+     */
+    public static CategoryFilter of(Collection<Long> included, String match, Collection<Long> excluded) {
+        boolean matchAll;
+        if ("all".equalsIgnoreCase(match)) {
+            matchAll = true;
+        } else if ("any".equalsIgnoreCase(match)) {
+            matchAll = false;
+        } else {
+            throw new IllegalArgumentException("Unsupported category match: " + match);
+        }
+        if ((included == null || included.isEmpty()) && (excluded == null || excluded.isEmpty())) {
+            return NONE;
+        }
+        return new CategoryFilter(included == null ? null : Set.copyOf(included), matchAll,
+                excluded == null ? null : Set.copyOf(excluded));
+    }
+
+    public boolean isEmpty() {
+        return included.isEmpty() && excluded.isEmpty();
+    }
+}
@@ -0,0 +1,7 @@
+package com.quardintel.product_api.dto;
+
+/**
+ * Immutable read model of a category, as embedded in {@link ProductView}.
+ */
+public record CategoryView(Long id, String name) {
+}
@@ -0,0 +1,28 @@
+package com.quardintel.product_api.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * A product's JSON response body, encoded once and cached, so repeat reads are written out without serialization.
+ *
+ * @param json    UTF-8 encoded JSON of the {@link ProductView}; must not be modified
+ * @param version Version of the encoded product, for the same ETag as an uncached read
+ */
+public record EncodedProduct(byte[] json, Long version) {
+
+    /**
+     * Encodes a product with the application's object mapper, so the bytes match a regular response.
+     *
+     * @param product      Product to encode
+     * @param objectMapper Mapper used for HTTP responses
+     * @return Encoded product
+     */
+    public static EncodedProduct encode(ProductView product, ObjectMapper objectMapper) {
+        try {
+            return new EncodedProduct(objectMapper.writeValueAsBytes(product), product.version());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Product " + product.id() + " cannot be serialized", e);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.quardintel.product_api.dto;
+
+/**
+ * A product in flash-sale mode.
+ *
+ * @param productId Product ID
+ * @param available Stock left in the in-memory counter; the stored quantity catches up at the next flush
+ */
+public record FlashSaleStatus(Long productId, int available) {
+}
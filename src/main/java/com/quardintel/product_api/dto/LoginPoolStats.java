@@ -0,0 +1,21 @@
+package com.quardintel.product_api.dto;
+
+/**
+ * Snapshot of the password hashing pool used by login.
+ *
+ * @param poolSize          Worker threads
+ * @param activeThreads     Workers currently hashing
+ * @param queueDepth        Logins waiting for a worker
+ * @param queueCapacity     Maximum number of waiting logins before new ones are rejected
+ * @param completedCount    Password checks finished
+ * @param rejectedCount     Logins rejected with 429 because the pool was saturated
+ * @param averageHashMillis Average time of one password check
+ */
+public record LoginPoolStats(int poolSize,
+                             int activeThreads,
+                             int queueDepth,
+                             int queueCapacity,
+                             long completedCount,
+                             long rejectedCount,
+                             double averageHashMillis) {
+}
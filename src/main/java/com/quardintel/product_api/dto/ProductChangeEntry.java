@@ -0,0 +1,14 @@
+package com.quardintel.product_api.dto;
+
+import com.quardintel.product_api.event.ProductChangedEvent;
+
+/**
+ * One product in a catalog delta. Apply every type but {@code DELETED} as an upsert of {@code product}.
+ *
+ * @param sequence  Change sequence number; the last one seen is the token for the next sync
+ * @param productId Changed product
+ * @param type      Latest kind of change to the product within the delta
+ * @param product   Current state of the product; null for deletions (tombstones)
+ */
+public record ProductChangeEntry(long sequence, Long productId, ProductChangedEvent.Type type, ProductView product) {
+}
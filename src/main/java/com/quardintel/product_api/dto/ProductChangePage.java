@@ -0,0 +1,17 @@
+package com.quardintel.product_api.dto;
+
+import java.util.List;
+
+/**
+ * One page of the catalog change feed.
+ *
+ * @param changes   Changed products in sequence order, at most one entry per product
+ * @param nextToken Token to pass as {@code since} to continue after this page
+ * @param hasMore   Whether further changes can be fetched right away
+ */
+public record ProductChangePage(List<ProductChangeEntry> changes, String nextToken, boolean hasMore) {
+
+    public ProductChangePage {
+        changes = List.copyOf(changes);
+    }
+}
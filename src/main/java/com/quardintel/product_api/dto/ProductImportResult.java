@@ -0,0 +1,21 @@
+package com.quardintel.product_api.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk product import.
+ *
+ * @param received      Rows read from the request
+ * @param imported      Rows inserted
+ * @param rejected      Rows skipped because they failed validation
+ * @param errors        Reasons for the first rejected rows (capped)
+ * @param elapsedMillis Wall-clock time of the import
+ * @param rowsPerSecond Imported rows per second
+ */
+public record ProductImportResult(long received,
+                                  long imported,
+                                  long rejected,
+                                  List<String> errors,
+                                  long elapsedMillis,
+                                  double rowsPerSecond) {
+}
@@ -0,0 +1,17 @@
+package com.quardintel.product_api.dto;
+
+import java.util.List;
+
+/**
+ * One page of the product listing.
+ *
+ * @param items      Products on this page
+ * @param nextCursor Token to pass as {@code cursor} to fetch the next page, or null on the last page
+ * @param hasMore    Whether another page follows this one
+ */
+public record ProductPage(List<ProductView> items, String nextCursor, boolean hasMore) {
+
+    public ProductPage {
+        items = List.copyOf(items);
+    }
+}
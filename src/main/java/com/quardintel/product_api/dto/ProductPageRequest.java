@@ -0,0 +1,64 @@
+package com.quardintel.product_api.dto;
+
+/**
+ * Immutable description of one page of the product listing.
+ * Also used as the cache key for the page, so every field takes part in equals/hashCode.
+ *
+ * @param cursor    Continuation token returned by the previous page, or null for the first page
+ * @param size      Number of products per page
+ * @param sort      Sort key
+ * @param ascending Sort direction
+ * @param name      Optional name prefix filter
+ * @param minPrice  Optional lower price bound (inclusive)
+ * @param maxPrice  Optional upper price bound (inclusive)
+ * @param categories Category filter; {@link CategoryFilter#NONE} for none
+ */
+public record ProductPageRequest(String cursor,
+                                 int size,
+                                 ProductSortKey sort,
+                                 boolean ascending,
+                                 String name,
+                                 Double minPrice,
+                                 Double maxPrice,
+                                 CategoryFilter categories) {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    public ProductPageRequest {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice.");
+        }
+        if (sort == null) {
+            sort = ProductSortKey.ID;
+        }
+        if (name != null && name.isBlank()) {
+            name = null;
+        }
+        if (cursor != null && cursor.isBlank()) {
+            cursor = null;
+        }
+        if (categories == null) {
+            categories = CategoryFilter.NONE;
+        }
+    }
+
+    /**
+     * Parses the sort direction request parameter.
+     *
+     * @param direction "asc" or "desc"
+     * @return True for ascending order
+     */
+    public static boolean isAscending(String direction) {
+        if ("asc".equalsIgnoreCase(direction)) {
+            return true;
+        }
+        if ("desc".equalsIgnoreCase(direction)) {
+            return false;
+        }
+        throw new IllegalArgumentException("Unsupported sort direction: " + direction);
+    }
+}
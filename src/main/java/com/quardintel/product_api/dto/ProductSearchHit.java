@@ -0,0 +1,8 @@
+package com.quardintel.product_api.dto;
+
+/**
+ * One search result, served from the search index without a database read.
+ * Stock is not included because it changes with every sale; fetch the product for the current quantity.
+ */
+public record ProductSearchHit(Long id, String name, String description, Double price, double score) {
+}
@@ -0,0 +1,36 @@
+package com.quardintel.product_api.dto;
+
+/**
+ * Sort keys supported by the paginated product listing.
+ * Every key is combined with the product ID as a tie-breaker so that keyset pages are stable.
+ */
+public enum ProductSortKey {
+    ID("id"),
+    NAME("name"),
+    PRICE("price");
+
+    private final String property;
+
+    ProductSortKey(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * Resolves a sort key from a request parameter (case-insensitive).
+     *
+     * @param value Request parameter value
+     * @return Matching sort key
+     */
+    public static ProductSortKey fromParam(String value) {
+        for (ProductSortKey key : values()) {
+            if (key.property.equalsIgnoreCase(value)) {
+                return key;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sort key: " + value);
+    }
+}
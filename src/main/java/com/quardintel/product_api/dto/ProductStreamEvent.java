@@ -0,0 +1,46 @@
+package com.quardintel.product_api.dto;
+
+import com.quardintel.product_api.event.ProductChangedEvent;
+import com.quardintel.product_api.event.ProductSnapshot;
+
+/**
+ * One product change pushed to stream subscribers.
+ * Events a subscriber has not received yet are coalesced per product: stock deltas are summed, and folded
+ * into a pending snapshot's quantity; any other change replaces what is pending.
+ *
+ * @param type       Kind of change
+ * @param productId  Changed product
+ * @param product    State after the change for {@link ProductChangedEvent.Type#ADDED} and
+ *                   {@link ProductChangedEvent.Type#UPDATED}, otherwise null
+ * @param stockDelta Change in quantity for {@link ProductChangedEvent.Type#STOCK_CHANGED}, otherwise 0
+ * @param version    Product version after the change, or null for deletions
+ */
+public record ProductStreamEvent(ProductChangedEvent.Type type, Long productId, ProductSnapshot product, int stockDelta,
+                                 Long version) {
+
+    public static ProductStreamEvent of(ProductChangedEvent event) {
+        return new ProductStreamEvent(event.type(), event.productId(), event.snapshot(), event.stockDelta(),
+                event.version());
+    }
+
+    /**
+     * Folds a later change to the same product into this one.
+     *
+     * @param later Change that happened after this one
+     * @return Single event with the combined effect
+     */
+    public ProductStreamEvent merge(ProductStreamEvent later) {
+        if (later.type() != ProductChangedEvent.Type.STOCK_CHANGED) {
+            return later;
+        }
+        return switch (type) {
+            case STOCK_CHANGED -> new ProductStreamEvent(type, productId, null, stockDelta + later.stockDelta(),
+                    later.version());
+            case ADDED, UPDATED -> new ProductStreamEvent(type, productId, new ProductSnapshot(product.id(),
+                    product.name(), product.description(), product.price(),
+                    product.quantity() == null ? null : product.quantity() + later.stockDelta(), product.categoryIds(),
+                    later.version() != null ? later.version() : product.version()), 0, later.version());
+            case DELETED -> this;
+        };
+    }
+}
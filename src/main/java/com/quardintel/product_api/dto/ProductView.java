@@ -0,0 +1,54 @@
+package com.quardintel.product_api.dto;
+
+import com.quardintel.product_api.model.Category;
+import com.quardintel.product_api.model.Product;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable read model of a product, returned by the read endpoints and held in the product caches.
+ * Built by constructor-expression queries, so reads never load managed entities, and safe to share between threads.
+ * Serializes to the same JSON as {@link Product}.
+ *
+ * @param version    Version of the product row, incremented by every write
+ * @param categories Categories of the product, ordered by ID
+ */
+public record ProductView(Long id,
+                          String name,
+                          String description,
+                          Double price,
+                          Integer quantity,
+                          Long version,
+                          List<CategoryView> categories) {
+
+    public ProductView {
+        categories = categories == null ? List.of() : List.copyOf(categories);
+    }
+
+    /**
+     * Constructor-expression target; categories are attached afterwards with {@link #withCategories}.
+     */
+    public ProductView(Long id, String name, String description, Double price, Integer quantity, Long version) {
+        this(id, name, description, price, quantity, version, List.of());
+    }
+
+    public ProductView withCategories(List<CategoryView> categories) {
+        return new ProductView(id, name, description, price, quantity, version, categories);
+    }
+
+    /**
+     * Copies an entity into the read model.
+     *
+     * @param product Product with its categories loaded
+     * @return Read model of the product
+     */
+    public static ProductView of(Product product) {
+        List<CategoryView> categories = product.getCategories() == null ? List.of() : product.getCategories().stream()
+                .sorted(Comparator.comparing(Category::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+                .map(category -> new CategoryView(category.getId(), category.getName()))
+                .toList();
+        return new ProductView(product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+                product.getQuantity(), product.getVersion(), categories);
+    }
+}
@@ -0,0 +1,10 @@
+package com.quardintel.product_api.dto;
+
+/**
+ * Body of a 410 response to a sync token whose changes are no longer kept.
+ *
+ * @param message     What the client has to do
+ * @param resyncToken Token to sync from after reloading the catalog; take it before the reload starts
+ */
+public record ResyncResponse(String message, String resyncToken) {
+}
@@ -0,0 +1,11 @@
+package com.quardintel.product_api.dto;
+
+/**
+ * Outcome of one line of a batch sale.
+ *
+ * @param productId         Product sold
+ * @param quantitySold      Quantity taken from stock (duplicate lines for a product are merged)
+ * @param remainingQuantity Stock left after the sale
+ */
+public record SellLineResult(Long productId, int quantitySold, int remainingQuantity) {
+}
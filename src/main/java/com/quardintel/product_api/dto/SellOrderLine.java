@@ -0,0 +1,37 @@
+package com.quardintel.product_api.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public class SellOrderLine {
+
+    @NotNull(message = "Product ID is required")
+    private Long productId;
+
+    @Positive(message = "Sale quantity must be greater than zero")
+    private int quantity;
+
+    public SellOrderLine() {
+    }
+
+    public SellOrderLine(Long productId, int quantity) {
+        this.productId = productId;
+        this.quantity = quantity;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+}
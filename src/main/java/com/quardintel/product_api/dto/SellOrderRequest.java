@@ -0,0 +1,24 @@
+package com.quardintel.product_api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class SellOrderRequest {
+
+    public static final int MAX_LINES = 500;
+
+    @NotEmpty(message = "Order must contain at least one line")
+    @Size(max = MAX_LINES, message = "Order must not contain more than " + MAX_LINES + " lines")
+    private List<@Valid SellOrderLine> lines;
+
+    public List<SellOrderLine> getLines() {
+        return lines;
+    }
+
+    public void setLines(List<SellOrderLine> lines) {
+        this.lines = lines;
+    }
+}
@@ -0,0 +1,11 @@
+package com.quardintel.product_api.dto;
+
+/**
+ * Body of a 409 response to an update based on a stale product version.
+ *
+ * @param message        Description of the conflict
+ * @param productId      Product that was modified concurrently
+ * @param currentVersion Version to re-read the product at, or to send as the expected version of a retried update
+ */
+public record VersionConflictResponse(String message, Long productId, Long currentVersion) {
+}
@@ -0,0 +1,40 @@
+package com.quardintel.product_api.event;
+
+/**
+ * Published by the product write paths. Listeners that keep derived state (in-memory indexes, change feeds)
+ * should run after commit, so they only ever see committed changes.
+ *
+ * @param type       Kind of change
+ * @param productId  ID of the changed product
+ * @param snapshot   State after the change; null for deletions and stock changes
+ * @param stockDelta Change in quantity for {@link Type#STOCK_CHANGED} (negative for sales), otherwise 0
+ * @param stock      Stored stock after a {@link Type#STOCK_CHANGED}, otherwise null
+ */
+public record ProductChangedEvent(Type type, Long productId, ProductSnapshot snapshot, int stockDelta,
+                                  StockLevel stock) {
+
+    public enum Type { ADDED, UPDATED, DELETED, STOCK_CHANGED }
+
+    public static ProductChangedEvent added(ProductSnapshot snapshot) {
+        return new ProductChangedEvent(Type.ADDED, snapshot.id(), snapshot, 0, null);
+    }
+
+    public static ProductChangedEvent updated(ProductSnapshot snapshot) {
+        return new ProductChangedEvent(Type.UPDATED, snapshot.id(), snapshot, 0, null);
+    }
+
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(Type.DELETED, productId, null, 0, null);
+    }
+
+    public static ProductChangedEvent stockChanged(Long productId, int stockDelta, StockLevel stock) {
+        return new ProductChangedEvent(Type.STOCK_CHANGED, productId, null, stockDelta, stock);
+    }
+
+    /**
+     * Product version after the change, or null for deletions.
+     */
+    public Long version() {
+        return snapshot != null ? snapshot.version() : stock != null ? stock.version() : null;
+    }
+}
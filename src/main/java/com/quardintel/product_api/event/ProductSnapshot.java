@@ -0,0 +1,28 @@
+package com.quardintel.product_api.event;
+
+import com.quardintel.product_api.model.Category;
+import com.quardintel.product_api.model.Product;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable copy of the indexed fields of a product, taken inside the transaction that changed it
+ * so that listeners running after commit never touch a managed entity. The version orders snapshots of the
+ * same product, since listeners of concurrent transactions can run in any order.
+ */
+public record ProductSnapshot(Long id, String name, String description, Double price, Integer quantity,
+                              Set<Long> categoryIds, Long version) {
+
+    public ProductSnapshot {
+        categoryIds = categoryIds == null ? Set.of() : Set.copyOf(categoryIds);
+    }
+
+    public static ProductSnapshot of(Product product) {
+        Set<Long> categoryIds = product.getCategories() == null ? Set.of() : product.getCategories().stream()
+                .map(Category::getId)
+                .collect(Collectors.toSet());
+        return new ProductSnapshot(product.getId(), product.getName(), product.getDescription(),
+                product.getPrice(), product.getQuantity(), categoryIds, product.getVersion());
+    }
+}
@@ -0,0 +1,15 @@
+package com.quardintel.product_api.event;
+
+import java.util.List;
+
+/**
+ * Published once per bulk import chunk instead of one {@link ProductChangedEvent} per row.
+ *
+ * @param products Snapshots of the products inserted by the chunk
+ */
+public record ProductsImportedEvent(List<ProductSnapshot> products) {
+
+    public ProductsImportedEvent {
+        products = List.copyOf(products);
+    }
+}
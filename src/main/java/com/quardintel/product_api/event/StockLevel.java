@@ -0,0 +1,10 @@
+package com.quardintel.product_api.event;
+
+/**
+ * Stored stock of a product and the version it belongs to, read in the transaction that changed it.
+ *
+ * @param quantity Quantity in stock
+ * @param version  Product version after the change
+ */
+public record StockLevel(int quantity, long version) {
+}
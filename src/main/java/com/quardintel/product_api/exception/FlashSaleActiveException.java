@@ -0,0 +1,18 @@
+package com.quardintel.product_api.exception;
+
+/**
+ * Thrown when an operation would change the stock of a product whose stock is held by flash-sale mode.
+ */
+public class FlashSaleActiveException extends RuntimeException {
+
+    private final Long productId;
+
+    public FlashSaleActiveException(Long productId, String message) {
+        super(message);
+        this.productId = productId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+}
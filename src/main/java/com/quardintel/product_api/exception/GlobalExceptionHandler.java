@@ -1,8 +1,13 @@
 package com.quardintel.product_api.exception;
 
 import com.quardintel.product_api.dto.AuthResponse;
+import com.quardintel.product_api.dto.ResyncResponse;
+import com.quardintel.product_api.dto.VersionConflictResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
@@ -15,6 +20,40 @@ public class GlobalExceptionHandler {
                 .body(new AuthResponse(ex.getMessage()));
     }
 
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<AuthResponse> handleLoginThrottled(LoginThrottledException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new AuthResponse(ex.getMessage()));
+    }
+
+    @ExceptionHandler(ProductVersionConflictException.class)
+    public ResponseEntity<VersionConflictResponse> handleVersionConflict(ProductVersionConflictException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .eTag("v" + ex.getCurrentVersion())
+                .body(new VersionConflictResponse(ex.getMessage(), ex.getProductId(), ex.getCurrentVersion()));
+    }
+
+    @ExceptionHandler(SyncTokenExpiredException.class)
+    public ResponseEntity<ResyncResponse> handleSyncTokenExpired(SyncTokenExpiredException ex) {
+        return ResponseEntity.status(HttpStatus.GONE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new ResyncResponse(ex.getMessage(), ex.getResyncToken()));
+    }
+
+    @ExceptionHandler(FlashSaleActiveException.class)
+    public ResponseEntity<String> handleFlashSaleActive(FlashSaleActiveException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    // Method security denials surface here rather than in the filter chain; answer them like CustomAccessDeniedHandler
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<String> handleAccessDenied(AccessDeniedException ex) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("{ \"message\": \"Access Denied\", \"details\": \"You do not have permission to perform this action.\" }");
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
         return ResponseEntity.badRequest().body(ex.getMessage());
@@ -0,0 +1,7 @@
+package com.quardintel.product_api.exception;
+
+public class LoginThrottledException extends RuntimeException {
+    public LoginThrottledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,24 @@
+package com.quardintel.product_api.exception;
+
+/**
+ * Thrown when a product update was based on a version that is no longer current.
+ */
+public class ProductVersionConflictException extends RuntimeException {
+
+    private final Long productId;
+    private final Long currentVersion;
+
+    public ProductVersionConflictException(Long productId, Long currentVersion) {
+        super("Product " + productId + " has been modified; its current version is " + currentVersion + ".");
+        this.productId = productId;
+        this.currentVersion = currentVersion;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Long getCurrentVersion() {
+        return currentVersion;
+    }
+}
@@ -0,0 +1,18 @@
+package com.quardintel.product_api.exception;
+
+/**
+ * Thrown when a sync token points before the oldest change still kept in the change log.
+ */
+public class SyncTokenExpiredException extends RuntimeException {
+
+    private final String resyncToken;
+
+    public SyncTokenExpiredException(String resyncToken) {
+        super("Sync token is older than the retained change log; reload the catalog and continue from the resync token.");
+        this.resyncToken = resyncToken;
+    }
+
+    public String getResyncToken() {
+        return resyncToken;
+    }
+}
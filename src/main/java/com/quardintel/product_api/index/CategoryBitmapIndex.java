@@ -0,0 +1,140 @@
+package com.quardintel.product_api.index;
+
+import com.quardintel.product_api.dto.CategoryFilter;
+import com.quardintel.product_api.event.ProductSnapshot;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Maps each category ID to a compressed bitmap of the IDs of the products in it,
+ * so category filters are answered with bitmap AND/OR/AND-NOT instead of join queries.
+ */
+@Component
+public class CategoryBitmapIndex implements ProductIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, CompressedBitmap> productsByCategory = new HashMap<>();
+    private final Map<Long, Set<Long>> categoriesByProduct = new HashMap<>();
+    private final CompressedBitmap allProducts = new CompressedBitmap();
+
+    @Override
+    public void put(ProductSnapshot product) {
+        lock.writeLock().lock();
+        try {
+            putLocked(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void putAll(Collection<ProductSnapshot> products) {
+        lock.writeLock().lock();
+        try {
+            products.forEach(this::putLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            Set<Long> categories = categoriesByProduct.remove(productId);
+            if (categories != null) {
+                categories.forEach(categoryId -> removeFromCategory(categoryId, productId));
+            }
+            allProducts.remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the IDs of the products matching the filter.
+     *
+     * @param filter Included categories (any or all of them) and excluded categories
+     * @return A new bitmap owned by the caller
+     */
+    public CompressedBitmap match(CategoryFilter filter) {
+        lock.readLock().lock();
+        try {
+            CompressedBitmap result = null;
+            for (Long categoryId : filter.included()) {
+                CompressedBitmap members = productsByCategory.getOrDefault(categoryId, new CompressedBitmap());
+                if (result == null) {
+                    result = members.copy();
+                } else {
+                    result = filter.matchAll() ? result.and(members) : result.or(members);
+                }
+            }
+            if (result == null) {
+                result = allProducts.copy(); // Only exclusions: start from every product
+            }
+            for (Long categoryId : filter.excluded()) {
+                CompressedBitmap members = productsByCategory.get(categoryId);
+                if (members != null) {
+                    result = result.andNot(members);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the categories the index currently holds for a product.
+     *
+     * @param productId Product ID
+     * @return Category IDs; empty if the product is unknown or uncategorized
+     */
+    public Set<Long> categoriesOf(Long productId) {
+        lock.readLock().lock();
+        try {
+            return Set.copyOf(categoriesByProduct.getOrDefault(productId, Set.of()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Only the categories that changed are touched, so re-saving a product without category changes is cheap
+    private void putLocked(ProductSnapshot product) {
+        Long productId = product.id();
+        Set<Long> previous = categoriesByProduct.getOrDefault(productId, Set.of());
+        Set<Long> current = product.categoryIds();
+        for (Long categoryId : previous) {
+            if (!current.contains(categoryId)) {
+                removeFromCategory(categoryId, productId);
+            }
+        }
+        for (Long categoryId : current) {
+            if (!previous.contains(categoryId)) {
+                productsByCategory.computeIfAbsent(categoryId, id -> new CompressedBitmap()).add(productId);
+            }
+        }
+        if (current.isEmpty()) {
+            categoriesByProduct.remove(productId);
+        } else {
+            categoriesByProduct.put(productId, current);
+        }
+        allProducts.add(productId);
+    }
+
+    private void removeFromCategory(Long categoryId, Long productId) {
+        CompressedBitmap members = productsByCategory.get(categoryId);
+        if (members != null) {
+            members.remove(productId);
+            if (members.isEmpty()) {
+                productsByCategory.remove(categoryId);
+            }
+        }
+    }
+}
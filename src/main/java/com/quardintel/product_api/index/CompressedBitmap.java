@@ -0,0 +1,501 @@
+package com.quardintel.product_api.index;
+
+import java.util.Arrays;
+
+/**
+ * Compressed set of non-negative longs (product IDs), laid out like a Roaring bitmap.
+ * Values are grouped by their upper 48 bits; each group stores its lower 16 bits either as a sorted
+ * {@code char} array (sparse groups) or as a 65536-bit bitmap (dense groups), whichever is smaller.
+ * Set operations work group by group and return new bitmaps, leaving their inputs unchanged.
+ *
+ * <p>Not thread-safe; callers guard shared instances.
+ */
+public final class CompressedBitmap {
+
+    private static final int ARRAY_LIMIT = 4096; // Above this many values a group is smaller as an 8 KB bitmap
+    private static final int WORDS = 1024; // 65536 bits
+
+    private long[] keys;
+    private Container[] containers;
+    private int size; // Number of groups in use
+
+    public CompressedBitmap() {
+        this(new long[4], new Container[4], 0);
+    }
+
+    private CompressedBitmap(long[] keys, Container[] containers, int size) {
+        this.keys = keys;
+        this.containers = containers;
+        this.size = size;
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @return True if the value was not present
+     */
+    public boolean add(long value) {
+        checkValue(value);
+        long key = value >>> 16;
+        char low = (char) value;
+        int i = Arrays.binarySearch(keys, 0, size, key);
+        if (i < 0) {
+            insertGroup(-i - 1, key, new ArrayContainer(new char[]{low}, 1));
+            return true;
+        }
+        int before = containers[i].cardinality();
+        containers[i] = containers[i].add(low);
+        return containers[i].cardinality() > before;
+    }
+
+    /**
+     * Removes a value.
+     *
+     * @return True if the value was present
+     */
+    public boolean remove(long value) {
+        if (value < 0) {
+            return false;
+        }
+        int i = Arrays.binarySearch(keys, 0, size, value >>> 16);
+        if (i < 0) {
+            return false;
+        }
+        int before = containers[i].cardinality();
+        containers[i] = containers[i].remove((char) value);
+        if (containers[i].cardinality() == 0) {
+            removeGroup(i);
+            return true;
+        }
+        return containers[i].cardinality() < before;
+    }
+
+    public boolean contains(long value) {
+        if (value < 0) {
+            return false;
+        }
+        int i = Arrays.binarySearch(keys, 0, size, value >>> 16);
+        return i >= 0 && containers[i].contains((char) value);
+    }
+
+    public long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public CompressedBitmap copy() {
+        Container[] copied = new Container[size];
+        for (int i = 0; i < size; i++) {
+            copied[i] = containers[i].copy();
+        }
+        return new CompressedBitmap(Arrays.copyOf(keys, size), copied, size);
+    }
+
+    /**
+     * Returns the values present in both bitmaps.
+     */
+    public CompressedBitmap and(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                result.appendGroup(keys[i], and(containers[i], other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the values present in either bitmap.
+     */
+    public CompressedBitmap or(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                result.appendGroup(keys[i], containers[i].copy());
+                i++;
+            } else if (i == size || keys[i] > other.keys[j]) {
+                result.appendGroup(other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.appendGroup(keys[i], or(containers[i], other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the values present in this bitmap but not in the other.
+     */
+    public CompressedBitmap andNot(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) {
+                j++;
+            }
+            boolean overlaps = j < other.size && other.keys[j] == keys[i];
+            result.appendGroup(keys[i], overlaps ? andNot(containers[i], other.containers[j]) : containers[i].copy());
+        }
+        return result;
+    }
+
+    /**
+     * Returns up to {@code max} values following {@code from} in the given direction, in that order.
+     *
+     * @param from      Exclusive starting point; use -1 (ascending) or {@link Long#MAX_VALUE} (descending) to start at an end
+     * @param ascending Direction of iteration
+     * @param max       Maximum number of values to return
+     */
+    public long[] next(long from, boolean ascending, int max) {
+        long[] values = new long[max];
+        int count = 0;
+        if (ascending) {
+            long start = from + 1;
+            int i = groupAtOrAfter(start >>> 16);
+            int low = i < size && keys[i] == start >>> 16 ? (int) (start & 0xFFFF) : 0;
+            for (; i < size && count < max; i++, low = 0) {
+                for (int v = containers[i].next(low); v >= 0 && count < max; v = v < 0xFFFF ? containers[i].next(v + 1) : -1) {
+                    values[count++] = keys[i] << 16 | v;
+                }
+            }
+        } else if (from > 0) {
+            long start = from - 1;
+            int i = groupAtOrBefore(start >>> 16);
+            int high = i >= 0 && keys[i] == start >>> 16 ? (int) (start & 0xFFFF) : 0xFFFF;
+            for (; i >= 0 && count < max; i--, high = 0xFFFF) {
+                for (int v = containers[i].previous(high); v >= 0 && count < max; v = v > 0 ? containers[i].previous(v - 1) : -1) {
+                    values[count++] = keys[i] << 16 | v;
+                }
+            }
+        }
+        return count == max ? values : Arrays.copyOf(values, count);
+    }
+
+    private int groupAtOrAfter(long key) {
+        int i = Arrays.binarySearch(keys, 0, size, key);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    private int groupAtOrBefore(long key) {
+        int i = Arrays.binarySearch(keys, 0, size, key);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    private void appendGroup(long key, Container container) {
+        if (container.cardinality() > 0) {
+            insertGroup(size, key, container);
+        }
+    }
+
+    private void insertGroup(int index, long key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void removeGroup(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        containers[--size] = null;
+    }
+
+    private static void checkValue(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Bitmap values must not be negative: " + value);
+        }
+    }
+
+    // Group operations: arrays are combined directly, anything involving a bitmap goes through words
+
+    private static Container and(Container a, Container b) {
+        if (a instanceof ArrayContainer array) {
+            return array.filter(b, true);
+        }
+        if (b instanceof ArrayContainer array) {
+            return array.filter(a, true);
+        }
+        long[] words = a.words();
+        long[] other = ((BitmapContainer) b).words;
+        for (int i = 0; i < WORDS; i++) {
+            words[i] &= other[i];
+        }
+        return fromWords(words);
+    }
+
+    private static Container or(Container a, Container b) {
+        long[] words = a.words();
+        if (b instanceof ArrayContainer array) {
+            for (int i = 0; i < array.cardinality; i++) {
+                words[array.values[i] >>> 6] |= 1L << array.values[i];
+            }
+        } else {
+            long[] other = ((BitmapContainer) b).words;
+            for (int i = 0; i < WORDS; i++) {
+                words[i] |= other[i];
+            }
+        }
+        return fromWords(words);
+    }
+
+    private static Container andNot(Container a, Container b) {
+        if (a instanceof ArrayContainer array) {
+            return array.filter(b, false);
+        }
+        long[] words = a.words();
+        if (b instanceof ArrayContainer array) {
+            for (int i = 0; i < array.cardinality; i++) {
+                words[array.values[i] >>> 6] &= ~(1L << array.values[i]);
+            }
+        } else {
+            long[] other = ((BitmapContainer) b).words;
+            for (int i = 0; i < WORDS; i++) {
+                words[i] &= ~other[i];
+            }
+        }
+        return fromWords(words);
+    }
+
+    private static Container fromWords(long[] words) {
+        int cardinality = 0;
+        for (long word : words) {
+            cardinality += Long.bitCount(word);
+        }
+        BitmapContainer bitmap = new BitmapContainer(words, cardinality);
+        return cardinality > ARRAY_LIMIT ? bitmap : bitmap.toArray();
+    }
+
+    private sealed interface Container permits ArrayContainer, BitmapContainer {
+
+        int cardinality();
+
+        boolean contains(char value);
+
+        Container add(char value);
+
+        Container remove(char value);
+
+        Container copy();
+
+        // Returns a new bitmap of this group's values
+        long[] words();
+
+        // First value >= from, or -1
+        int next(int from);
+
+        // Last value <= from, or -1
+        int previous(int from);
+    }
+
+    private static final class ArrayContainer implements Container {
+
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        public Container add(char value) {
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_LIMIT) {
+                return toBitmap().add(value);
+            }
+            i = -i - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, Math.max(4, cardinality * 2)));
+            }
+            System.arraycopy(values, i, values, i + 1, cardinality - i);
+            values[i] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        public Container remove(char value) {
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) {
+                System.arraycopy(values, i + 1, values, i, cardinality - i - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        public Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, cardinality), cardinality);
+        }
+
+        @Override
+        public long[] words() {
+            long[] words = new long[WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            return words;
+        }
+
+        @Override
+        public int next(int from) {
+            int i = Arrays.binarySearch(values, 0, cardinality, (char) from);
+            i = i >= 0 ? i : -i - 1;
+            return i < cardinality ? values[i] : -1;
+        }
+
+        @Override
+        public int previous(int from) {
+            int i = Arrays.binarySearch(values, 0, cardinality, (char) from);
+            i = i >= 0 ? i : -i - 2;
+            return i >= 0 ? values[i] : -1;
+        }
+
+        // Keeps the values that are (keep = true) or are not (keep = false) in the other group
+        ArrayContainer filter(Container other, boolean keep) {
+            char[] kept = new char[cardinality];
+            int count = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (other.contains(values[i]) == keep) {
+                    kept[count++] = values[i];
+                }
+            }
+            return new ArrayContainer(kept, count);
+        }
+
+        private BitmapContainer toBitmap() {
+            return new BitmapContainer(words(), cardinality);
+        }
+    }
+
+    private static final class BitmapContainer implements Container {
+
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return (words[value >>> 6] & 1L << value) != 0;
+        }
+
+        @Override
+        public Container add(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) == 0) {
+                words[value >>> 6] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        public Container remove(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) != 0) {
+                words[value >>> 6] &= ~bit;
+                cardinality--;
+            }
+            return cardinality <= ARRAY_LIMIT ? toArray() : this;
+        }
+
+        @Override
+        public Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        public long[] words() {
+            return words.clone();
+        }
+
+        @Override
+        public int next(int from) {
+            int w = from >>> 6;
+            long word = words[w] & (-1L << from);
+            while (true) {
+                if (word != 0) {
+                    return w * 64 + Long.numberOfTrailingZeros(word);
+                }
+                if (++w == WORDS) {
+                    return -1;
+                }
+                word = words[w];
+            }
+        }
+
+        @Override
+        public int previous(int from) {
+            int w = from >>> 6;
+            long word = words[w] & (-1L >>> (63 - (from & 63)));
+            while (true) {
+                if (word != 0) {
+                    return w * 64 + 63 - Long.numberOfLeadingZeros(word);
+                }
+                if (--w < 0) {
+                    return -1;
+                }
+                word = words[w];
+            }
+        }
+
+        ArrayContainer toArray() {
+            char[] values = new char[cardinality];
+            int count = 0;
+            for (int w = 0; w < WORDS; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    values[count++] = (char) (w * 64 + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, count);
+        }
+    }
+}
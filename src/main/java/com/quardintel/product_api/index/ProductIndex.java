@@ -0,0 +1,37 @@
+package com.quardintel.product_api.index;
+
+import com.quardintel.product_api.event.ProductSnapshot;
+
+import java.util.Collection;
+
+/**
+ * In-memory index over the product catalog.
+ * Implementations are loaded once at startup and then kept current by {@link ProductIndexMaintainer}
+ * from committed product changes, which it passes on in version order; they must be safe for concurrent
+ * reads while an update is applied.
+ */
+public interface ProductIndex {
+
+    /**
+     * Adds the product, or replaces the indexed state of a product with the same ID.
+     */
+    void put(ProductSnapshot product);
+
+    /**
+     * Adds or replaces several products; implementations may apply them under a single lock.
+     */
+    default void putAll(Collection<ProductSnapshot> products) {
+        products.forEach(this::put);
+    }
+
+    /**
+     * Removes the product; does nothing if it is not indexed.
+     */
+    void remove(Long productId);
+
+    /**
+     * Sets the stock of an indexed product. Indexes that do not hold the quantity ignore it.
+     */
+    default void setStock(Long productId, int quantity) {
+    }
+}
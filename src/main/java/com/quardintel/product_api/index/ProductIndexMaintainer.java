@@ -0,0 +1,188 @@
+package com.quardintel.product_api.index;
+
+import com.quardintel.product_api.event.ProductChangedEvent;
+import com.quardintel.product_api.event.ProductSnapshot;
+import com.quardintel.product_api.event.ProductsImportedEvent;
+import com.quardintel.product_api.event.StockLevel;
+import com.quardintel.product_api.model.Product;
+import com.quardintel.product_api.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Loads every {@link ProductIndex} from the database at startup and keeps them current from committed
+ * product changes. Loading happens before the web server starts, so no request sees a partial index.
+ * <p>
+ * Listeners of concurrent transactions run in any order, so each change is applied only if its product version
+ * is newer than the one indexed. A stock change carries only the quantity; if the change before it has not
+ * been indexed yet, the product is read again instead, so the other fields cannot be left behind.
+ */
+@Component
+public class ProductIndexMaintainer implements SmartInitializingSingleton {
+
+    private static final int LOAD_BATCH_SIZE = 1_000;
+    private static final long DELETED = Long.MAX_VALUE; // IDs are never reused, so no change outranks a deletion
+    private static final Logger logger = LoggerFactory.getLogger(ProductIndexMaintainer.class);
+
+    private final List<ProductIndex> indexes;
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate reloadTransaction;
+    private final ConcurrentHashMap<Long, Long> versions = new ConcurrentHashMap<>(); // Product ID -> indexed version
+
+    public ProductIndexMaintainer(List<ProductIndex> indexes, ProductRepository productRepository,
+                                  EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        this.indexes = List.copyOf(indexes);
+        this.productRepository = productRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // Reloads run after commit, where the finished transaction's resources are still bound
+        this.reloadTransaction = new TransactionTemplate(transactionManager);
+        this.reloadTransaction.setReadOnly(true);
+        this.reloadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.nanoTime();
+        long loaded = readOnlyTransaction.execute(status -> load());
+        logger.info("Loaded {} products into {} indexes in {} ms", loaded, indexes.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Category links are read first with one query, so the product scan does not load each product's categories
+    private long load() {
+        Map<Long, Set<Long>> categoryIds = new HashMap<>();
+        try (Stream<Object[]> links = productRepository.streamCategoryLinks()) {
+            links.forEach(link -> categoryIds.computeIfAbsent((Long) link[0], id -> new HashSet<>()).add((Long) link[1]));
+        }
+
+        long count = 0;
+        List<ProductSnapshot> batch = new ArrayList<>(LOAD_BATCH_SIZE);
+        try (Stream<Product> products = productRepository.streamAllByOrderById()) {
+            for (Product product : (Iterable<Product>) products::iterator) {
+                batch.add(new ProductSnapshot(product.getId(), product.getName(), product.getDescription(),
+                        product.getPrice(), product.getQuantity(), categoryIds.getOrDefault(product.getId(), Set.of()),
+                        product.getVersion()));
+                entityManager.detach(product);
+                if (batch.size() == LOAD_BATCH_SIZE) {
+                    count += batch.size();
+                    putAll(batch);
+                    batch.clear();
+                }
+            }
+        }
+        count += batch.size();
+        putAll(batch);
+        return count;
+    }
+
+    // Skips products that a newer change has already indexed
+    private void putAll(List<ProductSnapshot> batch) {
+        List<ProductSnapshot> newer = new ArrayList<>(batch.size());
+        for (ProductSnapshot product : batch) {
+            Long version = product.version();
+            if (version == null) {
+                newer.add(product);
+                continue;
+            }
+            versions.compute(product.id(), (id, indexed) -> {
+                if (indexed != null && indexed >= version) {
+                    return indexed;
+                }
+                newer.add(product);
+                return version;
+            });
+        }
+        if (!newer.isEmpty()) {
+            apply(index -> index.putAll(newer));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        switch (event.type()) {
+            case ADDED, UPDATED -> applyIfNewer(event.productId(), event.version(), index -> index.put(event.snapshot()));
+            case DELETED -> applyIfNewer(event.productId(), DELETED, index -> index.remove(event.productId()));
+            case STOCK_CHANGED -> onStockChanged(event.productId(), event.stock());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        putAll(event.products());
+    }
+
+    private void onStockChanged(Long productId, StockLevel stock) {
+        boolean[] missed = new boolean[1];
+        versions.compute(productId, (id, indexed) -> {
+            if (indexed != null && indexed >= stock.version()) {
+                return indexed; // Already part of a newer snapshot, or the product is deleted
+            }
+            if (indexed == null || indexed < stock.version() - 1) {
+                missed[0] = true; // A change before this one is not indexed yet
+                return indexed;
+            }
+            apply(index -> index.setStock(productId, stock.quantity()));
+            return stock.version();
+        });
+        if (missed[0]) {
+            reload(productId);
+        }
+    }
+
+    private void reload(Long productId) {
+        ProductSnapshot product = reloadTransaction.execute(status -> productRepository.findById(productId)
+                .map(ProductSnapshot::of)
+                .orElse(null));
+        if (product != null) { // Otherwise the deletion is indexed by its own event
+            applyIfNewer(productId, product.version(), index -> index.put(product));
+        }
+    }
+
+    // Runs the update under the product's map entry, so that two changes of one product cannot interleave
+    private void applyIfNewer(Long productId, Long version, Consumer<ProductIndex> update) {
+        if (version == null) {
+            apply(update);
+            return;
+        }
+        versions.compute(productId, (id, indexed) -> {
+            if (indexed != null && indexed >= version) {
+                return indexed; // A later change is already indexed
+            }
+            apply(update);
+            return version;
+        });
+    }
+
+    // The change is already committed, so a failing index must not fail the request or skip the other indexes
+    private void apply(Consumer<ProductIndex> update) {
+        for (ProductIndex index : indexes) {
+            try {
+                update.accept(index);
+            } catch (RuntimeException e) {
+                logger.error("Failed to update {}", index.getClass().getSimpleName(), e);
+            }
+        }
+    }
+}
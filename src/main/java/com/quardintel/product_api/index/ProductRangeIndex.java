@@ -0,0 +1,132 @@
+package com.quardintel.product_api.index;
+
+import com.quardintel.product_api.event.ProductSnapshot;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Sorted indexes over product price and stock quantity, for range queries without a table scan.
+ * Values are stored as primitive long keys (prices in an order-preserving encoding of the double),
+ * paired with the product ID so that equal values have a stable order for pagination.
+ */
+@Component
+public class ProductRangeIndex implements ProductIndex {
+
+    public enum Field { PRICE, QUANTITY }
+
+    /**
+     * Result of a range query: product IDs and their keys, in result order.
+     */
+    public record Slice(long[] ids, long[] keys) {
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final SortedPairs prices = new SortedPairs();
+    private final SortedPairs quantities = new SortedPairs();
+    private final Map<Long, long[]> keysByProduct = new HashMap<>(); // product ID -> {price key, quantity}
+
+    @Override
+    public void put(ProductSnapshot product) {
+        lock.writeLock().lock();
+        try {
+            putLocked(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void putAll(Collection<ProductSnapshot> products) {
+        lock.writeLock().lock();
+        try {
+            products.forEach(this::putLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            long[] keys = keysByProduct.remove(productId);
+            if (keys != null) {
+                prices.remove(keys[0], productId);
+                quantities.remove(keys[1], productId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void setStock(Long productId, int quantity) {
+        lock.writeLock().lock();
+        try {
+            long[] keys = keysByProduct.get(productId);
+            if (keys != null) {
+                quantities.remove(keys[1], productId);
+                keys[1] = quantity;
+                quantities.add(keys[1], productId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns products whose value lies in {@code [min, max]}, ordered by value and then by ID.
+     *
+     * @param field     Indexed field
+     * @param min       Lower bound, inclusive
+     * @param max       Upper bound, inclusive
+     * @param ascending Direction of the order
+     * @param after     Key and ID of the last product of the previous page, or null for the first page
+     * @param limit     Maximum number of products
+     */
+    public Slice range(Field field, long min, long max, boolean ascending, long[] after, int limit) {
+        long[] ids = new long[limit];
+        long[] keys = new long[limit];
+        lock.readLock().lock();
+        int count;
+        try {
+            SortedPairs pairs = field == Field.PRICE ? prices : quantities;
+            count = after == null
+                    ? pairs.range(min, max, ascending, false, 0, 0, keys, ids)
+                    : pairs.range(min, max, ascending, true, after[0], after[1], keys, ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return count == limit ? new Slice(ids, keys) : new Slice(Arrays.copyOf(ids, count), Arrays.copyOf(keys, count));
+    }
+
+    /**
+     * Maps a price to a long key with the same ordering.
+     */
+    public static long priceKey(double price) {
+        long bits = Double.doubleToLongBits(price);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    private void putLocked(ProductSnapshot product) {
+        Long productId = product.id();
+        long[] previous = keysByProduct.get(productId);
+        if (previous != null) {
+            prices.remove(previous[0], productId);
+            quantities.remove(previous[1], productId);
+        }
+        long[] keys = {
+                priceKey(product.price() == null ? 0 : product.price()),
+                product.quantity() == null ? 0 : product.quantity()
+        };
+        prices.add(keys[0], productId);
+        quantities.add(keys[1], productId);
+        keysByProduct.put(productId, keys);
+    }
+}
@@ -0,0 +1,234 @@
+package com.quardintel.product_api.index;
+
+import com.quardintel.product_api.dto.ProductSearchHit;
+import com.quardintel.product_api.event.ProductSnapshot;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over product names and descriptions.
+ * Terms are kept sorted, so a query term of at least {@value #MIN_PREFIX_LENGTH} characters also matches every
+ * indexed term it is a prefix of; shorter query terms only match exactly, as they would prefix a large part of the
+ * vocabulary. Expansion is never cut short, so a product is not dropped because its matching term sorts late.
+ * A product must match every query term; results are ranked by a BM25-style score in which
+ * name matches weigh more than description matches and exact terms more than prefix matches.
+ */
+@Component
+public class ProductSearchIndex implements ProductIndex {
+
+    private static final double NAME_WEIGHT = 3.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+    private static final double PREFIX_WEIGHT = 0.5; // Relative to an exact term match
+    private static final double SATURATION = 1.2; // Repeating a term adds less and less to the score
+    static final int MIN_PREFIX_LENGTH = 2; // Shorter query terms are not expanded
+
+    private record Posting(int nameFrequency, int descriptionFrequency) {
+
+        double weight() {
+            return NAME_WEIGHT * saturate(nameFrequency) + DESCRIPTION_WEIGHT * saturate(descriptionFrequency);
+        }
+
+        private static double saturate(int frequency) {
+            return frequency * (SATURATION + 1) / (frequency + SATURATION);
+        }
+    }
+
+    private record Document(ProductSnapshot product, Set<String> terms) {
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Map<Long, Posting>> postings = new TreeMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+
+    @Override
+    public void put(ProductSnapshot product) {
+        lock.writeLock().lock();
+        try {
+            putLocked(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void putAll(Collection<ProductSnapshot> products) {
+        lock.writeLock().lock();
+        try {
+            products.forEach(this::putLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Searches names and descriptions.
+     *
+     * @param query Free text; split into terms the same way product text is
+     * @param limit Maximum number of hits
+     * @return Hits ordered by descending score, then by product ID
+     */
+    public List<ProductSearchHit> search(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Search query must contain at least one letter or digit.");
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (String term : terms) {
+                Map<Long, Double> termScores = scoreTerm(term);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    // Keep only products that matched every term so far
+                    Map<Long, Double> previous = scores;
+                    termScores.keySet().retainAll(previous.keySet());
+                    termScores.replaceAll((id, score) -> score + previous.get(id));
+                    scores = termScores;
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return topHits(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of indexed products.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Best score per product for one query term, over the exact term and the terms it prefixes
+    private Map<Long, Double> scoreTerm(String term) {
+        Map<Long, Double> scores = new HashMap<>();
+        addScores(scores, postings.get(term), 1.0);
+        if (term.length() < MIN_PREFIX_LENGTH) {
+            return scores;
+        }
+
+        for (Map<Long, Posting> prefixed : postings.subMap(term, false, term + Character.MAX_VALUE, false).values()) {
+            addScores(scores, prefixed, PREFIX_WEIGHT);
+        }
+        return scores;
+    }
+
+    private void addScores(Map<Long, Double> scores, Map<Long, Posting> termPostings, double factor) {
+        if (termPostings == null) {
+            return;
+        }
+        double idf = Math.log(1 + (documents.size() - termPostings.size() + 0.5) / (termPostings.size() + 0.5));
+        termPostings.forEach((id, posting) -> scores.merge(id, factor * idf * posting.weight(), Math::max));
+    }
+
+    private List<ProductSearchHit> topHits(Map<Long, Double> scores, int limit) {
+        Comparator<Map.Entry<Long, Double>> ranking = Map.Entry.<Long, Double>comparingByValue()
+                .reversed()
+                .thenComparing(Map.Entry.comparingByKey());
+
+        // Min-heap of the best hits so far: its head is the weakest hit and is dropped first
+        PriorityQueue<Map.Entry<Long, Double>> best = new PriorityQueue<>(limit + 1, ranking.reversed());
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            best.add(entry);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(best);
+        ranked.sort(ranking);
+        List<ProductSearchHit> hits = new ArrayList<>(ranked.size());
+        for (Map.Entry<Long, Double> entry : ranked) {
+            ProductSnapshot product = documents.get(entry.getKey()).product();
+            hits.add(new ProductSearchHit(product.id(), product.name(), product.description(), product.price(),
+                    entry.getValue()));
+        }
+        return hits;
+    }
+
+    private void putLocked(ProductSnapshot product) {
+        removeLocked(product.id());
+
+        Map<String, int[]> frequencies = new HashMap<>(); // term -> {name frequency, description frequency}
+        for (String term : tokenize(product.name())) {
+            frequencies.computeIfAbsent(term, key -> new int[2])[0]++;
+        }
+        for (String term : tokenize(product.description())) {
+            frequencies.computeIfAbsent(term, key -> new int[2])[1]++;
+        }
+        frequencies.forEach((term, counts) -> postings.computeIfAbsent(term, key -> new HashMap<>())
+                .put(product.id(), new Posting(counts[0], counts[1])));
+        documents.put(product.id(), new Document(product, Set.copyOf(frequencies.keySet())));
+    }
+
+    private void removeLocked(Long productId) {
+        Document document = documents.remove(productId);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms()) {
+            Map<Long, Posting> termPostings = postings.get(term);
+            if (termPostings != null) {
+                termPostings.remove(productId);
+                if (termPostings.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits text into lower-case terms at every character that is not a letter or digit.
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,49 @@
+package com.quardintel.product_api.index;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Continuation token for range queries: the indexed key and ID of the last product on a page,
+ * bound to the field and direction it was issued for.
+ */
+public final class RangeCursor {
+
+    private static final String VERSION = "r1";
+
+    private RangeCursor() {
+    }
+
+    /**
+     * Encodes the position of the last product of a page as an opaque, URL-safe token.
+     */
+    public static String encode(ProductRangeIndex.Field field, boolean ascending, long key, long id) {
+        String raw = String.join("|", VERSION, field.name(), ascending ? "asc" : "desc", Long.toString(key), Long.toString(id));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode}.
+     *
+     * @return {key, id} of the last product of the previous page
+     */
+    public static long[] decode(String token, ProductRangeIndex.Field field, boolean ascending) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", 5);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+        if (parts.length != 5 || !VERSION.equals(parts[0])) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+        if (!field.name().equals(parts[1]) || ascending != "asc".equals(parts[2])) {
+            throw new IllegalArgumentException("Cursor does not match the requested range order.");
+        }
+        try {
+            return new long[]{Long.parseLong(parts[3]), Long.parseLong(parts[4])};
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.quardintel.product_api.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sorted set of (key, id) pairs held in primitive arrays, ordered by key and then by id.
+ * Pairs are stored in blocks of bounded size, so an insert or removal shifts at most one block
+ * rather than the whole array. Not thread-safe; callers guard shared instances.
+ */
+final class SortedPairs {
+
+    private static final int BLOCK_CAPACITY = 512;
+
+    private static final class Block {
+        private final long[] keys = new long[BLOCK_CAPACITY];
+        private final long[] ids = new long[BLOCK_CAPACITY];
+        private int size;
+    }
+
+    private final List<Block> blocks = new ArrayList<>();
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    void add(long key, long id) {
+        if (blocks.isEmpty()) {
+            blocks.add(new Block());
+        }
+        int blockIndex = blockFor(key, id);
+        Block block = blocks.get(blockIndex);
+        int at = search(block, key, id, false);
+        if (at < block.size && block.keys[at] == key && block.ids[at] == id) {
+            return;
+        }
+        if (block.size == BLOCK_CAPACITY) {
+            // Split the full block in half and insert into whichever half the pair belongs to
+            Block right = new Block();
+            int half = BLOCK_CAPACITY / 2;
+            System.arraycopy(block.keys, half, right.keys, 0, BLOCK_CAPACITY - half);
+            System.arraycopy(block.ids, half, right.ids, 0, BLOCK_CAPACITY - half);
+            right.size = BLOCK_CAPACITY - half;
+            block.size = half;
+            blocks.add(blockIndex + 1, right);
+            if (at > half) {
+                block = right;
+                at -= half;
+            }
+        }
+        System.arraycopy(block.keys, at, block.keys, at + 1, block.size - at);
+        System.arraycopy(block.ids, at, block.ids, at + 1, block.size - at);
+        block.keys[at] = key;
+        block.ids[at] = id;
+        block.size++;
+        size++;
+    }
+
+    boolean remove(long key, long id) {
+        if (blocks.isEmpty()) {
+            return false;
+        }
+        int blockIndex = blockFor(key, id);
+        Block block = blocks.get(blockIndex);
+        int at = search(block, key, id, false);
+        if (at >= block.size || block.keys[at] != key || block.ids[at] != id) {
+            return false;
+        }
+        System.arraycopy(block.keys, at + 1, block.keys, at, block.size - at - 1);
+        System.arraycopy(block.ids, at + 1, block.ids, at, block.size - at - 1);
+        block.size--;
+        size--;
+        if (block.size == 0) {
+            blocks.remove(blockIndex);
+        }
+        return true;
+    }
+
+    /**
+     * Collects pairs with keys in {@code [minKey, maxKey]}, in ascending or descending order.
+     *
+     * @param hasAfter Whether to start strictly after ({@code afterKey}, {@code afterId}) in the scan direction
+     *                 rather than at the end of the range
+     * @param outKeys  Receives the keys; its length is the maximum number of pairs collected
+     * @param outIds   Receives the ids, same length as {@code outKeys}
+     * @return Number of pairs collected
+     */
+    int range(long minKey, long maxKey, boolean ascending, boolean hasAfter, long afterKey, long afterId,
+              long[] outKeys, long[] outIds) {
+        int limit = outIds.length;
+        int count = 0;
+        if (blocks.isEmpty() || limit == 0) {
+            return 0;
+        }
+        if (ascending) {
+            long startKey = hasAfter ? afterKey : minKey;
+            long startId = hasAfter ? afterId : Long.MIN_VALUE;
+            int blockIndex = blockFor(startKey, startId);
+            int offset = search(blocks.get(blockIndex), startKey, startId, hasAfter);
+            for (; blockIndex < blocks.size(); blockIndex++, offset = 0) {
+                Block block = blocks.get(blockIndex);
+                for (; offset < block.size; offset++) {
+                    if (block.keys[offset] > maxKey || count == limit) {
+                        return count;
+                    }
+                    if (block.keys[offset] >= minKey) {
+                        outKeys[count] = block.keys[offset];
+                        outIds[count++] = block.ids[offset];
+                    }
+                }
+            }
+        } else {
+            long startKey = hasAfter ? afterKey : maxKey;
+            long startId = hasAfter ? afterId : Long.MAX_VALUE;
+            int blockIndex = blockFor(startKey, startId);
+            // Last pair before the cursor, or the last pair not above the range
+            int offset = search(blocks.get(blockIndex), startKey, startId, !hasAfter) - 1;
+            while (blockIndex >= 0) {
+                Block block = blocks.get(blockIndex);
+                for (; offset >= 0; offset--) {
+                    if (block.keys[offset] < minKey || count == limit) {
+                        return count;
+                    }
+                    if (block.keys[offset] <= maxKey) {
+                        outKeys[count] = block.keys[offset];
+                        outIds[count++] = block.ids[offset];
+                    }
+                }
+                if (--blockIndex >= 0) {
+                    offset = blocks.get(blockIndex).size - 1;
+                }
+            }
+        }
+        return count;
+    }
+
+    // Last block whose first pair is not greater than (key, id), or the first block
+    private int blockFor(long key, long id) {
+        int low = 0;
+        int high = blocks.size() - 1;
+        int result = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            Block block = blocks.get(mid);
+            if (compare(block.keys[0], block.ids[0], key, id) <= 0) {
+                result = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return result;
+    }
+
+    // Offset of the first pair >= (key, id), or > (key, id) when strict
+    private static int search(Block block, long key, long id, boolean strict) {
+        int low = 0;
+        int high = block.size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int c = compare(block.keys[mid], block.ids[mid], key, id);
+            if (c < 0 || (strict && c == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int compare(long key1, long id1, long key2, long id2) {
+        int c = Long.compare(key1, key2);
+        return c != 0 ? c : Long.compare(id1, id2);
+    }
+}
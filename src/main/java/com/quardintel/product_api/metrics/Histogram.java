@@ -0,0 +1,82 @@
+package com.quardintel.product_api.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-bucket histogram over long values (nanoseconds for timers, plain counts otherwise).
+ * Recording finds the bucket with a short linear scan and bumps two adders; nothing is allocated.
+ * Bucket counts are kept per bucket and only made cumulative when scraped.
+ */
+public final class Histogram {
+
+    // Upper bounds for timers, in seconds: 1 ms to 10 s
+    static final double[] TIMER_BUCKETS_SECONDS = {
+            0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+
+    private final long[] upperBounds;
+    private final LongAdder[] buckets; // One per bound plus the +Inf bucket
+    private final LongAdder sum = new LongAdder();
+    private final double scale; // Factor from recorded units to exported units
+
+    Histogram(long[] upperBounds, double scale) {
+        this.upperBounds = upperBounds.clone();
+        this.buckets = new LongAdder[upperBounds.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+        this.scale = scale;
+    }
+
+    static Histogram timer() {
+        long[] bounds = new long[TIMER_BUCKETS_SECONDS.length];
+        for (int i = 0; i < bounds.length; i++) {
+            bounds[i] = (long) (TIMER_BUCKETS_SECONDS[i] * 1e9);
+        }
+        return new Histogram(bounds, 1e-9);
+    }
+
+    /**
+     * Records one value in the histogram's unit (nanoseconds for timers).
+     */
+    public void record(long value) {
+        int i = 0;
+        while (i < upperBounds.length && value > upperBounds[i]) {
+            i++;
+        }
+        buckets[i].increment();
+        sum.add(value);
+    }
+
+    /**
+     * Records the time elapsed since {@code startNanos}, as returned by {@link System#nanoTime()}.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    int bucketCount() {
+        return upperBounds.length;
+    }
+
+    double upperBound(int bucket) {
+        return upperBounds[bucket] * scale;
+    }
+
+    /**
+     * Returns the cumulative count of values up to each bound; the last element is the total count.
+     */
+    long[] cumulativeCounts() {
+        long[] counts = new long[buckets.length];
+        long running = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            running += buckets[i].sum();
+            counts[i] = running;
+        }
+        return counts;
+    }
+
+    double sum() {
+        return sum.sum() * scale;
+    }
+}
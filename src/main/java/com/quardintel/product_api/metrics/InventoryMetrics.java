@@ -0,0 +1,46 @@
+package com.quardintel.product_api.metrics;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Inventory counters for the sell paths.
+ * Stock is taken with one conditional update, so contention shows up as time spent waiting for the
+ * row lock in that update, and as lock failures (timeouts or deadlocks) when the wait is given up.
+ */
+@Component
+public class InventoryMetrics {
+
+    private final Counter sales;
+    private final Counter unitsSold;
+    private final Counter insufficientStock;
+    private final Counter lockFailures;
+    private final Histogram stockUpdate;
+
+    public InventoryMetrics(MetricsRegistry registry) {
+        this.sales = registry.counter("inventory_sales_total", "Product lines sold");
+        this.unitsSold = registry.counter("inventory_units_sold_total", "Units sold");
+        this.insufficientStock = registry.counter("inventory_insufficient_stock_total",
+                "Sales rejected for insufficient stock");
+        this.lockFailures = registry.counter("inventory_lock_failures_total",
+                "Stock updates that failed on a lock timeout or deadlock");
+        this.stockUpdate = registry.timer("inventory_stock_update_seconds",
+                "Time taken by the conditional stock update, including row lock waits");
+    }
+
+    public void recordSale(int units) {
+        sales.increment();
+        unitsSold.increment(units);
+    }
+
+    public void recordInsufficientStock() {
+        insufficientStock.increment();
+    }
+
+    public void recordLockFailure() {
+        lockFailures.increment();
+    }
+
+    public void recordStockUpdate(long startNanos) {
+        stockUpdate.recordSince(startNanos);
+    }
+}
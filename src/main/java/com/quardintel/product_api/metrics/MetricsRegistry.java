@@ -0,0 +1,148 @@
+package com.quardintel.product_api.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * In-process metrics registry with Prometheus text output.
+ * Meters are created once and held by their callers, so the hot path only touches the meter itself;
+ * the registry is consulted when a meter is first needed and when metrics are scraped.
+ *
+ * <p>Labels are passed as alternating names and values, e.g. {@code counter("x_total", "help", "cache", "products")}.
+ */
+@Component
+public class MetricsRegistry {
+
+    private enum Type { COUNTER, GAUGE, HISTOGRAM }
+
+    private record Family(String name, String help, Type type, ConcurrentMap<List<String>, Object> meters) {
+    }
+
+    private final ConcurrentMap<String, Family> families = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the counter with the given name and labels, creating it on first use.
+     */
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) meter(name, help, Type.COUNTER, labels, Counter::new);
+    }
+
+    /**
+     * Returns the timer with the given name and labels, creating it on first use.
+     * Timers record nanoseconds and are exported in seconds.
+     */
+    public Histogram timer(String name, String help, String... labels) {
+        return (Histogram) meter(name, help, Type.HISTOGRAM, labels, Histogram::timer);
+    }
+
+    /**
+     * Returns the histogram with the given name, bucket bounds and labels, creating it on first use.
+     */
+    public Histogram histogram(String name, String help, long[] upperBounds, String... labels) {
+        return (Histogram) meter(name, help, Type.HISTOGRAM, labels, () -> new Histogram(upperBounds, 1));
+    }
+
+    /**
+     * Registers a value read at scrape time. Counter-like sources (values that only grow) should use
+     * {@link #counterFunction} instead so that rate queries work.
+     */
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        meter(name, help, Type.GAUGE, labels, () -> value);
+    }
+
+    /**
+     * Registers a monotonic value owned elsewhere (e.g. cache statistics) that is read at scrape time.
+     */
+    public void counterFunction(String name, String help, DoubleSupplier value, String... labels) {
+        meter(name, help, Type.COUNTER, labels, () -> value);
+    }
+
+    private Object meter(String name, String help, Type type, String[] labels,
+                         Supplier<Object> factory) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be given as name/value pairs: " + name);
+        }
+        Family family = families.computeIfAbsent(name, key -> new Family(name, help, type, new ConcurrentHashMap<>()));
+        if (family.type() != type) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as " + family.type());
+        }
+        return family.meters().computeIfAbsent(List.of(labels), key -> factory.get());
+    }
+
+    /**
+     * Writes every metric in the Prometheus text exposition format (version 0.0.4).
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Family family : new TreeMap<>(families).values()) {
+            out.append("# HELP ").append(family.name()).append(' ').append(family.help()).append('\n');
+            out.append("# TYPE ").append(family.name()).append(' ')
+                    .append(family.type().name().toLowerCase()).append('\n');
+            for (Map.Entry<List<String>, Object> entry : family.meters().entrySet()) {
+                write(out, family.name(), entry.getKey(), entry.getValue());
+            }
+        }
+        return out.toString();
+    }
+
+    private static void write(StringBuilder out, String name, List<String> labels, Object meter) {
+        if (meter instanceof Counter counter) {
+            sample(out, name, labels, null, counter.count());
+        } else if (meter instanceof DoubleSupplier supplier) {
+            sample(out, name, labels, null, supplier.getAsDouble());
+        } else if (meter instanceof Histogram histogram) {
+            long[] cumulative = histogram.cumulativeCounts();
+            for (int i = 0; i < histogram.bucketCount(); i++) {
+                sample(out, name + "_bucket", labels, formatValue(histogram.upperBound(i)), cumulative[i]);
+            }
+            sample(out, name + "_bucket", labels, "+Inf", cumulative[cumulative.length - 1]);
+            sample(out, name + "_count", labels, null, cumulative[cumulative.length - 1]);
+            sample(out, name + "_sum", labels, null, histogram.sum());
+        }
+    }
+
+    private static void sample(StringBuilder out, String name, List<String> labels, String le, double value) {
+        out.append(name);
+        if (!labels.isEmpty() || le != null) {
+            out.append('{');
+            for (int i = 0; i < labels.size(); i += 2) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                out.append(labels.get(i)).append("=\"");
+                escape(out, labels.get(i + 1));
+                out.append('"');
+            }
+            if (le != null) {
+                out.append(labels.isEmpty() ? "" : ",").append("le=\"").append(le).append('"');
+            }
+            out.append('}');
+        }
+        out.append(' ').append(formatValue(value)).append('\n');
+    }
+
+    private static String formatValue(double value) {
+        return value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15
+                ? Long.toString((long) value)
+                : Double.toString(value);
+    }
+
+    private static void escape(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> out.append("\\\\");
+                case '"' -> out.append("\\\"");
+                case '\n' -> out.append("\\n");
+                default -> out.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.quardintel.product_api.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on each thread.
+ * The count is only ever read as a difference, so a request reads it before and after handling
+ * without any reset; the counter is a per-thread array, so counting allocates nothing.
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    /**
+     * Returns the number of statements prepared on the current thread so far.
+     */
+    public static long currentCount() {
+        return COUNT.get()[0];
+    }
+}
@@ -0,0 +1,100 @@
+package com.quardintel.product_api.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Times every request and counts the SQL statements it issues, per endpoint.
+ * Endpoints are identified by HTTP method, URI template (not the raw path, to keep label values bounded)
+ * and status class. Runs ahead of the security filters so that authentication cost is included.
+ * Async requests (e.g. login) are timed until the async dispatch completes; statements issued on
+ * other threads are not attributed to the request.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private static final String START_ATTRIBUTE = RequestMetricsFilter.class.getName() + ".start";
+    private static final String QUERIES_ATTRIBUTE = RequestMetricsFilter.class.getName() + ".queries";
+    private static final String UNKNOWN_URI = "UNKNOWN";
+    private static final long[] QUERY_BUCKETS = {0, 1, 2, 3, 5, 10, 20, 50, 100};
+    private static final String[] STATUS_CLASSES = {"1xx", "1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    private record EndpointMeters(Histogram duration, Histogram queries) {
+    }
+
+    private final MetricsRegistry registry;
+    private final Counter queriesTotal;
+
+    // URI template -> method -> meters per status class; only allocated the first time an endpoint is seen
+    private final ConcurrentMap<String, ConcurrentMap<String, EndpointMeters[]>> endpoints = new ConcurrentHashMap<>();
+
+    public RequestMetricsFilter(MetricsRegistry registry) {
+        this.registry = registry;
+        this.queriesTotal = registry.counter("db_queries_total", "SQL statements prepared by Hibernate");
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false; // The async dispatch completes the request, so that is where it is recorded
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Object startedAt = request.getAttribute(START_ATTRIBUTE);
+        long start = startedAt == null ? System.nanoTime() : (Long) startedAt;
+        long priorQueries = startedAt == null ? 0 : (Long) request.getAttribute(QUERIES_ATTRIBUTE);
+        long queriesBefore = QueryCountInspector.currentCount();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            long queries = priorQueries + QueryCountInspector.currentCount() - queriesBefore;
+            if (request.isAsyncStarted()) {
+                request.setAttribute(START_ATTRIBUTE, start);
+                request.setAttribute(QUERIES_ATTRIBUTE, queries);
+            } else {
+                int status = failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus();
+                EndpointMeters meters = meters(request, status);
+                meters.duration().recordSince(start);
+                meters.queries().record(queries);
+                queriesTotal.increment(queries);
+            }
+        }
+    }
+
+    private EndpointMeters meters(HttpServletRequest request, int status) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern instanceof String template ? template : UNKNOWN_URI;
+        String method = request.getMethod();
+        int statusClass = Math.min(Math.max(status / 100, 1), 5);
+
+        EndpointMeters[] byStatus = endpoints
+                .computeIfAbsent(uri, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(method, key -> new EndpointMeters[STATUS_CLASSES.length]);
+        EndpointMeters meters = byStatus[statusClass];
+        if (meters == null) {
+            // Racing threads get the same meters back from the registry, so the array write is benign
+            String[] labels = {"method", method, "uri", uri, "status", STATUS_CLASSES[statusClass]};
+            meters = new EndpointMeters(
+                    registry.timer("http_server_requests_seconds", "Request handling time", labels),
+                    registry.histogram("http_server_requests_db_queries", "SQL statements per request",
+                            QUERY_BUCKETS, labels));
+            byStatus[statusClass] = meters;
+        }
+        return meters;
+    }
+}
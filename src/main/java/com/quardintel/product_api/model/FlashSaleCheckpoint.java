@@ -0,0 +1,41 @@
+package com.quardintel.product_api.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Highest flash-sale journal sequence number whose sales have been applied to product stock.
+ * Written in the same transaction as the stock updates, so replaying the journal after a crash
+ * skips exactly the sales that already reached the database.
+ */
+@Entity
+@Table(name = "flash_sale_checkpoint")
+public class FlashSaleCheckpoint {
+
+    public static final Long ID = 1L; // Single row: the journal is local to one instance
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private long appliedSequence;
+
+    protected FlashSaleCheckpoint() {
+    }
+
+    public FlashSaleCheckpoint(Long id, long appliedSequence) {
+        this.id = id;
+        this.appliedSequence = appliedSequence;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    public void setAppliedSequence(long appliedSequence) {
+        this.appliedSequence = appliedSequence;
+    }
+}
@@ -6,10 +6,14 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@Table(indexes = @Index(name = "idx_product_price_id", columnList = "price, id")) // Keyset pagination by price
 public class Product {
 
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = ID_ALLOCATION_SIZE) // Pooled IDs allow batched inserts
     private Long id;
 
     @NotEmpty(message = "Product name cannot be empty")
@@ -39,6 +43,11 @@ public class Product {
     )
     private Set<Category> categories = new HashSet<>();
 
+    // Incremented by every write, including stock updates; existing rows start at 0
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private Long version;
+
     public Long getId() {
         return id;
     }
@@ -86,4 +95,12 @@ public class Product {
     public void setCategories(Set<Category> categories) {
         this.categories = categories;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
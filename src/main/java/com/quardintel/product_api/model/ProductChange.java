@@ -0,0 +1,71 @@
+package com.quardintel.product_api.model;
+
+import com.quardintel.product_api.event.ProductChangedEvent;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * One entry of the catalog change log, written in the same transaction as the change it records.
+ * The ID is the change sequence number handed to clients as their sync token. An entry normally records one
+ * product; imports record a run of consecutive product IDs in one entry instead of one row per product.
+ */
+@Entity
+@Table(name = "product_change")
+public class ProductChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY) // Assigned at insert, so the sequence follows write order
+    private Long id;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    private Long lastProductId; // Last ID of the run recorded by an import entry; null for single products
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ProductChangedEvent.Type type;
+
+    @Column(nullable = false)
+    private Instant recordedAt;
+
+    protected ProductChange() {
+    }
+
+    public ProductChange(Long productId, ProductChangedEvent.Type type, Instant recordedAt) {
+        this.productId = productId;
+        this.type = type;
+        this.recordedAt = recordedAt;
+    }
+
+    public ProductChange(Long firstProductId, Long lastProductId, ProductChangedEvent.Type type, Instant recordedAt) {
+        this(firstProductId, type, recordedAt);
+        this.lastProductId = lastProductId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    // Last product ID covered by this entry, which is the product ID itself unless it records an import run
+    public Long getLastProductId() {
+        return lastProductId == null ? productId : lastProductId;
+    }
+
+    public ProductChangedEvent.Type getType() {
+        return type;
+    }
+
+    public Instant getRecordedAt() {
+        return recordedAt;
+    }
+}
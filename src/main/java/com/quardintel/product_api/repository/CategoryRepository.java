@@ -5,8 +5,13 @@ import com.quardintel.product_api.model.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     // Custom query method to find a category by its name
     Category findByName(String name);
+
+    List<Category> findByNameIn(Collection<String> names);
 }
@@ -0,0 +1,9 @@
+package com.quardintel.product_api.repository;
+
+import com.quardintel.product_api.model.FlashSaleCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface FlashSaleCheckpointRepository extends JpaRepository<FlashSaleCheckpoint, Long> {
+}
@@ -0,0 +1,36 @@
+package com.quardintel.product_api.repository;
+
+import com.quardintel.product_api.model.ProductChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface ProductChangeRepository extends JpaRepository<ProductChange, Long> {
+
+    // Change log entries after a sync token, oldest first
+    List<ProductChange> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Oldest retained sequence number, or null if the log is empty
+    @Query("select min(c.id) from ProductChange c")
+    Long findFirstId();
+
+    // Newest sequence number, or null if the log is empty
+    @Query("select max(c.id) from ProductChange c")
+    Long findLastId();
+
+    // Newest sequence number recorded before an instant, or null if there is none
+    @Query("select max(c.id) from ProductChange c where c.recordedAt < :instant")
+    Long findLastIdRecordedBefore(@Param("instant") Instant instant);
+
+    // Removes the entries in a range of sequence numbers; used for retention, a bounded range at a time
+    @Modifying
+    @Query("delete from ProductChange c where c.id > :after and c.id <= :upTo")
+    int deleteByIdRange(@Param("after") long after, @Param("upTo") long upTo);
+}
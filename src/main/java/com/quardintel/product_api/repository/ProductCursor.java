@@ -0,0 +1,105 @@
+package com.quardintel.product_api.repository;
+
+import com.quardintel.product_api.dto.ProductSortKey;
+import com.quardintel.product_api.dto.ProductView;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position of the last product on a page.
+ * Encoded as an opaque, URL-safe continuation token that is bound to the sort key and direction it was issued for.
+ */
+public final class ProductCursor {
+
+    private static final String VERSION = "v1";
+
+    private final ProductSortKey sort;
+    private final boolean ascending;
+    private final Long id;
+    private final Comparable<?> value;
+
+    private ProductCursor(ProductSortKey sort, boolean ascending, Long id, Comparable<?> value) {
+        this.sort = sort;
+        this.ascending = ascending;
+        this.id = id;
+        this.value = value;
+    }
+
+    /**
+     * Creates the cursor pointing just past the given product.
+     *
+     * @param product   Last product of the current page
+     * @param sort      Sort key of the listing
+     * @param ascending Sort direction of the listing
+     * @return Cursor for the next page
+     */
+    public static ProductCursor after(ProductView product, ProductSortKey sort, boolean ascending) {
+        Comparable<?> value = switch (sort) {
+            case ID -> product.id();
+            case NAME -> product.name();
+            case PRICE -> product.price();
+        };
+        return new ProductCursor(sort, ascending, product.id(), value);
+    }
+
+    /**
+     * Decodes a continuation token previously produced by {@link #encode()}.
+     *
+     * @param token     Continuation token
+     * @param sort      Sort key of the current request
+     * @param ascending Sort direction of the current request
+     * @return Decoded cursor
+     */
+    public static ProductCursor decode(String token, ProductSortKey sort, boolean ascending) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", 5);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+        if (parts.length != 5 || !VERSION.equals(parts[0])) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+        if (!sort.name().equals(parts[1]) || ascending != "asc".equals(parts[2])) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort order.");
+        }
+        try {
+            Long id = Long.valueOf(parts[3]);
+            Comparable<?> value = switch (sort) {
+                case ID -> id;
+                case NAME -> parts[4];
+                case PRICE -> Double.valueOf(parts[4]);
+            };
+            return new ProductCursor(sort, ascending, id, value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+    }
+
+    /**
+     * Encodes this cursor as an opaque continuation token.
+     *
+     * @return URL-safe token
+     */
+    public String encode() {
+        String raw = String.join("|", VERSION, sort.name(), ascending ? "asc" : "desc", id.toString(), value.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public ProductSortKey getSort() {
+        return sort;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Comparable<?> getValue() {
+        return value;
+    }
+}
@@ -1,10 +1,81 @@
 package com.quardintel.product_api.repository;
 
+import com.quardintel.product_api.event.StockLevel;
 import com.quardintel.product_api.model.Product;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
     Product findByName(String name);
-}
\ No newline at end of file
+
+    // Product with its categories in one statement, for the write paths that return the updated entity
+    @Override
+    @EntityGraph(attributePaths = "categories")
+    Optional<Product> findById(Long id);
+
+    // Forward-only, read-only cursor over the whole catalog; must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select p from Product p order by p.id")
+    Stream<Product> streamAllByOrderById();
+
+    // Catalog rows in ID order, one per (product, category) pair with null category columns for uncategorized
+    // products; read without entities. Must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select p.id, p.name, p.description, p.price, p.quantity, p.version, c.id, c.name"
+            + " from Product p left join p.categories c order by p.id, c.id")
+    Stream<Object[]> streamCatalogRows();
+
+    // Every (product ID, category ID) pair, read straight from the join table; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select p.id, c.id from Product p join p.categories c")
+    Stream<Object[]> streamCategoryLinks();
+
+    // Takes stock in a single conditional update that also bumps the version; returns 0 if the product is missing or has too little stock
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.quantity = p.quantity - :quantity, p.version = p.version + 1"
+            + " where p.id = :id and p.quantity >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // Applies stock sold elsewhere (flash sales already checked against an in-memory counter); no stock condition
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.quantity = p.quantity - :quantity, p.version = p.version + 1 where p.id = :id")
+    int applyStockSold(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // Product row locked until the end of the transaction, so that no sale can change its stock meanwhile; the
+    // version is bumped as well, so that updates that read the row earlier fail their versioned write
+    @Lock(LockModeType.PESSIMISTIC_FORCE_INCREMENT)
+    @Query("select p from Product p where p.id = :id")
+    Optional<Product> findLockedById(@Param("id") Long id);
+
+    @Query("select p.version from Product p where p.id = :id")
+    Long findVersionById(@Param("id") Long id);
+
+    // Stock and version after a stock update in the same transaction
+    @Query("select new com.quardintel.product_api.event.StockLevel(p.quantity, p.version) from Product p where p.id = :id")
+    StockLevel findStockLevelById(@Param("id") Long id);
+
+    @Query("select p.name from Product p where p.name in :names")
+    Set<String> findExistingNames(@Param("names") Collection<String> names);
+}
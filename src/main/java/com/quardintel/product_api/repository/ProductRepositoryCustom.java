@@ -0,0 +1,58 @@
+package com.quardintel.product_api.repository;
+
+import com.quardintel.product_api.dto.ProductPageRequest;
+import com.quardintel.product_api.dto.ProductView;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Hand-written queries that cannot be expressed as derived repository methods.
+ * Read queries select straight into {@link ProductView}s, so no entities enter the persistence context.
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Fetches one keyset page of products, applying the request's filters and sort order.
+     *
+     * @param request Page request (filters and sort order)
+     * @param after   Position of the last product of the previous page, or null for the first page
+     * @param limit   Maximum number of rows to return
+     * @return Products following the cursor, in sort order
+     */
+    default List<ProductView> findPage(ProductPageRequest request, ProductCursor after, int limit) {
+        return findPage(request, after, null, limit);
+    }
+
+    /**
+     * Fetches one keyset page of products, restricted to the given IDs.
+     * When {@code ids} is given it replaces the request's category filter, which is otherwise applied in SQL.
+     * Categories of the whole page are loaded by one extra statement.
+     *
+     * @param request Page request (filters and sort order)
+     * @param after   Position of the last product of the previous page, or null for the first page
+     * @param ids     IDs of the candidate products, or null for no restriction
+     * @param limit   Maximum number of rows to return
+     * @return Products following the cursor, in sort order
+     */
+    List<ProductView> findPage(ProductPageRequest request, ProductCursor after, Collection<Long> ids, int limit);
+
+    /**
+     * Fetches the read models of the given products, in two statements.
+     *
+     * @param ids Product IDs
+     * @return Read models of the products that exist, in no particular order
+     */
+    List<ProductView> findViewsByIdIn(Collection<Long> ids);
+
+    /**
+     * Fetches the read model of one product.
+     *
+     * @param id Product ID
+     * @return Read model, or empty if the product does not exist
+     */
+    default Optional<ProductView> findViewById(Long id) {
+        return findViewsByIdIn(List.of(id)).stream().findFirst();
+    }
+}
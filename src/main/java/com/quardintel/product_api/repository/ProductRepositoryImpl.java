@@ -0,0 +1,165 @@
+package com.quardintel.product_api.repository;
+
+import com.quardintel.product_api.dto.CategoryFilter;
+import com.quardintel.product_api.dto.CategoryView;
+import com.quardintel.product_api.dto.ProductPageRequest;
+import com.quardintel.product_api.dto.ProductSortKey;
+import com.quardintel.product_api.dto.ProductView;
+import com.quardintel.product_api.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductView> findPage(ProductPageRequest request, ProductCursor after, Collection<Long> ids, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductView> query = cb.createQuery(ProductView.class);
+        Root<Product> product = query.from(Product.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (request.name() != null) {
+            predicates.add(cb.like(product.get("name"), escapeLike(request.name()) + "%", '\\'));
+        }
+        if (request.minPrice() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(product.get("price"), request.minPrice()));
+        }
+        if (request.maxPrice() != null) {
+            predicates.add(cb.lessThanOrEqualTo(product.get("price"), request.maxPrice()));
+        }
+        if (ids != null) {
+            predicates.add(product.get("id").in(ids));
+        } else if (!request.categories().isEmpty()) {
+            predicates.addAll(categoryPredicates(cb, query, product, request.categories()));
+        }
+        if (after != null) {
+            predicates.add(keysetPredicate(cb, product, after));
+        }
+
+        ProductSortKey sort = request.sort();
+        List<Order> orders = new ArrayList<>();
+        if (sort != ProductSortKey.ID) {
+            orders.add(order(cb, product.get(sort.getProperty()), request.ascending()));
+        }
+        orders.add(order(cb, product.get("id"), request.ascending()));
+
+        query.select(cb.construct(ProductView.class, product.get("id"), product.get("name"),
+                        product.get("description"), product.get("price"), product.get("quantity"), product.get("version")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(orders);
+
+        return withCategories(entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList());
+    }
+
+    @Override
+    public List<ProductView> findViewsByIdIn(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return withCategories(entityManager.createQuery(
+                        "select new com.quardintel.product_api.dto.ProductView(p.id, p.name, p.description, p.price, p.quantity, p.version)"
+                                + " from Product p where p.id in :ids", ProductView.class)
+                .setParameter("ids", ids)
+                .getResultList());
+    }
+
+    /**
+     * Attaches categories to the given products with one join query over all of them.
+     * Joining categories into the product query itself would make the row limit apply to joined rows.
+     */
+    private List<ProductView> withCategories(List<ProductView> products) {
+        if (products.isEmpty()) {
+            return products;
+        }
+        List<Object[]> links = entityManager.createQuery(
+                        "select p.id, c.id, c.name from Product p join p.categories c where p.id in :ids order by c.id", Object[].class)
+                .setParameter("ids", products.stream().map(ProductView::id).toList())
+                .getResultList();
+        Map<Long, List<CategoryView>> categoriesByProduct = new HashMap<>();
+        for (Object[] link : links) {
+            categoriesByProduct.computeIfAbsent((Long) link[0], id -> new ArrayList<>())
+                    .add(new CategoryView((Long) link[1], (String) link[2]));
+        }
+        return products.stream()
+                .map(product -> product.withCategories(categoriesByProduct.get(product.id())))
+                .toList();
+    }
+
+    /**
+     * Category filter as membership subqueries on the join table, for when the matching IDs are not known up front.
+     */
+    private List<Predicate> categoryPredicates(CriteriaBuilder cb, CriteriaQuery<?> query, Root<Product> product,
+                                               CategoryFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (!filter.included().isEmpty()) {
+            if (filter.matchAll()) {
+                for (Long categoryId : filter.included()) {
+                    predicates.add(product.get("id").in(productIdsInCategories(cb, query, List.of(categoryId))));
+                }
+            } else {
+                predicates.add(product.get("id").in(productIdsInCategories(cb, query, filter.included())));
+            }
+        }
+        if (!filter.excluded().isEmpty()) {
+            predicates.add(cb.not(product.get("id").in(productIdsInCategories(cb, query, filter.excluded()))));
+        }
+        return predicates;
+    }
+
+    private Subquery<Long> productIdsInCategories(CriteriaBuilder cb, CriteriaQuery<?> query, Collection<Long> categoryIds) {
+        Subquery<Long> subquery = query.subquery(Long.class);
+        Root<Product> member = subquery.from(Product.class);
+        Join<Object, Object> category = member.join("categories");
+        return subquery.select(member.get("id")).where(category.get("id").in(categoryIds));
+    }
+
+    /**
+     * Builds the "comes after the cursor" predicate: {@code key > v OR (key = v AND id > lastId)},
+     * with the comparisons flipped for descending order.
+     */
+    private Predicate keysetPredicate(CriteriaBuilder cb, Root<Product> product, ProductCursor after) {
+        Predicate afterId = beyond(cb, product.get("id"), after.getId(), after.isAscending());
+        if (after.getSort() == ProductSortKey.ID) {
+            return afterId;
+        }
+        Expression<?> key = product.get(after.getSort().getProperty());
+        return cb.or(
+                beyond(cb, key, after.getValue(), after.isAscending()),
+                cb.and(cb.equal(key, after.getValue()), afterId)
+        );
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate beyond(CriteriaBuilder cb, Expression path, Comparable value, boolean ascending) {
+        return ascending ? cb.greaterThan(path, value) : cb.lessThan(path, value);
+    }
+
+    private Order order(CriteriaBuilder cb, Expression<?> path, boolean ascending) {
+        return ascending ? cb.asc(path) : cb.desc(path);
+    }
+
+    private String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
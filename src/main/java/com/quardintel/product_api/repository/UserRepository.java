@@ -2,15 +2,21 @@ package com.quardintel.product_api.repository;
 
 import com.quardintel.product_api.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
 
-    // Check if the username already exists
-    boolean existsByUsername(String username);
-
-    // Check if the email already exists
-    boolean existsByEmail(String email);
+    // Replaces the password hash only if it is still the one given, so a password changed meanwhile is kept
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :newHash where u.username = :username and u.password = :oldHash")
+    int replacePasswordHash(@Param("username") String username, @Param("oldHash") String oldHash,
+                            @Param("newHash") String newHash);
 }
+
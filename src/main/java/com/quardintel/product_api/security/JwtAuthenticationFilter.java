@@ -1,51 +1,88 @@
 package com.quardintel.product_api.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 public class JwtAuthenticationFilter extends BasicAuthenticationFilter {
 
+    private static final String BEARER_PREFIX = "Bearer ";
+
     private final JwtUtil jwtTokenUtil;
     private final UserDetailsService userDetailsService;
+    private final UserStateCache userStateCache;
+    private final boolean claimsOnly;
 
-    public JwtAuthenticationFilter(AuthenticationManager authenticationManager, JwtUtil jwtTokenUtil, UserDetailsService userDetailsService) {
+    /**
+     * @param claimsOnly When true, tokens carrying authority claims are authenticated from the claims and the
+     *                   cached account state, without loading the user from the database
+     */
+    public JwtAuthenticationFilter(AuthenticationManager authenticationManager, JwtUtil jwtTokenUtil, UserDetailsService userDetailsService,
+                                   UserStateCache userStateCache, boolean claimsOnly) {
         super(authenticationManager);
         this.jwtTokenUtil = jwtTokenUtil;
         this.userDetailsService = userDetailsService;
+        this.userStateCache = userStateCache;
+        this.claimsOnly = claimsOnly;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse, FilterChain filterChain) throws ServletException, IOException {
         String authorization = httpServletRequest.getHeader("Authorization");
-        String token = null;
-        String userName = null;
 
-        if (null != authorization && authorization.startsWith("Bearer  ")) {
-            token = authorization.substring(7);
-            userName = jwtTokenUtil.extractUsername(token);
-        }
-        if (null != userName && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(userName);
-            if (jwtTokenUtil.validateToken(token, userDetails)) {
-                UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                usernamePasswordAuthenticationToken.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(httpServletRequest)
-                );
-                SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
+        if (null != authorization && authorization.startsWith(BEARER_PREFIX)
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String token = authorization.substring(BEARER_PREFIX.length()).trim();
+            try {
+                // The token is verified once; the claims are reused for every check below
+                Claims claims = jwtTokenUtil.verifyToken(token);
+                UserDetails userDetails = resolveUser(claims);
+                if (userDetails != null && jwtTokenUtil.validateToken(claims, userDetails)) {
+                    UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    usernamePasswordAuthenticationToken.setDetails(
+                            new WebAuthenticationDetailsSource().buildDetails(httpServletRequest)
+                    );
+                    SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
+                }
+            } catch (UsernameNotFoundException e) {
+                logger.debug("Token subject no longer exists", e);
+            } catch (RuntimeException e) {
+                logger.debug("Rejected bearer token", e);
             }
-            filterChain.doFilter(httpServletRequest, httpServletResponse);
         }
+        // Unauthenticated requests continue so that the entry point can answer them
+        filterChain.doFilter(httpServletRequest, httpServletResponse);
+    }
+
+    // Builds the principal from the token's claims when possible, otherwise loads it from the database
+    private UserDetails resolveUser(Claims claims) {
+        String username = claims.getSubject();
+        List<GrantedAuthority> authorities = claimsOnly ? jwtTokenUtil.extractAuthorities(claims) : null;
+        if (authorities == null) {
+            return userDetailsService.loadUserByUsername(username);
+        }
+        if (!userStateCache.isActive(username)) {
+            return null;
+        }
+        return User.withUsername(username)
+                .password("")
+                .authorities(authorities)
+                .build();
     }
 
 }
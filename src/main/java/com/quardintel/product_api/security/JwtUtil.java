@@ -1,37 +1,131 @@
 package com.quardintel.product_api.security;
 
+import com.quardintel.product_api.cache.BoundedCache;
+import com.quardintel.product_api.metrics.Histogram;
+import com.quardintel.product_api.metrics.MetricsRegistry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
+import java.util.List;
 
 /**
  * Utility class to generate and validate JWT tokens.
+ * Verified claims are cached by a hash of the token until the token expires,
+ * so repeat requests with the same token skip signature checks and JSON parsing.
  */
 @Component
 public class JwtUtil {
 
+    private static final long TOKEN_VALIDITY_MILLIS = 1000 * 60 * 60; // 1 hour expiration
+    private static final String AUTHORITIES_CLAIM = "authorities";
+
     // Secret key used for signing JWT tokens
     private final SecretKey secretKey = Keys.secretKeyFor(SignatureAlgorithm.HS512);
 
+    // Source of the issue, expiry and validation times
+    private final Clock clock;
+
+    // Parsers are immutable and thread-safe, so one instance is shared by all requests
+    private final JwtParser parser;
+
+    // Token hash -> verified claims; entries never outlive the longest possible token lifetime
+    private final BoundedCache verifiedTokens;
+
+    // Verification time, split by whether the claims came from the cache
+    private final Histogram cachedVerifyTimer;
+    private final Histogram fullVerifyTimer;
+
+    @Autowired
+    public JwtUtil(@Value("${app.security.jwt.verified-cache-size:10000}") long verifiedCacheSize,
+                   MetricsRegistry metricsRegistry) {
+        this(verifiedCacheSize, metricsRegistry, Clock.systemUTC());
+    }
+
+    JwtUtil(long verifiedCacheSize, MetricsRegistry metricsRegistry, Clock clock) {
+        this.clock = clock;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .setClock(() -> Date.from(clock.instant()))
+                .build();
+        this.verifiedTokens = new BoundedCache("verifiedTokens", verifiedCacheSize,
+                Duration.ofMillis(TOKEN_VALIDITY_MILLIS), null, value -> 1);
+        this.cachedVerifyTimer = metricsRegistry.timer("jwt_verify_seconds", "JWT verification time", "result", "cached");
+        this.fullVerifyTimer = metricsRegistry.timer("jwt_verify_seconds", "JWT verification time", "result", "verified");
+    }
+
     /**
      * Generates a JWT token for the given user details.
+     * The user's granted authorities are embedded so that requests can be authenticated from the token alone.
      *
      * @param userDetails UserDetails containing user information (e.g., username).
      * @return A signed JWT token.
      */
     public String generateToken(UserDetails userDetails) {
+        List<String> authorities = userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
         return Jwts.builder()
                 .setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60)) // 1 hour expiration
+                .claim(AUTHORITIES_CLAIM, authorities)
+                .setIssuedAt(Date.from(clock.instant()))
+                .setExpiration(new Date(clock.millis() + TOKEN_VALIDITY_MILLIS))
                 .signWith(SignatureAlgorithm.HS256, secretKey)
                 .compact();
     }
 
+    /**
+     * Verifies the token's signature and expiry once and returns its claims.
+     * Claims of already verified tokens are served from the cache until the token expires.
+     *
+     * @param token JWT token.
+     * @return Verified claims of the token.
+     */
+    public Claims verifyToken(String token) {
+        long start = System.nanoTime();
+        String key = hash(token);
+        Claims cached = verifiedTokens.get(key, Claims.class);
+        if (cached != null) {
+            cachedVerifyTimer.recordSince(start);
+            if (!isExpired(cached)) {
+                return cached;
+            }
+            verifiedTokens.evict(key);
+            throw new RuntimeException("Token has expired");
+        }
+        try {
+            Claims claims = parseClaims(token);
+            verifiedTokens.put(key, claims);
+            return claims;
+        } finally {
+            fullVerifyTimer.recordSince(start);
+        }
+    }
+
+    /**
+     * Validates already verified claims against the user they claim to belong to.
+     *
+     * @param claims Verified claims of the token.
+     * @param userDetails UserDetails containing user information.
+     * @return True if the claims belong to the user and have not expired, false otherwise.
+     */
+    public boolean validateToken(Claims claims, UserDetails userDetails) {
+        return userDetails.getUsername().equals(claims.getSubject()) && !isExpired(claims);
+    }
+
     /**
      * Validates the JWT token by checking its expiration and username.
      *
@@ -40,7 +134,7 @@ public class JwtUtil {
      * @return True if the token is valid, false otherwise.
      */
     public boolean validateToken(String token, UserDetails userDetails) {
-        return extractUsername(token).equals(userDetails.getUsername()) && !isTokenExpired(token);
+        return validateToken(verifyToken(token), userDetails);
     }
 
     /**
@@ -50,17 +144,23 @@ public class JwtUtil {
      * @return Username (subject) from the token.
      */
     public String extractUsername(String token) {
-        return parseClaims(token).getSubject();
+        return verifyToken(token).getSubject();
     }
 
     /**
-     * Extracts the expiration date from the JWT token.
+     * Extracts the granted authorities embedded in verified claims.
      *
-     * @param token JWT token.
-     * @return Expiration date of the token.
+     * @param claims Verified claims of the token.
+     * @return Authorities, or null if the token predates authority claims.
      */
-    private Date extractExpiration(String token) {
-        return parseClaims(token).getExpiration();
+    public List<GrantedAuthority> extractAuthorities(Claims claims) {
+        Object authorities = claims.get(AUTHORITIES_CLAIM);
+        if (!(authorities instanceof List<?> names)) {
+            return null;
+        }
+        return names.stream()
+                .map(name -> (GrantedAuthority) new SimpleGrantedAuthority(name.toString()))
+                .toList();
     }
 
     /**
@@ -71,13 +171,10 @@ public class JwtUtil {
      */
     private Claims parseClaims(String token) {
         try {
-            return Jwts.parser()
-                    .setSigningKey(secretKey)
-                    .parseClaimsJws(token)
-                    .getBody();
+            return parser.parseClaimsJws(token).getBody();
         } catch (ExpiredJwtException e) {
             throw new RuntimeException("Token has expired", e);
-        } catch (JwtException e) {
+        } catch (JwtException | IllegalArgumentException e) {
             throw new RuntimeException("Token parsing failed", e);
         }
     }
@@ -89,11 +186,25 @@ public class JwtUtil {
      * @return True if the token is expired, false otherwise.
      */
     public boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return isExpired(verifyToken(token));
+    }
+
+    private boolean isExpired(Claims claims) {
+        return claims.getExpiration().before(Date.from(clock.instant()));
     }
+
     // Validate the token
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+        return validateToken(token, userDetails);
+    }
+
+    // Cache key: SHA-256 of the token, so raw tokens are not kept in memory
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 }
@@ -0,0 +1,68 @@
+package com.quardintel.product_api.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+/**
+ * Authenticates a metrics scraper by a static bearer token on the scrape path only.
+ * <p>
+ * Scrapers such as Prometheus send a fixed credential and cannot log in for a short-lived JWT. A request to
+ * {@link #SCRAPE_PATH} whose bearer token equals the configured one gets {@code ROLE_METRICS}, which grants
+ * nothing but that path. Without a configured token the filter does nothing.
+ */
+public class MetricsScrapeFilter extends OncePerRequestFilter {
+
+    public static final String SCRAPE_PATH = "/metrics";
+    public static final String SCRAPER_ROLE = "METRICS";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final byte[] tokenDigest; // Null when scraping by token is switched off
+
+    /**
+     * @param scrapeToken Token the scraper sends as {@code Authorization: Bearer ...}, or blank to switch it off
+     */
+    public MetricsScrapeFilter(String scrapeToken) {
+        this.tokenDigest = scrapeToken == null || scrapeToken.isBlank() ? null : digest(scrapeToken);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return tokenDigest == null || !SCRAPE_PATH.equals(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.startsWith(BEARER_PREFIX)
+                && SecurityContextHolder.getContext().getAuthentication() == null
+                // Digests have a fixed length, so the comparison takes the same time for every wrong token
+                && MessageDigest.isEqual(tokenDigest, digest(authorization.substring(BEARER_PREFIX.length()).trim()))) {
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                    "metrics-scraper", null, List.of(new SimpleGrantedAuthority("ROLE_" + SCRAPER_ROLE))));
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static byte[] digest(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.quardintel.product_api.security;
+
+import com.quardintel.product_api.cache.BoundedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Small cache of whether a user may still authenticate (exists, enabled, not locked or expired).
+ * Lets token authentication skip the database on the request hot path; entries are refreshed after a
+ * short TTL and must be invalidated explicitly whenever an account's state changes.
+ */
+@Component
+public class UserStateCache {
+
+    private final UserDetailsService userDetailsService;
+    private final BoundedCache states;
+
+    public UserStateCache(UserDetailsService userDetailsService,
+                          @Value("${app.security.user-state-cache.size:10000}") long size,
+                          @Value("${app.security.user-state-cache.ttl:5m}") Duration ttl) {
+        this.userDetailsService = userDetailsService;
+        this.states = new BoundedCache("userStates", size, ttl, null, value -> 1);
+    }
+
+    /**
+     * Returns whether the user may authenticate, loading the account only on a cache miss.
+     *
+     * @param username Username
+     * @return True if the account exists and is enabled, unlocked and unexpired
+     */
+    public boolean isActive(String username) {
+        return states.get(username, () -> load(username));
+    }
+
+    /**
+     * Drops the cached state of a user; call after changing the account.
+     *
+     * @param username Username
+     */
+    public void invalidate(String username) {
+        states.evict(username);
+    }
+
+    private boolean load(String username) {
+        try {
+            UserDetails user = userDetailsService.loadUserByUsername(username);
+            return user.isEnabled() && user.isAccountNonLocked() && user.isAccountNonExpired()
+                    && user.isCredentialsNonExpired();
+        } catch (UsernameNotFoundException e) {
+            return false;
+        }
+    }
+}
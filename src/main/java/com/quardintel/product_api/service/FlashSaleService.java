@@ -0,0 +1,356 @@
+package com.quardintel.product_api.service;
+
+import com.quardintel.product_api.dto.FlashSaleStatus;
+import com.quardintel.product_api.event.ProductChangedEvent;
+import com.quardintel.product_api.exception.ResourceNotFoundException;
+import com.quardintel.product_api.metrics.Histogram;
+import com.quardintel.product_api.metrics.InventoryMetrics;
+import com.quardintel.product_api.metrics.MetricsRegistry;
+import com.quardintel.product_api.model.FlashSaleCheckpoint;
+import com.quardintel.product_api.model.Product;
+import com.quardintel.product_api.repository.FlashSaleCheckpointRepository;
+import com.quardintel.product_api.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flash-sale mode: stock of selected products is sold from in-memory counters instead of the product row.
+ * <p>
+ * A sale takes units from the product's counter and is appended to a local {@link StockJournal} before it is
+ * acknowledged, so it costs no database round-trip. Journaled sales are applied to {@code Product.quantity} on
+ * a schedule, coalesced to one update per product, together with a checkpoint of the last applied journal
+ * record. At startup the journal is replayed past that checkpoint, so no acknowledged sale is lost or applied
+ * twice after a crash. A failed journal write stops flash sales until the next flush applies what was
+ * acknowledged and starts a new journal.
+ * <p>
+ * The mode is switched per product at runtime. Switching it on loads the counter from the locked product row;
+ * switching it off waits for sales in progress and flushes before the database takes over again. While a
+ * product is in the mode, the stored quantity trails the counter by the sales since the last flush, and stock
+ * can only change through single-product sales.
+ */
+@Service
+public class FlashSaleService implements SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlashSaleService.class);
+
+    private final ProductRepository productRepository;
+    private final FlashSaleCheckpointRepository checkpointRepository;
+    private final ProductCacheService productCacheService;
+    private final InventoryMetrics inventoryMetrics;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Path journalDirectory;
+    private final Duration flushInterval;
+    private final List<Long> startupProducts;
+
+    private final Map<Long, FlashSaleStock> stocks = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flushExecutor;
+    private final Histogram flushTimer;
+    private volatile StockJournal journal; // Opened when the first product is switched on
+
+    public FlashSaleService(ProductRepository productRepository, FlashSaleCheckpointRepository checkpointRepository,
+                            ProductCacheService productCacheService, InventoryMetrics inventoryMetrics,
+                            ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+                            MetricsRegistry registry,
+                            @Value("${app.flash-sale.journal-dir:data/flash-sale}") String journalDirectory,
+                            @Value("${app.flash-sale.flush-interval:1s}") Duration flushInterval,
+                            @Value("${app.flash-sale.products:}") List<Long> startupProducts) {
+        this.productRepository = productRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.productCacheService = productCacheService;
+        this.inventoryMetrics = inventoryMetrics;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.journalDirectory = Path.of(journalDirectory);
+        this.flushInterval = flushInterval;
+        this.startupProducts = List.copyOf(startupProducts);
+        this.flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "flash-sale-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        registry.gauge("flash_sale_products", "Products in flash-sale mode", stocks::size);
+        registry.counterFunction("flash_sale_journal_syncs_total", "Flash-sale journal fsyncs, each covering a group of sales",
+                () -> journal == null ? 0 : journal.syncCount());
+        this.flushTimer = registry.timer("flash_sale_flush_seconds",
+                "Time taken to apply journaled flash sales to product stock");
+    }
+
+    // Runs before the web server starts, so the journal is replayed before any sale is taken
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            List<Path> segments = StockJournal.segments(journalDirectory);
+            if (!segments.isEmpty()) {
+                logger.info("Replaying {} flash-sale journal segments", segments.size());
+                apply(segments, Long.MAX_VALUE);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to replay the flash-sale journal in " + journalDirectory, e);
+        }
+        startupProducts.forEach(this::enable);
+        long intervalMillis = flushInterval.toMillis();
+        flushExecutor.scheduleWithFixedDelay(this::scheduledFlush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sells from the in-memory counter if the product is in flash-sale mode.
+     * The sale is on disk when this returns true.
+     *
+     * @param id       Product ID
+     * @param quantity Quantity to sell (positive)
+     * @return False if the product is not in flash-sale mode, in which case nothing was sold
+     * @throws IllegalArgumentException If the counter holds too little stock
+     */
+    public boolean sell(Long id, int quantity) {
+        FlashSaleStock stock = stocks.get(id);
+        if (stock == null) {
+            return false;
+        }
+        long stamp = stock.gate.readLock();
+        try {
+            if (stock.isClosed()) {
+                return false; // Switched off while waiting; the database is current again
+            }
+            if (!stock.tryTake(quantity)) {
+                inventoryMetrics.recordInsufficientStock();
+                throw new IllegalArgumentException("Insufficient stock for product ID: " + id);
+            }
+            try {
+                journal.append(id, quantity);
+            } catch (IOException e) {
+                stock.putBack(quantity);
+                throw new UncheckedIOException("Sale of product ID " + id + " could not be recorded", e);
+            }
+            return true;
+        } finally {
+            stock.gate.unlockRead(stamp);
+        }
+    }
+
+    public boolean isEnabled(Long id) {
+        return stocks.containsKey(id);
+    }
+
+    /**
+     * Puts a product into flash-sale mode, loading its counter from the stored quantity.
+     * Switching on a product that is already in the mode changes nothing.
+     *
+     * @param id Product ID
+     * @return The product's counter
+     * @throws ResourceNotFoundException If the product does not exist
+     */
+    public synchronized FlashSaleStatus enable(Long id) {
+        FlashSaleStock existing = stocks.get(id);
+        if (existing != null) {
+            return new FlashSaleStatus(id, existing.available());
+        }
+        openJournal();
+
+        FlashSaleStock stock = new FlashSaleStock();
+        long stamp = stock.gate.writeLock();
+        try {
+            // Registered before the row is read: sales wait for the counter, and database sales that
+            // commit after the read see the mode and roll back. Reading the row bumps its version, so an
+            // update that checked the mode before this point fails its versioned write and retries
+            stocks.put(id, stock);
+            Integer quantity = transactionTemplate.execute(status -> productRepository.findLockedById(id)
+                    .map(Product::getQuantity)
+                    .orElse(null));
+            if (quantity == null) {
+                throw new ResourceNotFoundException("Product not found with ID: " + id);
+            }
+            stock.load(quantity);
+        } catch (RuntimeException e) {
+            stock.setClosed(true);
+            stocks.remove(id);
+            throw e;
+        } finally {
+            stock.gate.unlockWrite(stamp);
+        }
+        productCacheService.evictProduct(id); // Cached copies carry the old version
+        productCacheService.evictPagesContaining(id);
+        logger.info("Flash-sale mode on for product ID: {} with {} units", id, stock.available());
+        return new FlashSaleStatus(id, stock.available());
+    }
+
+    /**
+     * Takes a product out of flash-sale mode once its journaled sales are applied to the stored quantity.
+     *
+     * @param id Product ID
+     * @return False if the product was not in flash-sale mode
+     */
+    public synchronized boolean disable(Long id) {
+        FlashSaleStock stock = stocks.get(id);
+        if (stock == null) {
+            return false;
+        }
+        long stamp = stock.gate.writeLock(); // Waits for sales in progress
+        try {
+            stock.setClosed(true);
+            try {
+                flush(); // Also recovers from a failed journal
+            } catch (RuntimeException e) {
+                stock.setClosed(false); // The stored quantity is behind, so the counter stays in charge
+                throw e;
+            }
+            stocks.remove(id);
+        } finally {
+            stock.gate.unlockWrite(stamp);
+        }
+        logger.info("Flash-sale mode off for product ID: {}", id);
+        return true;
+    }
+
+    public List<FlashSaleStatus> status() {
+        List<FlashSaleStatus> status = new ArrayList<>(stocks.size());
+        stocks.forEach((id, stock) -> status.add(new FlashSaleStatus(id, stock.available())));
+        status.sort(Comparator.comparing(FlashSaleStatus::productId));
+        return status;
+    }
+
+    /**
+     * Applies every journaled sale to the stored stock.
+     * If the journal has failed, the sales it acknowledged are applied and a new journal is started.
+     */
+    public synchronized void flush() {
+        if (journal == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            if (journal.isFailed()) {
+                replaceFailedJournal();
+                return;
+            }
+            List<Path> closed = journal.roll();
+            if (!closed.isEmpty()) {
+                apply(closed, Long.MAX_VALUE);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to flush the flash-sale journal", e);
+        } finally {
+            flushTimer.recordSince(start);
+        }
+    }
+
+    // A failed flush leaves its segments in place; the next one applies them
+    private void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("Flash-sale flush failed", e);
+        }
+    }
+
+    /**
+     * Sales that failed to journal were put back on their counters, so only the records the failed journal
+     * acknowledged are applied. Its segments are deleted with them, dropping any unacknowledged bytes, and
+     * numbering continues after every sequence it handed out.
+     */
+    private void replaceFailedJournal() throws IOException {
+        StockJournal failed = journal;
+        try {
+            failed.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close the failed flash-sale journal", e);
+        }
+        apply(StockJournal.segments(journalDirectory), failed.durableSequence());
+        journal = new StockJournal(journalDirectory, failed.lastSequence());
+        logger.info("Replaced the failed flash-sale journal; sales resume at sequence {}", failed.lastSequence() + 1);
+    }
+
+    /**
+     * Applies the sales in closed segments past the checkpoint, one stock update per product in ascending ID
+     * order, and moves the checkpoint in the same transaction. The segments are deleted once that commits.
+     *
+     * @param upTo Highest sequence number to apply; later records are discarded with their segments
+     */
+    private void apply(List<Path> segments, long upTo) throws IOException {
+        List<StockJournal.Entry> entries = new ArrayList<>();
+        for (Path segment : segments) {
+            for (StockJournal.Entry entry : StockJournal.read(segment)) {
+                if (entry.sequence() <= upTo) {
+                    entries.add(entry);
+                }
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            long applied = checkpointRepository.findById(FlashSaleCheckpoint.ID)
+                    .map(FlashSaleCheckpoint::getAppliedSequence)
+                    .orElse(0L);
+            long last = applied;
+            Map<Long, Integer> sold = new TreeMap<>();
+            for (StockJournal.Entry entry : entries) {
+                if (entry.sequence() > applied) {
+                    sold.merge(entry.productId(), entry.quantity(), Integer::sum);
+                    last = Math.max(last, entry.sequence());
+                }
+            }
+            sold.forEach((id, quantity) -> {
+                if (productRepository.applyStockSold(id, quantity) == 0) {
+                    logger.warn("Dropping {} journaled units sold of missing product ID: {}", quantity, id);
+                    return;
+                }
+                productCacheService.evictProduct(id);
+                productCacheService.evictPagesContaining(id);
+                eventPublisher.publishEvent(ProductChangedEvent.stockChanged(id, -quantity,
+                        productRepository.findStockLevelById(id)));
+            });
+            checkpointRepository.save(new FlashSaleCheckpoint(FlashSaleCheckpoint.ID, last));
+        });
+        for (Path segment : segments) {
+            Files.delete(segment);
+        }
+    }
+
+    private void openJournal() {
+        if (journal != null) {
+            if (journal.isFailed()) {
+                flush(); // Replaces it, so that the new product's sales can be journaled
+            }
+            return;
+        }
+        long applied = checkpointRepository.findById(FlashSaleCheckpoint.ID)
+                .map(FlashSaleCheckpoint::getAppliedSequence)
+                .orElse(0L);
+        try {
+            journal = new StockJournal(journalDirectory, applied);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open the flash-sale journal in " + journalDirectory, e);
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        flushExecutor.shutdownNow();
+        synchronized (this) {
+            if (journal != null) {
+                journal.close(); // Sales not flushed yet are replayed at the next start
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.quardintel.product_api.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Stock of one product in flash-sale mode.
+ * <p>
+ * Units are taken with a compare-and-set loop that never lets the count go below zero, so concurrent sales
+ * cannot oversell and no sale waits for another. Sales hold the read side of {@link #gate} while they take
+ * stock and journal it; switching the mode takes the write side, which waits for sales in progress and holds
+ * off new ones until the switch is done.
+ */
+final class FlashSaleStock {
+
+    final StampedLock gate = new StampedLock();
+
+    private final AtomicInteger available = new AtomicInteger();
+    private volatile boolean closed;
+
+    /**
+     * Takes units if enough are left.
+     *
+     * @return False if fewer than {@code quantity} units are left
+     */
+    boolean tryTake(int quantity) {
+        while (true) {
+            int current = available.get();
+            if (current < quantity) {
+                return false;
+            }
+            if (available.compareAndSet(current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+
+    void putBack(int quantity) {
+        available.addAndGet(quantity);
+    }
+
+    int available() {
+        return available.get();
+    }
+
+    void load(int quantity) {
+        available.set(quantity);
+    }
+
+    /**
+     * Whether the mode was switched off while a sale waited; the sale then goes through the database.
+     */
+    boolean isClosed() {
+        return closed;
+    }
+
+    void setClosed(boolean closed) {
+        this.closed = closed;
+    }
+}
@@ -0,0 +1,154 @@
+package com.quardintel.product_api.service;
+
+import com.quardintel.product_api.cache.BoundedCache;
+import com.quardintel.product_api.dto.ProductPageRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Targeted invalidation of the product caches.
+ * <p>
+ * Single products are evicted by ID, together with their pre-serialized JSON. Pages are keyed by a list version: writes that can change which products
+ * a page holds (adds, renames, price changes) bump the version so that every page is rebuilt lazily on its next
+ * read, while writes that only change a product's contents evict just the pages that contain it. Those pages
+ * are looked up in the page cache's index from product ID to page keys, so the cost of an eviction depends on
+ * how many cached pages hold the product, not on the size of the cache.
+ * All invalidation runs after the surrounding transaction commits, so readers cannot re-cache pre-commit state.
+ * <p>
+ * Every invalidation also advances a catalog version, which tags list responses for conditional GETs. The
+ * version moves once per transaction, after all of its evictions have run, so a response tagged with the new
+ * version cannot have been built from an entry the transaction was still about to evict.
+ */
+@Service
+public class ProductCacheService {
+
+    public static final String PRODUCTS_CACHE = "products";
+    public static final String PRODUCT_PAGES_CACHE = "productPages";
+    public static final String PRODUCT_JSON_CACHE = "productJson";
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductCacheService.class);
+
+    private final CacheManager cacheManager;
+    private final AtomicLong listVersion = new AtomicLong();
+    private final AtomicLong catalogVersion = new AtomicLong();
+
+    // Distinguishes catalog versions of this process from those handed out before a restart
+    private final String catalogEpoch = Long.toString(System.currentTimeMillis(), 36);
+
+    public ProductCacheService(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Cache key of a page: the request stamped with the current list version.
+     *
+     * @param request Page request
+     * @return Version-stamped key
+     */
+    public PageKey pageKey(ProductPageRequest request) {
+        return new PageKey(listVersion.get(), request);
+    }
+
+    /**
+     * Entity tag of the catalog as a whole; changes after every committed product write.
+     * Read it before building a list response, so that a write racing with the read moves the tag past it.
+     *
+     * @return Unquoted entity tag
+     */
+    public String catalogETag() {
+        return catalogEpoch + "-" + catalogVersion.get();
+    }
+
+    /**
+     * Evicts the cached entries of a single product.
+     *
+     * @param id Product ID
+     */
+    public void evictProduct(Long id) {
+        afterCommit(() -> {
+            cache(PRODUCTS_CACHE).evict(id);
+            Cache json = cacheManager.getCache(PRODUCT_JSON_CACHE);
+            if (json != null) {
+                json.evict(id);
+            }
+        });
+    }
+
+    /**
+     * Evicts the cached pages that contain the given product.
+     *
+     * @param id Product ID
+     */
+    public void evictPagesContaining(Long id) {
+        afterCommit(() -> {
+            Cache pages = cache(PRODUCT_PAGES_CACHE);
+            if (pages.getNativeCache() instanceof BoundedCache boundedCache) {
+                int evicted = boundedCache.invalidateTagged(id); // Pages are tagged with their product IDs
+                logger.debug("Evicted {} cached pages containing product ID: {}", evicted, id);
+            } else {
+                pages.clear();
+            }
+        });
+    }
+
+    /**
+     * Invalidates every cached page by moving to a new list version; stale pages age out of the cache.
+     */
+    public void invalidatePages() {
+        afterCommit(() -> logger.debug("Product list version is now {}", listVersion.incrementAndGet()));
+    }
+
+    private Cache cache(String name) {
+        return Objects.requireNonNull(cacheManager.getCache(name), "Cache not configured: " + name);
+    }
+
+    // Collects the transaction's invalidations into one synchronization that advances the catalog version last
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            catalogVersion.incrementAndGet();
+            return;
+        }
+        PendingInvalidations pending = (PendingInvalidations) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingInvalidations();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.actions.add(action);
+    }
+
+    private final class PendingInvalidations implements TransactionSynchronization {
+        private final List<Runnable> actions = new ArrayList<>();
+
+        @Override
+        public void afterCommit() {
+            actions.forEach(Runnable::run);
+            catalogVersion.incrementAndGet();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ProductCacheService.this);
+        }
+    }
+
+    /**
+     * Cache key of a page.
+     *
+     * @param listVersion List version the page was built under
+     * @param request     Page request
+     */
+    public record PageKey(long listVersion, ProductPageRequest request) {
+    }
+}
@@ -0,0 +1,322 @@
+package com.quardintel.product_api.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quardintel.product_api.dto.ProductChangeEntry;
+import com.quardintel.product_api.dto.ProductChangePage;
+import com.quardintel.product_api.dto.ProductView;
+import com.quardintel.product_api.event.ProductChangedEvent;
+import com.quardintel.product_api.event.ProductSnapshot;
+import com.quardintel.product_api.event.ProductsImportedEvent;
+import com.quardintel.product_api.exception.SyncTokenExpiredException;
+import com.quardintel.product_api.model.ProductChange;
+import com.quardintel.product_api.repository.ProductChangeRepository;
+import com.quardintel.product_api.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Catalog change log for incremental sync.
+ * <p>
+ * Every product write appends an entry in its own transaction, so the log holds exactly the committed changes,
+ * deletions included. Clients keep the sequence number of the last entry they applied and ask for what
+ * follows it; a delta carries each changed product once, with its current state or a tombstone.
+ * <p>
+ * Sequence numbers are assigned at insert but become visible at commit, so a transaction that commits late can
+ * leave a temporary hole behind later entries. Reads stop at a hole until it is filled or older than
+ * {@link #GAP_GRACE}, after which it is taken to be a rolled-back write; this keeps clients from skipping
+ * past a change that has yet to commit.
+ * <p>
+ * An import records each run of consecutive new product IDs as one entry, so a large import adds a handful of
+ * rows rather than one per product. Entries older than {@code app.changes.retention} are pruned, the newest
+ * one excepted; a token from before the oldest kept entry is answered with {@link SyncTokenExpiredException},
+ * telling the client to reload the catalog and sync on from the token it carries.
+ */
+@Service
+public class ProductChangeService implements SmartInitializingSingleton, DisposableBean {
+
+    public static final int MAX_PAGE_SIZE = 1_000;
+    static final Duration GAP_GRACE = Duration.ofSeconds(10);
+    static final int PRUNE_BATCH_SIZE = 10_000;
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductChangeService.class);
+
+    private final ProductChangeRepository productChangeRepository;
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final Duration pruneInterval;
+    private final ScheduledExecutorService pruneExecutor;
+
+    public ProductChangeService(ProductChangeRepository productChangeRepository, ProductRepository productRepository,
+                                ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                                @Value("${app.changes.retention:7d}") Duration retention,
+                                @Value("${app.changes.prune-interval:1h}") Duration pruneInterval) {
+        this.productChangeRepository = productChangeRepository;
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retention = retention;
+        this.pruneInterval = pruneInterval;
+        this.pruneExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-change-prune");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long intervalMillis = pruneInterval.toMillis();
+        pruneExecutor.scheduleWithFixedDelay(this::scheduledPrune, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        productChangeRepository.save(new ProductChange(event.productId(), event.type(), Instant.now()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onProductsImported(ProductsImportedEvent event) {
+        Instant now = Instant.now();
+        productChangeRepository.saveAll(importRuns(
+                event.products().stream().mapToLong(ProductSnapshot::id).sorted().toArray(), now));
+    }
+
+    /**
+     * Groups sorted product IDs into runs of consecutive IDs, one entry each. Runs are cut at
+     * {@link #MAX_PAGE_SIZE} products so that a single entry always fits on a page.
+     */
+    static List<ProductChange> importRuns(long[] ids, Instant recordedAt) {
+        List<ProductChange> runs = new ArrayList<>();
+        int start = 0;
+        for (int i = 1; i <= ids.length; i++) {
+            if (i == ids.length || ids[i] != ids[i - 1] + 1 || i - start == MAX_PAGE_SIZE) {
+                runs.add(new ProductChange(ids[start], ids[i - 1], ProductChangedEvent.Type.ADDED, recordedAt));
+                start = i;
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Retrieves the changes made after a sync token.
+     *
+     * @param since Token from the previous page, or "0" for the whole log
+     * @param limit Maximum number of log entries to read, counting every product of an import entry; the first
+     *              entry is always read
+     * @return Changed products and the token to continue from
+     * @throws SyncTokenExpiredException If changes after the token have been pruned
+     */
+    @Transactional(readOnly = true)
+    public ProductChangePage getChanges(String since, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        long after = parseToken(since);
+        requireRetained(after);
+        logger.info("Fetching product changes after sequence {}", after);
+
+        // Fetch one extra entry to find out whether another page follows
+        List<ProductChange> visible = visibleChanges(after,
+                productChangeRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit + 1)), Instant.now());
+        int count = 0;
+        long products = 0;
+        for (ProductChange change : visible) {
+            products += change.getLastProductId() - change.getProductId() + 1;
+            if (count == limit || (count > 0 && products > limit)) {
+                break;
+            }
+            count++;
+        }
+        boolean hasMore = count < visible.size();
+        visible = visible.subList(0, count);
+        long next = visible.isEmpty() ? after : visible.get(visible.size() - 1).getId();
+        return new ProductChangePage(toEntries(visible), Long.toString(next), hasMore);
+    }
+
+    /**
+     * Checks a sync token before a response is started for it.
+     *
+     * @param since Sync token
+     * @throws IllegalArgumentException  If the token is malformed
+     * @throws SyncTokenExpiredException If changes after the token have been pruned
+     */
+    @Transactional(readOnly = true)
+    public void checkToken(String since) {
+        requireRetained(parseToken(since));
+    }
+
+    /**
+     * Streams every change after a sync token as newline-delimited JSON, one {@link ProductChangeEntry} per line.
+     * The log is read in pages, so memory use does not grow with the size of the gap; the sequence of the last
+     * line is a valid token for the next sync.
+     *
+     * @param since Token from the previous sync, or "0" for the whole log
+     * @param out   Stream to write to (left open)
+     * @return Number of entries written
+     * @throws IOException If writing to the stream fails
+     */
+    public long streamChanges(String since, OutputStream out) throws IOException {
+        long count = 0;
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null); // Lines are terminated explicitly below
+        try {
+            String token = Long.toString(parseToken(since));
+            ProductChangePage page;
+            do {
+                page = getChanges(token, MAX_PAGE_SIZE);
+                for (ProductChangeEntry entry : page.changes()) {
+                    objectMapper.writeValue(generator, entry);
+                    generator.writeRaw('\n');
+                    count++;
+                }
+                generator.flush();
+                token = page.nextToken();
+            } while (page.hasMore());
+        } finally {
+            generator.close();
+        }
+        return count;
+    }
+
+    /**
+     * Deletes the entries recorded before the retention period, a bounded range per transaction. The newest entry
+     * is kept even when it is that old, so that the oldest kept sequence still tells which tokens are too old.
+     *
+     * @return Number of entries deleted
+     */
+    long prune() {
+        Long first = productChangeRepository.findFirstId();
+        Long expired = productChangeRepository.findLastIdRecordedBefore(Instant.now().minus(retention));
+        if (first == null || expired == null) {
+            return 0;
+        }
+        long upTo = Math.min(expired, productChangeRepository.findLastId() - 1);
+        long deleted = 0;
+        for (long after = first - 1; after < upTo; after += PRUNE_BATCH_SIZE) {
+            long from = after;
+            long to = Math.min(after + PRUNE_BATCH_SIZE, upTo);
+            deleted += transactionTemplate.execute(status -> productChangeRepository.deleteByIdRange(from, to));
+        }
+        if (deleted > 0) {
+            logger.info("Pruned {} change log entries up to sequence {}", deleted, upTo);
+        }
+        return deleted;
+    }
+
+    private void scheduledPrune() {
+        try {
+            prune();
+        } catch (RuntimeException e) {
+            logger.error("Change log pruning failed", e);
+        }
+    }
+
+    /**
+     * Rejects a token from before the oldest kept entry. The client is handed the newest sequence past the gap
+     * grace period instead: every change up to it has committed, so a catalog reload started afterwards reflects
+     * them, and syncing from it replays at most changes the reload already saw.
+     */
+    private void requireRetained(long after) {
+        Long first = productChangeRepository.findFirstId();
+        if (first == null || after >= first - 1) {
+            return;
+        }
+        Long settled = productChangeRepository.findLastIdRecordedBefore(Instant.now().minus(GAP_GRACE));
+        long resync = settled == null ? first - 1 : Math.max(settled, first - 1);
+        throw new SyncTokenExpiredException(Long.toString(resync));
+    }
+
+    /**
+     * Returns the leading run of entries that can safely be handed out: it ends before the first hole in the
+     * sequence that is younger than {@link #GAP_GRACE}, since the missing entry may still be committed.
+     */
+    static List<ProductChange> visibleChanges(long after, List<ProductChange> changes, Instant now) {
+        Instant settled = now.minus(GAP_GRACE);
+        List<ProductChange> visible = new ArrayList<>(changes.size());
+        long expected = after + 1;
+        for (ProductChange change : changes) {
+            if (change.getId() != expected && change.getRecordedAt().isAfter(settled)) {
+                break;
+            }
+            visible.add(change);
+            expected = change.getId() + 1;
+        }
+        return visible;
+    }
+
+    // Keeps the latest entry per product, with the product's current state for everything but deletions
+    private List<ProductChangeEntry> toEntries(List<ProductChange> changes) {
+        Map<Long, ProductChange> latest = new LinkedHashMap<>();
+        for (ProductChange change : changes) {
+            for (long productId = change.getProductId(); productId <= change.getLastProductId(); productId++) {
+                latest.remove(productId); // Re-inserted so that the map stays in sequence order
+                latest.put(productId, change);
+            }
+        }
+        List<Long> upserted = latest.entrySet().stream()
+                .filter(entry -> entry.getValue().getType() != ProductChangedEvent.Type.DELETED)
+                .map(Map.Entry::getKey)
+                .toList();
+        Map<Long, ProductView> products = upserted.isEmpty() ? Map.of() : productRepository.findViewsByIdIn(upserted)
+                .stream().collect(Collectors.toMap(ProductView::id, Function.identity()));
+
+        List<ProductChangeEntry> entries = new ArrayList<>(latest.size());
+        for (Map.Entry<Long, ProductChange> entry : latest.entrySet()) {
+            ProductChange change = entry.getValue();
+            if (change.getType() == ProductChangedEvent.Type.DELETED) {
+                entries.add(new ProductChangeEntry(change.getId(), entry.getKey(), change.getType(), null));
+                continue;
+            }
+            ProductView product = products.get(entry.getKey());
+            if (product != null) { // Otherwise deleted since; its tombstone follows later in the log
+                entries.add(new ProductChangeEntry(change.getId(), entry.getKey(), change.getType(), product));
+            }
+        }
+        return entries;
+    }
+
+    private static long parseToken(String since) {
+        try {
+            long token = Long.parseLong(since);
+            if (token >= 0) {
+                return token;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to the error below
+        }
+        throw new IllegalArgumentException("Invalid sync token.");
+    }
+
+    @Override
+    public void destroy() {
+        pruneExecutor.shutdownNow();
+    }
+}
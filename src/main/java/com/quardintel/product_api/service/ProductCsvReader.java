@@ -0,0 +1,165 @@
+package com.quardintel.product_api.service;
+
+import com.quardintel.product_api.model.Category;
+import com.quardintel.product_api.model.Product;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Reads products from CSV one line at a time.
+ * <p>
+ * The first line is a header naming the columns {@code name, description, price, quantity} and optionally
+ * {@code categories}, in any order. Categories are given by name, separated by {@code |}. Fields may be quoted
+ * with double quotes (a doubled quote inside a quoted field is a literal quote); quoted fields cannot span lines.
+ */
+class ProductCsvReader implements Iterator<ProductImportRow> {
+
+    private static final String CATEGORY_SEPARATOR = "\\|";
+
+    private final BufferedReader reader;
+    private final int nameColumn;
+    private final int descriptionColumn;
+    private final int priceColumn;
+    private final int quantityColumn;
+    private final int categoriesColumn;
+    private long rowNumber;
+    private String nextLine;
+
+    ProductCsvReader(BufferedReader reader) throws IOException {
+        this.reader = reader;
+        String header = reader.readLine();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV input is empty.");
+        }
+        List<String> columns = parseLine(header.startsWith("\uFEFF") ? header.substring(1) : header)
+                .stream().map(column -> column.trim().toLowerCase()).toList();
+        this.nameColumn = requiredColumn(columns, "name");
+        this.descriptionColumn = requiredColumn(columns, "description");
+        this.priceColumn = requiredColumn(columns, "price");
+        this.quantityColumn = requiredColumn(columns, "quantity");
+        this.categoriesColumn = columns.indexOf("categories");
+        this.nextLine = readNonBlankLine();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextLine != null;
+    }
+
+    @Override
+    public ProductImportRow next() {
+        if (nextLine == null) {
+            throw new NoSuchElementException();
+        }
+        String line = nextLine;
+        long row = ++rowNumber;
+        try {
+            nextLine = readNonBlankLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return toRow(row, line);
+    }
+
+    private ProductImportRow toRow(long row, String line) {
+        List<String> fields;
+        try {
+            fields = parseLine(line);
+        } catch (IllegalArgumentException e) {
+            return ProductImportRow.invalid(row, e.getMessage());
+        }
+
+        Product product = new Product();
+        product.setName(field(fields, nameColumn));
+        product.setDescription(field(fields, descriptionColumn));
+        try {
+            String price = field(fields, priceColumn);
+            product.setPrice(price == null ? null : Double.valueOf(price));
+            String quantity = field(fields, quantityColumn);
+            product.setQuantity(quantity == null ? null : Integer.valueOf(quantity));
+        } catch (NumberFormatException e) {
+            return ProductImportRow.invalid(row, "Price and quantity must be numbers.");
+        }
+
+        Set<Category> categories = new HashSet<>();
+        String categoryNames = field(fields, categoriesColumn);
+        if (categoryNames != null) {
+            for (String name : categoryNames.split(CATEGORY_SEPARATOR)) {
+                if (!name.isBlank()) {
+                    Category category = new Category();
+                    category.setName(name.trim());
+                    categories.add(category);
+                }
+            }
+        }
+        product.setCategories(categories);
+        return ProductImportRow.of(row, product);
+    }
+
+    private String readNonBlankLine() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.isBlank()) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    private static int requiredColumn(List<String> columns, String name) {
+        int index = columns.indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException("CSV header is missing the '" + name + "' column.");
+        }
+        return index;
+    }
+
+    private static String field(List<String> fields, int column) {
+        if (column < 0 || column >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(column).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field.");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,21 @@
+package com.quardintel.product_api.service;
+
+import com.quardintel.product_api.model.Product;
+
+/**
+ * One row of a bulk import: either a parsed product or the reason it could not be parsed.
+ *
+ * @param rowNumber 1-based position of the row in the input (excluding any header)
+ * @param product   Parsed product, or null if parsing failed
+ * @param error     Parse error, or null if parsing succeeded
+ */
+record ProductImportRow(long rowNumber, Product product, String error) {
+
+    static ProductImportRow of(long rowNumber, Product product) {
+        return new ProductImportRow(rowNumber, product, null);
+    }
+
+    static ProductImportRow invalid(long rowNumber, String error) {
+        return new ProductImportRow(rowNumber, null, error);
+    }
+}
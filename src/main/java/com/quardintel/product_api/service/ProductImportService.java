@@ -0,0 +1,268 @@
+package com.quardintel.product_api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.quardintel.product_api.dto.ProductImportResult;
+import com.quardintel.product_api.event.ProductSnapshot;
+import com.quardintel.product_api.event.ProductsImportedEvent;
+import com.quardintel.product_api.model.Category;
+import com.quardintel.product_api.model.Product;
+import com.quardintel.product_api.repository.CategoryRepository;
+import com.quardintel.product_api.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk product import.
+ * Rows are read lazily, validated and resolved in chunks, inserted with JDBC batching and the persistence
+ * context is flushed and cleared after every chunk, so no entities accumulate over the import. What is retained
+ * until commit grows with the number of imported rows: every name seen (to reject duplicates across chunks) and
+ * each chunk's {@link ProductsImportedEvent}, held for the after-commit listeners.
+ * <p>
+ * Names are compared case-insensitively, as the unique name column is under the default MySQL collation, so a
+ * name differing only in case is rejected as a row rather than failing the whole import at flush.
+ */
+@Service
+public class ProductImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final ProductCacheService productCacheService;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    public ProductImportService(ProductRepository productRepository,
+                                CategoryRepository categoryRepository,
+                                ProductCacheService productCacheService,
+                                EntityManager entityManager,
+                                ObjectMapper objectMapper,
+                                Validator validator,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${app.import.chunk-size:500}") int chunkSize) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.productCacheService = productCacheService;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports products from a JSON array.
+     * Categories may be referenced by ID or by name. Elements that do not map to a product are skipped and
+     * reported like invalid CSV rows; input that is not a well-formed JSON array fails the whole import.
+     *
+     * @param json JSON array of products
+     * @return Import report
+     * @throws IOException If the input cannot be read; nothing is imported then
+     */
+    @Transactional(rollbackFor = IOException.class)
+    public ProductImportResult importJson(InputStream json) throws IOException {
+        try (MappingIterator<JsonNode> nodes = objectMapper.readerFor(JsonNode.class).readValues(json)) {
+            Iterator<ProductImportRow> rows = new Iterator<>() {
+                private long rowNumber;
+
+                @Override
+                public boolean hasNext() {
+                    return nodes.hasNext();
+                }
+
+                @Override
+                public ProductImportRow next() {
+                    return toRow(++rowNumber, nodes.next());
+                }
+            };
+            return importRows(rows);
+        } catch (RuntimeJsonMappingException | JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid product JSON: " + e.getMessage());
+        }
+    }
+
+    // Maps one array element; a mismatch (e.g. text where a number belongs) only rejects that row
+    private ProductImportRow toRow(long rowNumber, JsonNode node) {
+        try {
+            return ProductImportRow.of(rowNumber, objectMapper.treeToValue(node, Product.class));
+        } catch (JsonProcessingException e) {
+            return ProductImportRow.invalid(rowNumber, "Invalid product: " + e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Imports products from CSV (see {@link ProductCsvReader} for the format).
+     *
+     * @param csv UTF-8 encoded CSV with a header line
+     * @return Import report
+     * @throws IOException If the input cannot be read; nothing is imported then
+     */
+    @Transactional(rollbackFor = IOException.class)
+    public ProductImportResult importCsv(InputStream csv) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            return importRows(new ProductCsvReader(reader));
+        }
+    }
+
+    private ProductImportResult importRows(Iterator<ProductImportRow> rows) {
+        long start = System.nanoTime();
+        ImportProgress progress = new ImportProgress();
+        List<ProductImportRow> chunk = new ArrayList<>(chunkSize);
+
+        while (rows.hasNext()) {
+            chunk.add(rows.next());
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, progress);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, progress);
+        }
+
+        if (progress.imported > 0) {
+            productCacheService.invalidatePages();
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        double rowsPerSecond = elapsedNanos == 0 ? 0 : progress.imported * 1_000_000_000.0 / elapsedNanos;
+        logger.info("Imported {} of {} products in {} ms ({} rows/s)", progress.imported, progress.received,
+                elapsedNanos / 1_000_000, Math.round(rowsPerSecond));
+        return new ProductImportResult(progress.received, progress.imported, progress.rejected, progress.errors,
+                elapsedNanos / 1_000_000, rowsPerSecond);
+    }
+
+    private void importChunk(List<ProductImportRow> chunk, ImportProgress progress) {
+        progress.received += chunk.size();
+
+        // Validate and drop duplicate names, both within the import and against existing products
+        List<ProductImportRow> valid = new ArrayList<>(chunk.size());
+        for (ProductImportRow row : chunk) {
+            if (row.error() != null) {
+                progress.reject(row, row.error());
+                continue;
+            }
+            Set<ConstraintViolation<Product>> violations = validator.validate(row.product());
+            if (!violations.isEmpty()) {
+                progress.reject(row, violations.iterator().next().getMessage());
+            } else if (!progress.names.add(normalizeName(row.product().getName()))) {
+                progress.reject(row, "Duplicate product name in import: " + row.product().getName());
+            } else {
+                valid.add(row);
+            }
+        }
+        Set<String> existingNames = valid.isEmpty() ? Set.of() : productRepository.findExistingNames(
+                        valid.stream().map(row -> row.product().getName()).toList())
+                .stream().map(ProductImportService::normalizeName).collect(Collectors.toSet());
+
+        // Resolve every category referenced by the chunk with one query by ID and one by name
+        Set<Long> categoryIds = new HashSet<>();
+        Set<String> categoryNames = new HashSet<>();
+        for (ProductImportRow row : valid) {
+            for (Category category : categoriesOf(row.product())) {
+                if (category.getId() != null) {
+                    categoryIds.add(category.getId());
+                } else if (category.getName() != null) {
+                    categoryNames.add(category.getName());
+                }
+            }
+        }
+        Map<Long, Category> categoriesById = categoryIds.isEmpty() ? Map.of() : categoryRepository.findAllById(categoryIds)
+                .stream().collect(Collectors.toMap(Category::getId, Function.identity()));
+        Map<String, Category> categoriesByName = categoryNames.isEmpty() ? Map.of() : categoryRepository.findByNameIn(categoryNames)
+                .stream().collect(Collectors.toMap(Category::getName, Function.identity()));
+
+        List<ProductSnapshot> imported = new ArrayList<>(valid.size());
+        for (ProductImportRow row : valid) {
+            Product product = row.product();
+            if (existingNames.contains(normalizeName(product.getName()))) {
+                progress.reject(row, "Product already exists: " + product.getName());
+                continue;
+            }
+            Set<Category> resolved = resolveCategories(product, categoriesById, categoriesByName);
+            if (resolved == null) {
+                progress.reject(row, "Unknown category for product: " + product.getName());
+                continue;
+            }
+            product.setId(null);
+            product.setVersion(null);
+            product.setCategories(resolved);
+            entityManager.persist(product);
+            imported.add(ProductSnapshot.of(product));
+            progress.imported++;
+        }
+        if (!imported.isEmpty()) {
+            eventPublisher.publishEvent(new ProductsImportedEvent(imported));
+        }
+
+        // Send the batched inserts and release the chunk's entities
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Set<Category> resolveCategories(Product product, Map<Long, Category> byId, Map<String, Category> byName) {
+        Set<Category> resolved = new HashSet<>();
+        for (Category category : categoriesOf(product)) {
+            Category match = category.getId() != null ? byId.get(category.getId()) : byName.get(category.getName());
+            if (match == null) {
+                return null;
+            }
+            resolved.add(match);
+        }
+        return resolved;
+    }
+
+    private static String normalizeName(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<Category> categoriesOf(Product product) {
+        return product.getCategories() == null ? Set.of() : product.getCategories();
+    }
+
+    private static final class ImportProgress {
+        private final Set<String> names = new HashSet<>();
+        private final List<String> errors = new ArrayList<>();
+        private long received;
+        private long imported;
+        private long rejected;
+
+        private void reject(ProductImportRow row, String reason) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("Row " + row.rowNumber() + ": " + reason);
+            }
+        }
+    }
+}
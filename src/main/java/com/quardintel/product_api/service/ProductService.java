@@ -1,28 +1,92 @@
 package com.quardintel.product_api.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.quardintel.product_api.dto.CategoryView;
+import com.quardintel.product_api.dto.EncodedProduct;
+import com.quardintel.product_api.dto.ProductPage;
+import com.quardintel.product_api.dto.ProductPageRequest;
+import com.quardintel.product_api.dto.ProductSortKey;
+import com.quardintel.product_api.dto.SellLineResult;
+import com.quardintel.product_api.dto.SellOrderLine;
+import com.quardintel.product_api.dto.ProductView;
+import com.quardintel.product_api.event.ProductChangedEvent;
+import com.quardintel.product_api.event.ProductSnapshot;
+import com.quardintel.product_api.event.StockLevel;
+import com.quardintel.product_api.index.CategoryBitmapIndex;
+import com.quardintel.product_api.index.CompressedBitmap;
+import com.quardintel.product_api.index.ProductRangeIndex;
+import com.quardintel.product_api.index.RangeCursor;
+import com.quardintel.product_api.model.Category;
 import com.quardintel.product_api.model.Product;
+import com.quardintel.product_api.repository.ProductCursor;
 import com.quardintel.product_api.repository.ProductRepository;
+import com.quardintel.product_api.exception.FlashSaleActiveException;
+import com.quardintel.product_api.exception.ProductVersionConflictException;
 import com.quardintel.product_api.exception.ResourceNotFoundException;
+import com.quardintel.product_api.metrics.InventoryMetrics;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ProductService {
 
+    private static final int EXPORT_FLUSH_INTERVAL = 100; // Rows written between explicit flushes of the export stream
+    private static final int MAX_CATEGORY_ID_LIST = 1_000; // Larger category matches are filtered in SQL unless walked by ID
+    private static final int MAX_CATEGORY_ID_WALK_ROUNDS = 4; // Queries per page before an ID-sorted category walk falls back to SQL
+    private static final int MAX_UPDATE_ATTEMPTS = 3; // Attempts of an update that may be retried after a concurrent write
+
     private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final ProductCacheService productCacheService;
+    private final InventoryMetrics inventoryMetrics;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CategoryBitmapIndex categoryIndex;
+    private final ProductRangeIndex rangeIndex;
+    private final FlashSaleService flashSaleService;
+    private final TransactionTemplate transactionTemplate;
     private static final Logger logger = LoggerFactory.getLogger(ProductService.class); // Logger instance
 
     @Autowired
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, ObjectMapper objectMapper,
+                          ProductCacheService productCacheService, InventoryMetrics inventoryMetrics,
+                          ApplicationEventPublisher eventPublisher, CategoryBitmapIndex categoryIndex,
+                          ProductRangeIndex rangeIndex, FlashSaleService flashSaleService,
+                          PlatformTransactionManager transactionManager) {
         this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.productCacheService = productCacheService;
+        this.inventoryMetrics = inventoryMetrics;
+        this.eventPublisher = eventPublisher;
+        this.categoryIndex = categoryIndex;
+        this.rangeIndex = rangeIndex;
+        this.flashSaleService = flashSaleService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
@@ -32,27 +96,235 @@ public class ProductService {
      * @param id The ID of the product
      * @return Product object
      */
-    @Cacheable(value = "products", key = "#id")
-    public Product getProduct(Long id) {
+    @Cacheable(value = "products", key = "#id", sync = true)
+    @Transactional(readOnly = true)
+    public ProductView getProduct(Long id) {
         logger.info("Fetching product with ID: {}", id);
-        return productRepository.findById(id)
+        return productRepository.findViewById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + id));
+    }
+
+    /**
+     * Retrieves a product as its encoded JSON response body.
+     * The bytes and their hash are cached, so hot products are served without serializing them again;
+     * the entry is evicted together with the product's entry in the products cache.
+     *
+     * @param id The ID of the product
+     * @return Encoded product
+     */
+    @Cacheable(value = ProductCacheService.PRODUCT_JSON_CACHE, key = "#id", sync = true)
+    @Transactional(readOnly = true)
+    public EncodedProduct getEncodedProduct(Long id) {
+        logger.info("Encoding product with ID: {}", id);
+        return productRepository.findViewById(id)
+                .map(product -> EncodedProduct.encode(product, objectMapper))
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + id));
     }
 
     /**
-     * Retrieves all products.
-     * Caches the list of all products.
+     * Checks the cursor of a page request without reading anything, so that a malformed request is rejected
+     * before a conditional request is answered with 304.
+     *
+     * @param request Page request
+     * @throws IllegalArgumentException If the cursor is malformed or belongs to another sort order
+     */
+    public void checkPageRequest(ProductPageRequest request) {
+        if (request.cursor() != null) {
+            ProductCursor.decode(request.cursor(), request.sort(), request.ascending());
+        }
+    }
+
+    /**
+     * Retrieves one keyset page of products.
+     * Each page is cached on its own, keyed by the full page request and the current list version.
+     *
+     * @param request Page request (cursor, size, sort order and filters)
+     * @return Page of products with the continuation token for the next page
+     */
+    @Cacheable(value = "productPages", key = "@productCacheService.pageKey(#request)", sync = true)
+    @Transactional(readOnly = true)
+    public ProductPage getProductPage(ProductPageRequest request) {
+        logger.info("Fetching product page: {}", request);
+        ProductCursor after = request.cursor() == null
+                ? null
+                : ProductCursor.decode(request.cursor(), request.sort(), request.ascending());
+
+        // Fetch one extra row to find out whether another page follows
+        List<ProductView> rows = request.categories().isEmpty()
+                ? productRepository.findPage(request, after, request.size() + 1)
+                : findCategoryPage(request, after, request.size() + 1);
+        boolean hasMore = rows.size() > request.size();
+        List<ProductView> items = hasMore ? rows.subList(0, request.size()) : rows;
+
+        String nextCursor = hasMore
+                ? ProductCursor.after(items.get(items.size() - 1), request.sort(), request.ascending()).encode()
+                : null;
+        return new ProductPage(items, nextCursor, hasMore);
+    }
+
+    /**
+     * Fetches a page restricted by the category filter, using the category index to find the matching products.
+     * Sorted by ID without other filters, the matching IDs are walked in page order and only those rows are read;
+     * otherwise small matches are passed to the query as an ID list and large ones are filtered in SQL.
+     */
+    private List<ProductView> findCategoryPage(ProductPageRequest request, ProductCursor after, int limit) {
+        CompressedBitmap matching = categoryIndex.match(request.categories());
+        if (matching.isEmpty()) {
+            return List.of();
+        }
+        // A name or price filter could reject most candidates and turn the walk into one query per few rows
+        boolean filtered = request.name() != null || request.minPrice() != null || request.maxPrice() != null;
+        if (request.sort() == ProductSortKey.ID && !filtered) {
+            long from = after != null ? after.getId() : request.ascending() ? -1 : Long.MAX_VALUE;
+            List<ProductView> rows = new ArrayList<>(limit);
+            for (int round = 0; rows.size() < limit; round++) {
+                if (round == MAX_CATEGORY_ID_WALK_ROUNDS) {
+                    // The index lists many products that are gone; let the database filter instead
+                    return productRepository.findPage(request, after, limit);
+                }
+                long[] ids = matching.next(from, request.ascending(), limit);
+                if (ids.length == 0) {
+                    break;
+                }
+                // Products deleted since the index was read drop out, in which case the next IDs are tried
+                rows.addAll(productRepository.findPage(request, null, toList(ids), limit - rows.size()));
+                from = ids[ids.length - 1];
+            }
+            return rows;
+        }
+        if (matching.cardinality() <= MAX_CATEGORY_ID_LIST) {
+            return productRepository.findPage(request, after, toList(matching.next(-1, true, MAX_CATEGORY_ID_LIST)), limit);
+        }
+        return productRepository.findPage(request, after, limit);
+    }
+
+    /**
+     * Retrieves one page of products whose price or stock lies in a range, ordered by that value.
+     * The range is resolved from the in-memory range index; only the rows on the page are read.
      *
-     * @return List of all products
+     * @param field     Price or quantity
+     * @param min       Lower bound, inclusive
+     * @param max       Upper bound, inclusive
+     * @param ascending Order by ascending value
+     * @param cursor    Continuation token from the previous page, or null for the first page
+     * @param size      Number of products per page
+     * @return Page of products with the continuation token for the next page
      */
-    @Cacheable(value = "products", key = "'all_products'")
-    public List<Product> getAllProducts() {
-        logger.info("Fetching all products");
-        return productRepository.findAll();
+    @Transactional(readOnly = true)
+    public ProductPage getProductRangePage(ProductRangeIndex.Field field, double min, double max, boolean ascending,
+                                           String cursor, int size) {
+        long[] after = checkRangePageRequest(field, min, max, ascending, cursor, size);
+        logger.info("Fetching products by {} in [{}, {}]", field, min, max);
+        long minKey = field == ProductRangeIndex.Field.PRICE ? ProductRangeIndex.priceKey(min) : (long) Math.ceil(min);
+        long maxKey = field == ProductRangeIndex.Field.PRICE ? ProductRangeIndex.priceKey(max) : (long) Math.floor(max);
+
+        // Fetch one extra entry to find out whether another page follows
+        ProductRangeIndex.Slice slice = rangeIndex.range(field, minKey, maxKey, ascending, after, size + 1);
+        boolean hasMore = slice.ids().length > size;
+        int count = Math.min(size, slice.ids().length);
+
+        Map<Long, ProductView> byId = productRepository.findViewsByIdIn(toList(Arrays.copyOf(slice.ids(), count))).stream()
+                .collect(Collectors.toMap(ProductView::id, product -> product));
+        List<ProductView> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ProductView product = byId.get(slice.ids()[i]);
+            if (product != null) { // Deleted after the index was read
+                items.add(product);
+            }
+        }
+        String nextCursor = hasMore
+                ? RangeCursor.encode(field, ascending, slice.keys()[count - 1], slice.ids()[count - 1])
+                : null;
+        return new ProductPage(items, nextCursor, hasMore);
     }
 
     /**
-     * Creates a new product and ensures cache is refreshed.
+     * Checks the parameters of a range page without reading anything, so that a malformed request is rejected
+     * before a conditional request is answered with 304.
+     *
+     * @return Decoded cursor position, or null for the first page
+     * @throws IllegalArgumentException If the size, the bounds or the cursor are invalid
+     */
+    public long[] checkRangePageRequest(ProductRangeIndex.Field field, double min, double max, boolean ascending,
+                                        String cursor, int size) {
+        if (size < 1 || size > ProductPageRequest.MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + ProductPageRequest.MAX_PAGE_SIZE + ".");
+        }
+        if (min > max) {
+            throw new IllegalArgumentException("min must not be greater than max.");
+        }
+        return cursor == null || cursor.isBlank() ? null : RangeCursor.decode(cursor, field, ascending);
+    }
+
+    private static List<Long> toList(long[] ids) {
+        List<Long> list = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            list.add(id);
+        }
+        return list;
+    }
+
+    /**
+     * Streams the whole catalog as newline-delimited JSON, one product per line.
+     * Products and their categories are read as plain rows through one forward-only database cursor and written
+     * as soon as each product's rows are complete, so memory use does not grow with the size of the catalog.
+     *
+     * @param out Stream to write to (left open)
+     * @return Number of products written
+     * @throws IOException If writing to the stream fails
+     */
+    @Transactional(readOnly = true)
+    public long exportCatalog(OutputStream out) throws IOException {
+        logger.info("Exporting product catalog");
+        long count = 0;
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null); // Lines are terminated explicitly below
+        // Flushes are paced in writeExportLine rather than after every value
+        ObjectWriter writer = objectMapper.writerFor(ProductView.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        try (Stream<Object[]> rows = productRepository.streamCatalogRows()) {
+            // Rows arrive ordered by product ID, one per category; a product is complete when the ID changes
+            ProductView product = null;
+            List<CategoryView> categories = new ArrayList<>();
+            for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                if (product == null || !product.id().equals(row[0])) {
+                    if (product != null) {
+                        writeExportLine(writer, generator, product.withCategories(categories), ++count);
+                        categories.clear();
+                    }
+                    product = new ProductView((Long) row[0], (String) row[1], (String) row[2], (Double) row[3],
+                            (Integer) row[4], (Long) row[5]);
+                }
+                if (row[6] != null) {
+                    categories.add(new CategoryView((Long) row[6], (String) row[7]));
+                }
+            }
+            if (product != null) {
+                writeExportLine(writer, generator, product.withCategories(categories), ++count);
+            }
+        } finally {
+            generator.close();
+        }
+        logger.info("Exported {} products", count);
+        return count;
+    }
+
+    private static void writeExportLine(ObjectWriter writer, JsonGenerator generator, ProductView product, long count)
+            throws IOException {
+        writer.writeValue(generator, product);
+        generator.writeRaw('\n');
+
+        // Flush the first row immediately so the client starts receiving data right away
+        if (count == 1 || count % EXPORT_FLUSH_INTERVAL == 0) {
+            generator.flush();
+        }
+    }
+
+    /**
+     * Creates a new product.
+     * The product may belong on any page, so cached pages are invalidated.
      *
      * @param product Product data to be saved
      * @return Saved product object
@@ -61,7 +333,8 @@ public class ProductService {
     public Product addProduct(@Valid Product product) {
         logger.info("Adding new product: {}", product.getName());
         Product savedProduct = productRepository.save(product);
-        evictAllProductsCache();
+        productCacheService.invalidatePages();
+        eventPublisher.publishEvent(ProductChangedEvent.added(ProductSnapshot.of(savedProduct)));
         return savedProduct;
     }
 
@@ -73,16 +346,82 @@ public class ProductService {
      * @return Updated product object
      */
     @Transactional
-    @CacheEvict(value = "products", key = "#id")
     public Product updateProduct(Long id, Product product) {
+        return applyUpdate(id, product, null, null);
+    }
+
+    /**
+     * Updates a product if it is still at the version the update was based on.
+     * No lock is held between the client's read and this write: the version is checked when the row is loaded,
+     * and Hibernate's versioned update rejects writes that commit in between.
+     * <p>
+     * With a {@code baseQuantity}, an update that changes nothing but the stock is merged into a newer version
+     * instead of being rejected: the change the client made ({@code quantity - baseQuantity}) is added to the
+     * current stock, so sales committed since the client's read are kept. The merge is retried if another write
+     * commits while it is applied. Updates without an expected version are retried the same way, keeping
+     * last-writer-wins behaviour.
+     *
+     * @param id              Product ID to update
+     * @param product         Updated product data (including categories)
+     * @param expectedVersion Version the update is based on, or null to skip the check
+     * @param baseQuantity    Stock the update's quantity was derived from, or null to reject stale stock updates
+     * @return Updated product object
+     * @throws ProductVersionConflictException If the product was modified since the expected version and the
+     *                                         update cannot be merged
+     */
+    public Product updateProduct(Long id, Product product, Long expectedVersion, Integer baseQuantity) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> applyUpdate(id, product, expectedVersion, baseQuantity));
+            } catch (OptimisticLockingFailureException e) {
+                // Another write committed between loading the row and flushing the update
+                Long currentVersion = productRepository.findVersionById(id);
+                if (currentVersion == null) {
+                    throw new ResourceNotFoundException("Product not found with ID: " + id);
+                }
+                if (attempt == MAX_UPDATE_ATTEMPTS || (expectedVersion != null && baseQuantity == null)) {
+                    throw new ProductVersionConflictException(id, currentVersion);
+                }
+                logger.info("Retrying update of product ID: {} after a concurrent write (attempt {})", id, attempt);
+            }
+        }
+    }
+
+    private Product applyUpdate(Long id, Product product, Long expectedVersion, Integer baseQuantity) {
         logger.info("Updating product with ID: {}", id);
         Product existingProduct = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + id));
 
+        Integer quantity = product.getQuantity();
+        if (expectedVersion != null && !expectedVersion.equals(existingProduct.getVersion())) {
+            if (baseQuantity == null || !isStockOnlyChange(existingProduct, product)) {
+                throw new ProductVersionConflictException(id, existingProduct.getVersion());
+            }
+            // Apply the client's change to the current stock rather than its absolute value
+            long merged = (long) existingProduct.getQuantity() + quantity - baseQuantity;
+            if (merged < 0 || merged > Integer.MAX_VALUE) {
+                throw new ProductVersionConflictException(id, existingProduct.getVersion());
+            }
+            quantity = (int) merged;
+            logger.info("Merging stock change of {} for product ID: {} from version {} into version {}",
+                    product.getQuantity() - baseQuantity, id, expectedVersion, existingProduct.getVersion());
+        }
+        if (flashSaleService.isEnabled(id) && !Objects.equals(existingProduct.getQuantity(), quantity)) {
+            throw new FlashSaleActiveException(id, "Stock of product ID " + id
+                    + " is held by flash-sale mode; switch the mode off before changing it.");
+        }
+
+        // Name, price and categories decide sort order and filter matches, so changing them can move the product between pages
+        boolean categoriesChanged = product.getCategories() != null && !product.getCategories().isEmpty()
+                && !categoryIds(existingProduct).equals(categoryIds(product));
+        boolean pageMembershipChanged = !Objects.equals(existingProduct.getName(), product.getName())
+                || !Objects.equals(existingProduct.getPrice(), product.getPrice())
+                || categoriesChanged;
+
         existingProduct.setName(product.getName());
         existingProduct.setDescription(product.getDescription());
         existingProduct.setPrice(product.getPrice());
-        existingProduct.setQuantity(product.getQuantity());
+        existingProduct.setQuantity(quantity);
 
         // Update categories if they are present
         if (product.getCategories() != null && !product.getCategories().isEmpty()) {
@@ -90,18 +429,36 @@ public class ProductService {
             logger.info("Updated categories for product ID: {}", id);
         }
 
-        Product updatedProduct = productRepository.save(existingProduct);
-        evictAllProductsCache();
+        Product updatedProduct = productRepository.saveAndFlush(existingProduct); // Flushed so the snapshot has the new version
+        productCacheService.evictProduct(id);
+        if (pageMembershipChanged) {
+            productCacheService.invalidatePages();
+        } else {
+            productCacheService.evictPagesContaining(id);
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.updated(ProductSnapshot.of(updatedProduct)));
         return updatedProduct;
     }
 
+    // Whether applying the update would change nothing but the stock of the current product
+    private static boolean isStockOnlyChange(Product existing, Product update) {
+        return Objects.equals(existing.getName(), update.getName())
+                && Objects.equals(existing.getDescription(), update.getDescription())
+                && Objects.equals(existing.getPrice(), update.getPrice())
+                && (update.getCategories() == null || update.getCategories().isEmpty()
+                    || categoryIds(existing).equals(categoryIds(update)));
+    }
+
+    private static Set<Long> categoryIds(Product product) {
+        return product.getCategories().stream().map(Category::getId).collect(Collectors.toSet());
+    }
+
     /**
      * Deletes a product and ensures cache consistency.
      *
      * @param id Product ID to delete
      */
     @Transactional
-    @CacheEvict(value = "products", key = "#id")
     public boolean deleteProduct(Long id) {
         logger.info("Deleting product with ID: {}", id);
         Product existingProduct = productRepository.findById(id)
@@ -110,45 +467,138 @@ public class ProductService {
         if (existingProduct == null) {
             return false;  // Product not found, cannot delete
         }
+        if (flashSaleService.isEnabled(id)) {
+            throw new FlashSaleActiveException(id, "Product ID " + id
+                    + " is in flash-sale mode; switch the mode off before deleting it.");
+        }
 
         productRepository.delete(existingProduct);
-        evictAllProductsCache();
+        // Keyset pages are anchored on their cursor, so only pages holding the product are affected
+        productCacheService.evictProduct(id);
+        productCacheService.evictPagesContaining(id);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
         return true;
     }
 
 
     /**
      * Handles selling a product and updates inventory.
-     * Prevents selling more than available stock.
+     * Stock is taken with a single conditional update, so concurrent sales of the same product
+     * can neither oversell nor lose updates, and the entity is only loaded when the sale is rejected.
+     * Products in flash-sale mode are sold from their in-memory counter instead; the stored quantity
+     * catches up at the next flush.
      *
      * @param id Product ID
      * @param quantitySold Quantity to be sold
      */
-    @Transactional
-    @CacheEvict(value = "products", key = "#id")
     public void sellProduct(Long id, int quantitySold) {
         logger.info("Processing sale for product ID: {} - Quantity Sold: {}", id, quantitySold);
 
         if (quantitySold <= 0) {
             throw new IllegalArgumentException("Sale quantity must be greater than zero.");
         }
+        if (flashSaleService.sell(id, quantitySold)) {
+            inventoryMetrics.recordSale(quantitySold);
+            return;
+        }
 
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + id));
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                StockLevel stock = takeStock(id, quantitySold);
+                inventoryMetrics.recordSale(quantitySold);
+                productCacheService.evictProduct(id);
+                productCacheService.evictPagesContaining(id);
+                eventPublisher.publishEvent(ProductChangedEvent.stockChanged(id, -quantitySold, stock));
+            });
+        } catch (FlashSaleActiveException e) {
+            // Switched to flash-sale mode while the sale ran; it was rolled back, so take it from the counter
+            if (!flashSaleService.sell(id, quantitySold)) {
+                throw e;
+            }
+            inventoryMetrics.recordSale(quantitySold);
+        }
+    }
 
-        if (product.getQuantity() < quantitySold) {
-            throw new IllegalArgumentException("Insufficient stock for product: " + product.getName());
+    /**
+     * Sells several products in one transaction: either every line is applied or none is.
+     * Lines for the same product are merged, and stock is taken in ascending product ID order
+     * so that concurrent orders lock rows in the same order and cannot deadlock.
+     *
+     * @param lines Order lines (product ID and quantity)
+     * @return Result per product, in ascending product ID order
+     */
+    @Transactional
+    public List<SellLineResult> sellProducts(List<SellOrderLine> lines) {
+        logger.info("Processing batch sale with {} lines", lines.size());
+
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (SellOrderLine line : lines) {
+            if (line.getProductId() == null) {
+                throw new IllegalArgumentException("Product ID is required.");
+            }
+            if (line.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Sale quantity must be greater than zero.");
+            }
+            quantities.merge(line.getProductId(), line.getQuantity(), (merged, quantity) -> {
+                if (merged > Integer.MAX_VALUE - quantity) {
+                    throw new IllegalArgumentException("Sale quantity for product ID " + line.getProductId()
+                            + " is too large.");
+                }
+                return merged + quantity;
+            });
+        }
+        for (Long id : quantities.keySet()) {
+            if (flashSaleService.isEnabled(id)) {
+                throw new FlashSaleActiveException(id, "Product ID " + id
+                        + " is in flash-sale mode and can only be sold on its own.");
+            }
         }
 
-        product.setQuantity(product.getQuantity() - quantitySold);
-        productRepository.save(product);
-        evictAllProductsCache();
+        List<SellLineResult> results = new ArrayList<>(quantities.size());
+        Map<Long, StockLevel> stock = new HashMap<>();
+        quantities.forEach((id, quantity) -> {
+            stock.put(id, takeStock(id, quantity));
+            results.add(new SellLineResult(id, quantity, stock.get(id).quantity()));
+        });
+
+        quantities.values().forEach(inventoryMetrics::recordSale);
+        quantities.forEach((id, quantity) -> {
+            productCacheService.evictProduct(id);
+            productCacheService.evictPagesContaining(id);
+            eventPublisher.publishEvent(ProductChangedEvent.stockChanged(id, -quantity, stock.get(id)));
+        });
+        return results;
     }
+
     /**
-     * Evicts all cached product entries to maintain data consistency.
+     * Takes stock with a single conditional update.
+     * Throws if the product does not exist or has too little stock; the entity is only loaded in that case.
+     *
+     * @return Stock and version after the update
      */
-    @CacheEvict(value = "products", allEntries = true)
-    public void evictAllProductsCache() {
-        logger.info("Evicting all product cache entries...");
+    private StockLevel takeStock(Long id, int quantity) {
+        long start = System.nanoTime();
+        int updated;
+        try {
+            updated = productRepository.decrementStock(id, quantity);
+        } catch (PessimisticLockingFailureException e) {
+            inventoryMetrics.recordLockFailure(); // Lock wait timeout or deadlock on the product row
+            throw e;
+        } finally {
+            inventoryMetrics.recordStockUpdate(start);
+        }
+
+        if (updated == 0) {
+            // Nothing was updated: find out whether the product is missing or short on stock
+            Product product = productRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + id));
+            inventoryMetrics.recordInsufficientStock();
+            throw new IllegalArgumentException("Insufficient stock for product: " + product.getName());
+        }
+        if (flashSaleService.isEnabled(id)) {
+            // Switched to flash-sale mode meanwhile: its counter may have been loaded without this sale, so roll back
+            throw new FlashSaleActiveException(id, "Product ID " + id + " switched to flash-sale mode during the sale.");
+        }
+        return productRepository.findStockLevelById(id);
     }
 }
@@ -0,0 +1,271 @@
+package com.quardintel.product_api.service;
+
+import com.quardintel.product_api.dto.ProductStreamEvent;
+import com.quardintel.product_api.event.ProductChangedEvent;
+import com.quardintel.product_api.event.ProductsImportedEvent;
+import com.quardintel.product_api.index.CategoryBitmapIndex;
+import com.quardintel.product_api.metrics.Counter;
+import com.quardintel.product_api.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes committed product changes to clients over Server-Sent Events.
+ * <p>
+ * An open stream holds no thread: the request thread is released once the emitter is returned, and each
+ * subscriber only keeps its filter and a bounded map of pending events. A change is offered to the matching
+ * subscribers and a drain is scheduled on a small shared pool, so a slow client delays only its own events.
+ * Subscribers are indexed by product and category, so routing a change does not scan every open stream.
+ * <p>
+ * A client that stops reading blocks its drain's write. Once a write has been blocked for
+ * {@code app.stream.write-timeout} the subscriber is dropped, and the pool gets an extra thread until that write
+ * returns, so the other streams keep the full pool.
+ */
+@Service
+public class ProductStreamService implements DisposableBean {
+
+    public static final int MAX_FILTER_SIZE = 100;
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductStreamService.class);
+
+    private final CategoryBitmapIndex categoryIndex;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final long writeTimeoutNanos;
+
+    private final Set<ProductStreamSubscriber> unfiltered = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<Long, Set<ProductStreamSubscriber>> byProduct = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<ProductStreamSubscriber>> byCategory = new ConcurrentHashMap<>();
+    private final Set<ProductStreamSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final ThreadPoolExecutor drainExecutor;
+    private final ScheduledExecutorService heartbeatExecutor;
+
+    private final Counter eventsSent;
+    private final Counter resyncs;
+    private final Counter stalls;
+
+    public ProductStreamService(CategoryBitmapIndex categoryIndex, MetricsRegistry registry,
+                                @Value("${app.stream.drain-threads:2}") int drainThreads,
+                                @Value("${app.stream.buffer-size:256}") int bufferSize,
+                                @Value("${app.stream.heartbeat:30s}") Duration heartbeat,
+                                @Value("${app.stream.timeout:30m}") Duration timeout,
+                                @Value("${app.stream.write-timeout:10s}") Duration writeTimeout) {
+        this.categoryIndex = categoryIndex;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.drainExecutor = new ThreadPoolExecutor(drainThreads, drainThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "product-stream-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long heartbeatMillis = heartbeat.toMillis();
+        heartbeatExecutor.scheduleAtFixedRate(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        long stallCheckMillis = Math.max(writeTimeout.toMillis() / 2, 1);
+        heartbeatExecutor.scheduleAtFixedRate(this::dropStalled, stallCheckMillis, stallCheckMillis, TimeUnit.MILLISECONDS);
+
+        registry.gauge("product_stream_subscribers", "Open product event streams", subscribers::size);
+        this.eventsSent = registry.counter("product_stream_events_total", "Product events sent to stream subscribers");
+        this.resyncs = registry.counter("product_stream_resyncs_total",
+                "Subscribers that fell too far behind and were told to resync");
+        this.stalls = registry.counter("product_stream_stalls_total",
+                "Subscribers dropped because their client stopped reading");
+    }
+
+    /**
+     * Opens a stream of product changes. With no filter every change is sent; otherwise only changes to the
+     * listed products or to products in the listed categories.
+     *
+     * @param productIds  Products to follow (may be empty)
+     * @param categoryIds Categories to follow (may be empty)
+     * @return Emitter to return from the controller
+     */
+    public SseEmitter subscribe(Collection<Long> productIds, Collection<Long> categoryIds) {
+        Set<Long> products = productIds == null ? Set.of() : new HashSet<>(productIds);
+        Set<Long> categories = categoryIds == null ? Set.of() : new HashSet<>(categoryIds);
+        if (products.size() + categories.size() > MAX_FILTER_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_FILTER_SIZE + " products and categories can be followed.");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        ProductStreamSubscriber subscriber = new ProductStreamSubscriber(emitter, products, categories, bufferSize);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+
+        subscribers.add(subscriber);
+        if (subscriber.isUnfiltered()) {
+            unfiltered.add(subscriber);
+        }
+        products.forEach(id -> addTo(byProduct, id, subscriber));
+        categories.forEach(id -> addTo(byCategory, id, subscriber));
+        logger.info("Opened product stream ({} open)", subscribers.size());
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    // Runs before the index maintainer, so the category index still holds the categories of a deleted product
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Set<Long> categories = new HashSet<>(categoryIndex.categoriesOf(event.productId()));
+        if (event.snapshot() != null) {
+            categories.addAll(event.snapshot().categoryIds()); // Followers of a category it left or joined both hear
+        }
+        publish(ProductStreamEvent.of(event), categories);
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        event.products().forEach(product -> publish(ProductStreamEvent.of(ProductChangedEvent.added(product)),
+                product.categoryIds()));
+    }
+
+    private void publish(ProductStreamEvent event, Set<Long> categories) {
+        Set<ProductStreamSubscriber> targets = new HashSet<>(unfiltered);
+        Set<ProductStreamSubscriber> followers = byProduct.get(event.productId());
+        if (followers != null) {
+            targets.addAll(followers);
+        }
+        for (Long categoryId : categories) {
+            followers = byCategory.get(categoryId);
+            if (followers != null) {
+                targets.addAll(followers);
+            }
+        }
+        for (ProductStreamSubscriber subscriber : targets) {
+            if (!subscriber.offer(event)) {
+                resyncs.increment();
+            }
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void heartbeat() {
+        for (ProductStreamSubscriber subscriber : subscribers) {
+            subscriber.requestHeartbeat();
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void scheduleDrain(ProductStreamSubscriber subscriber) {
+        if (!subscriber.startDrain()) {
+            return; // A drain is already running and will pick up the new event
+        }
+        try {
+            drainExecutor.execute(() -> {
+                eventsSent.increment(subscriber.drain());
+                if (subscriber.isStalled()) {
+                    resizeDrainPool(-1); // The blocked write returned; give back the thread lent for it
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            subscriber.close();
+        }
+    }
+
+    // Drops subscribers whose client stopped reading; their drain thread stays blocked until the write fails
+    private void dropStalled() {
+        long now = System.nanoTime();
+        for (ProductStreamSubscriber subscriber : subscribers) {
+            if (subscriber.markStalled(now, writeTimeoutNanos)) {
+                unsubscribe(subscriber);
+                stalls.increment();
+                resizeDrainPool(1);
+                logger.warn("Dropped a product stream whose client stopped reading ({} open)", subscribers.size());
+            }
+        }
+    }
+
+    private synchronized void resizeDrainPool(int delta) {
+        // The maximum may never be below the core size, so it moves first when growing and last when shrinking
+        int size = drainExecutor.getCorePoolSize() + delta;
+        if (delta > 0) {
+            drainExecutor.setMaximumPoolSize(size);
+            drainExecutor.setCorePoolSize(size);
+        } else {
+            drainExecutor.setCorePoolSize(size);
+            drainExecutor.setMaximumPoolSize(size);
+        }
+    }
+
+    private void unsubscribe(ProductStreamSubscriber subscriber) {
+        subscriber.close();
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        unfiltered.remove(subscriber);
+        subscriber.productIds().forEach(id -> removeFrom(byProduct, id, subscriber));
+        subscriber.categoryIds().forEach(id -> removeFrom(byCategory, id, subscriber));
+    }
+
+    // Both run inside compute, so an add never lands in a set that a concurrent remove is dropping
+    private static void addTo(ConcurrentHashMap<Long, Set<ProductStreamSubscriber>> index, Long key,
+                              ProductStreamSubscriber subscriber) {
+        index.compute(key, (id, followers) -> {
+            Set<ProductStreamSubscriber> set = followers == null ? ConcurrentHashMap.newKeySet() : followers;
+            set.add(subscriber);
+            return set;
+        });
+    }
+
+    private static void removeFrom(ConcurrentHashMap<Long, Set<ProductStreamSubscriber>> index, Long key,
+                                   ProductStreamSubscriber subscriber) {
+        index.computeIfPresent(key, (id, followers) -> {
+            followers.remove(subscriber);
+            return followers.isEmpty() ? null : followers;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        heartbeatExecutor.shutdownNow();
+        drainExecutor.shutdown();
+        for (ProductStreamSubscriber subscriber : subscribers) {
+            subscriber.close();
+            subscriber.emitter().complete();
+        }
+    }
+}
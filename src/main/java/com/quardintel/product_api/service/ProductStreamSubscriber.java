@@ -0,0 +1,189 @@
+package com.quardintel.product_api.service;
+
+import com.quardintel.product_api.dto.ProductStreamEvent;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One open event stream: its filter, the events it has not been sent yet and the emitter to send them on.
+ * <p>
+ * Pending events are kept per product and coalesced, so a subscriber that falls behind holds at most one event
+ * per product. Past {@code capacity} distinct products the pending events are dropped and the subscriber is sent
+ * a {@code resync} event instead, telling it to reload. Events are only ever written by one drain at a time.
+ * <p>
+ * A write blocks while the client's socket buffer is full. The service checks for writes that have been
+ * blocked too long with {@link #markStalled}, which closes the subscriber so that it takes no further events.
+ */
+final class ProductStreamSubscriber {
+
+    private final SseEmitter emitter;
+    private final Set<Long> productIds;
+    private final Set<Long> categoryIds;
+    private final int capacity;
+
+    // Guarded by this
+    private final Map<Long, ProductStreamEvent> pending = new LinkedHashMap<>();
+    private boolean overflowed;
+    private boolean heartbeatDue;
+    private boolean writing;
+    private long writeStartedNanos;
+    private boolean stalled;
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile boolean closed;
+
+    ProductStreamSubscriber(SseEmitter emitter, Set<Long> productIds, Set<Long> categoryIds, int capacity) {
+        this.emitter = emitter;
+        this.productIds = Set.copyOf(productIds);
+        this.categoryIds = Set.copyOf(categoryIds);
+        this.capacity = capacity;
+    }
+
+    SseEmitter emitter() {
+        return emitter;
+    }
+
+    Set<Long> productIds() {
+        return productIds;
+    }
+
+    Set<Long> categoryIds() {
+        return categoryIds;
+    }
+
+    boolean isUnfiltered() {
+        return productIds.isEmpty() && categoryIds.isEmpty();
+    }
+
+    /**
+     * Queues an event for the next drain.
+     *
+     * @return False if the pending events overflowed and were replaced by a resync
+     */
+    synchronized boolean offer(ProductStreamEvent event) {
+        ProductStreamEvent previous = pending.remove(event.productId()); // Re-inserted at the end, in change order
+        boolean dropped = false;
+        if (previous == null && pending.size() >= capacity) {
+            pending.clear();
+            overflowed = true;
+            dropped = true;
+        }
+        pending.put(event.productId(), previous == null ? event : previous.merge(event));
+        return !dropped;
+    }
+
+    synchronized void requestHeartbeat() {
+        heartbeatDue = true;
+    }
+
+    /**
+     * Claims the drain; only the caller that gets true may run {@link #drain()}.
+     */
+    boolean startDrain() {
+        return !closed && draining.compareAndSet(false, true);
+    }
+
+    /**
+     * Marks the subscriber stalled if its current write has been blocked for at least the timeout, meaning the
+     * client stopped reading. The subscriber is closed; its drain ends the stream once the write returns.
+     *
+     * @return True the first time the stall is seen
+     */
+    synchronized boolean markStalled(long nowNanos, long timeoutNanos) {
+        if (!writing || stalled || nowNanos - writeStartedNanos < timeoutNanos) {
+            return false;
+        }
+        stalled = true;
+        closed = true;
+        return true;
+    }
+
+    /**
+     * Whether a drain was found stalled; checked once that drain returns.
+     */
+    synchronized boolean isStalled() {
+        return stalled;
+    }
+
+    /**
+     * Sends everything pending, until nothing is left. Runs on the shared drain pool.
+     *
+     * @return Number of events sent
+     */
+    int drain() {
+        int sent = 0;
+        while (true) {
+            List<ProductStreamEvent> batch;
+            boolean resync;
+            boolean heartbeat;
+            synchronized (this) {
+                if (stalled) {
+                    pending.clear();
+                    break; // Dropped while a write was blocked
+                }
+                batch = new ArrayList<>(pending.values());
+                pending.clear();
+                resync = overflowed;
+                heartbeat = heartbeatDue && batch.isEmpty() && !resync;
+                overflowed = false;
+                heartbeatDue = false;
+                if (batch.isEmpty() && !resync && !heartbeat) {
+                    draining.set(false); // Released under the lock, so an offer either sees it or is in this batch
+                    return sent;
+                }
+            }
+            try {
+                if (resync) {
+                    send(SseEmitter.event().name("resync").data("{}", MediaType.APPLICATION_JSON));
+                }
+                for (ProductStreamEvent event : batch) {
+                    send(SseEmitter.event()
+                            .name(event.type().name().toLowerCase(Locale.ROOT))
+                            .data(event, MediaType.APPLICATION_JSON));
+                    sent++;
+                }
+                if (heartbeat) {
+                    send(SseEmitter.event().comment("keepalive"));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away or the emitter already completed
+                close();
+                emitter.completeWithError(e);
+                return sent;
+            }
+        }
+        try {
+            emitter.complete();
+        } catch (IllegalStateException e) {
+            // Already completed
+        }
+        return sent;
+    }
+
+    private void send(SseEmitter.SseEventBuilder event) throws IOException {
+        synchronized (this) {
+            writing = true;
+            writeStartedNanos = System.nanoTime();
+        }
+        try {
+            emitter.send(event);
+        } finally {
+            synchronized (this) {
+                writing = false;
+            }
+        }
+    }
+
+    void close() {
+        closed = true;
+    }
+}
@@ -0,0 +1,42 @@
+package com.quardintel.product_api.service;
+
+import com.quardintel.product_api.model.Role;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable in-memory view of the roles table, loaded once at startup, before requests are served, by
+ * {@link com.quardintel.product_api.config.RoleInitializer}, so that registration never queries roles.
+ */
+@Component
+public class RoleRegistry {
+
+    private volatile Map<String, Role> roles = Map.of();
+
+    /**
+     * Replaces the registry contents with the given roles.
+     *
+     * @param loaded All roles
+     */
+    public void load(Collection<Role> loaded) {
+        this.roles = Map.copyOf(loaded.stream().collect(Collectors.toMap(Role::getName, Function.identity())));
+    }
+
+    /**
+     * Returns the role with the given name.
+     *
+     * @param name Role name
+     * @return Role
+     */
+    public Role get(String name) {
+        Role role = roles.get(name);
+        if (role == null) {
+            throw new IllegalArgumentException("Role not found: " + name);
+        }
+        return role;
+    }
+}
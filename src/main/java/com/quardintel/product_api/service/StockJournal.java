@@ -0,0 +1,305 @@
+package com.quardintel.product_api.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only local log of flash sales, written before a sale is acknowledged.
+ * <p>
+ * Sales are fsynced in groups: the first caller to find no sync in progress writes every record buffered so
+ * far and forces it to disk, while callers that arrive meanwhile wait and are carried by the next sync. One
+ * sync therefore acknowledges as many sales as arrived during the previous one.
+ * <p>
+ * The log is split into segments. {@link #roll()} closes the current segment so that it can be applied to
+ * the database and deleted; segments are named after their first sequence number, so they sort in log order.
+ * Records carry a checksum, and reading stops at the first incomplete or damaged record, which can only be
+ * the tail of a write that was never acknowledged.
+ */
+final class StockJournal implements Closeable {
+
+    static final int RECORD_SIZE = 24; // Sequence, product ID, quantity, CRC-32
+
+    private static final String SEGMENT_PREFIX = "stock-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final Logger logger = LoggerFactory.getLogger(StockJournal.class);
+
+    /**
+     * One journaled sale.
+     */
+    record Entry(long sequence, long productId, int quantity) {
+    }
+
+    private final Path directory;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition synced = lock.newCondition();
+    private final LongAdder syncs = new LongAdder();
+
+    // Guarded by lock
+    private ByteBuffer pending = ByteBuffer.allocate(RECORD_SIZE * 1024);
+    private ByteBuffer spare = ByteBuffer.allocate(RECORD_SIZE * 1024);
+    private long lastSequence;
+    private long durableSequence;
+    private boolean syncing;
+    private IOException failure;
+    private FileChannel channel;
+    private Path segment;
+    private long segmentRecords;
+
+    /**
+     * Opens a new segment after the given sequence number.
+     *
+     * @param directory    Directory holding the segments (created if missing)
+     * @param lastSequence Highest sequence number already used, so that numbers keep increasing across restarts
+     */
+    StockJournal(Path directory, long lastSequence) throws IOException {
+        this.directory = directory;
+        this.lastSequence = lastSequence;
+        this.durableSequence = lastSequence;
+        Files.createDirectories(directory);
+        openSegment();
+    }
+
+    /**
+     * Records a sale and waits until it is on disk.
+     *
+     * @return Sequence number of the record
+     * @throws IOException If the journal could not be written; no later sale is accepted after that
+     */
+    long append(long productId, int quantity) throws IOException {
+        lock.lock();
+        try {
+            checkHealthy();
+            long sequence = ++lastSequence;
+            encode(sequence, productId, quantity);
+            while (durableSequence < sequence) {
+                if (syncing) {
+                    synced.awaitUninterruptibly();
+                    checkHealthy();
+                } else {
+                    sync();
+                }
+            }
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the current segment and starts a new one, unless the current segment is still empty.
+     *
+     * @return Every closed segment still on disk, oldest first
+     */
+    List<Path> roll() throws IOException {
+        lock.lock();
+        try {
+            checkHealthy();
+            while (syncing) {
+                synced.awaitUninterruptibly();
+                checkHealthy();
+            }
+            while (pending.position() > 0) { // Appends can buffer more while the lock is released for a sync
+                sync();
+            }
+            if (segmentRecords > 0) {
+                channel.close();
+                openSegment();
+            }
+            List<Path> closed = new ArrayList<>(segments(directory));
+            closed.remove(segment);
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whether a write has failed; the journal then accepts no more sales and has to be replaced.
+     */
+    boolean isFailed() {
+        lock.lock();
+        try {
+            return failure != null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Highest sequence number known to be on disk. Records after it were never acknowledged, even if some of
+     * their bytes reached a segment before a failed write.
+     */
+    long durableSequence() {
+        lock.lock();
+        try {
+            return durableSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Highest sequence number handed out, acknowledged or not.
+     */
+    long lastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of fsyncs so far; compared with the number of sales it shows how many sales each sync carries.
+     */
+    long syncCount() {
+        return syncs.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            while (syncing) {
+                synced.awaitUninterruptibly();
+            }
+            if (failure == null && pending.position() > 0) {
+                sync();
+            }
+            channel.close();
+            if (segmentRecords == 0) {
+                Files.deleteIfExists(segment);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Lists the segments in a journal directory, oldest first.
+     */
+    static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Reads the records of a segment, up to the first incomplete or damaged one.
+     */
+    static List<Entry> read(Path segment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        List<Entry> entries = new ArrayList<>(buffer.remaining() / RECORD_SIZE);
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= RECORD_SIZE) {
+            int start = buffer.position();
+            long sequence = buffer.getLong();
+            long productId = buffer.getLong();
+            int quantity = buffer.getInt();
+            crc.reset();
+            crc.update(buffer.array(), start, RECORD_SIZE - Integer.BYTES);
+            if ((int) crc.getValue() != buffer.getInt()) {
+                logger.warn("Ignoring damaged journal record at offset {} of {}", start, segment);
+                return entries;
+            }
+            entries.add(new Entry(sequence, productId, quantity));
+        }
+        if (buffer.hasRemaining()) {
+            logger.warn("Ignoring incomplete journal record at the end of {}", segment);
+        }
+        return entries;
+    }
+
+    // Writes and forces everything buffered. Called with the lock held; releases it during the I/O
+    private void sync() throws IOException {
+        ByteBuffer batch = pending;
+        pending = spare;
+        spare = batch;
+        long batchEnd = lastSequence;
+        long batchRecords = batch.position() / RECORD_SIZE;
+        FileChannel target = channel;
+        syncing = true;
+        lock.unlock();
+        IOException error = null;
+        try {
+            batch.flip();
+            while (batch.hasRemaining()) {
+                target.write(batch);
+            }
+            target.force(false);
+            syncs.increment();
+        } catch (IOException e) {
+            error = e;
+        } finally {
+            lock.lock();
+            batch.clear();
+            syncing = false;
+        }
+        if (error != null) {
+            failure = error;
+            synced.signalAll();
+            logger.error("Stock journal write failed; flash sales are stopped", error);
+            throw error;
+        }
+        durableSequence = batchEnd;
+        segmentRecords += batchRecords;
+        synced.signalAll();
+    }
+
+    private void encode(long sequence, long productId, int quantity) {
+        if (pending.remaining() < RECORD_SIZE) {
+            ByteBuffer larger = ByteBuffer.allocate(pending.capacity() * 2);
+            pending.flip();
+            larger.put(pending);
+            pending = larger;
+        }
+        int start = pending.position();
+        pending.putLong(sequence).putLong(productId).putInt(quantity);
+        CRC32 crc = new CRC32();
+        crc.update(pending.array(), start, RECORD_SIZE - Integer.BYTES);
+        pending.putInt((int) crc.getValue());
+    }
+
+    private void openSegment() throws IOException {
+        segment = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, lastSequence + 1, SEGMENT_SUFFIX));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        segmentRecords = 0;
+        // Make the new file itself durable, not just its contents
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            logger.debug("Directory fsync is not supported for {}", directory);
+        }
+    }
+
+    private void checkHealthy() throws IOException {
+        if (failure != null) {
+            throw new IOException("Stock journal is unavailable after a failed write", failure);
+        }
+    }
+}
@@ -4,25 +4,35 @@ import com.quardintel.product_api.dto.AuthResponse;
 import com.quardintel.product_api.dto.LoginRequest;
 import com.quardintel.product_api.dto.RegisterRequest;
 import com.quardintel.product_api.exception.InvalidCredentialsException;
+import com.quardintel.product_api.exception.LoginThrottledException;
 import com.quardintel.product_api.exception.UserAlreadyExistsException;
 import com.quardintel.product_api.model.CustomUserDetails;
 import com.quardintel.product_api.model.User;
 import com.quardintel.product_api.model.Role;
 import com.quardintel.product_api.repository.UserRepository;
-import com.quardintel.product_api.repository.RoleRepository;
 import com.quardintel.product_api.security.JwtUtil;
+import com.quardintel.product_api.security.UserStateCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class UserService {
 
+    private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private RoleRepository roleRepository;
+    private RoleRegistry roleRegistry;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
@@ -30,30 +40,29 @@ public class UserService {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private UserStateCache userStateCache;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    // Re-hash stored passwords that use a lower BCrypt cost than configured, on successful login
+    @Value("${app.security.login.rehash-on-login:false}")
+    private boolean rehashOnLogin;
+
 
     /**
-     * Registers a new user and assigns the appropriate role
+     * Registers a new user and assigns the appropriate role.
+     * Done as a single insert: duplicates are detected from the unique constraints on username and email
+     * instead of separate existence queries, and the role comes from the in-memory registry.
      *
      * @param registerRequest The user details including username, email, and password
      * @return Success message if registration is successful
      */
     public String registerUser(RegisterRequest registerRequest) {
-        // Check if the username is already taken
-        if (userRepository.existsByUsername(registerRequest.getUsername())) {
-            throw new UserAlreadyExistsException("Username is already taken.");
-        }
-
-        // Check if the email is already in use
-        if (userRepository.existsByEmail(registerRequest.getEmail())) {
-            throw new UserAlreadyExistsException("Email is already in use.");
-        }
-
         // Determine the role based on the email domain
         String roleName = registerRequest.getEmail().endsWith("@quardintel.com") ? "ADMIN" : "USER";
-
-        // Fetch the Role entity from the database
-        Role role = roleRepository.findByName(roleName)
-                .orElseThrow(() -> new IllegalArgumentException("Role not found: " + roleName));
+        Role role = roleRegistry.get(roleName);
 
         // Create a new User object and set its fields
         User user = new User();
@@ -62,39 +71,79 @@ public class UserService {
         user.setPassword(passwordEncoder.encode(registerRequest.getPassword())); // Encrypt the password
         user.setRole(role); // Assign the role
 
-        // Save the User to the database
-        userRepository.save(user);
+        // Save the User to the database; a unique constraint violation means the username or email is taken
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException ex) {
+            throw toUserAlreadyExists(ex);
+        }
+        userStateCache.invalidate(user.getUsername()); // A lookup before registration may have cached "unknown user"
 
         return "User registered successfully with role: " + role.getName();
     }
 
+    private RuntimeException toUserAlreadyExists(DataIntegrityViolationException ex) {
+        String message = String.valueOf(ex.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        if (message.contains(User.EMAIL_CONSTRAINT)) {
+            return new UserAlreadyExistsException("Email is already in use.");
+        }
+        if (message.contains(User.USERNAME_CONSTRAINT)) {
+            return new UserAlreadyExistsException("Username is already taken.");
+        }
+        return ex;
+    }
+
 
     /**
      * Authenticates a user and generates a JWT token.
+     * The password check runs on the dedicated hashing pool, so the request thread is released while BCrypt runs.
      *
      * @param authRequest The login request containing username and password.
-     * @return An AuthResponse containing the JWT token and user details.
+     * @return A future AuthResponse containing the JWT token and user details.
+     * @throws LoginThrottledException If the hashing pool is saturated.
      */
-    public AuthResponse authenticateUser(LoginRequest authRequest) {
+    public CompletableFuture<AuthResponse> authenticateUser(LoginRequest authRequest) {
         // Try to find user by username or email
         User user = userRepository.findByUsername(authRequest.getUsername())
                 .orElseThrow(() -> new InvalidCredentialsException("Invalid username"));
 
         // Check if the provided password matches the stored hashed password
-        if (!passwordEncoder.matches(authRequest.getPassword(), user.getPassword())) {
-            throw new InvalidCredentialsException("Invalid password");
-        }
-
-        // Generate a JWT token
-        String jwt = jwtUtil.generateToken(new CustomUserDetails(user));
+        return passwordHashingService.matches(authRequest.getPassword(), user.getPassword())
+                .thenApply(matches -> {
+                    if (!matches) {
+                        throw new InvalidCredentialsException("Invalid password");
+                    }
+                    if (rehashOnLogin && passwordHashingService.needsRehash(user.getPassword())) {
+                        rehash(user, authRequest.getPassword());
+                    }
+
+                    // Generate a JWT token
+                    String jwt = jwtUtil.generateToken(new CustomUserDetails(user));
+
+                    // Return a success response with user details and the token
+                    return new AuthResponse(
+                            "Login successful",
+                            user.getUsername(),
+                            user.getRole().getName(),
+                            jwt
+                    );
+                });
+    }
 
-        // Return a success response with user details and the token
-        return new AuthResponse(
-                "Login successful",
-                user.getUsername(),
-                user.getRole().getName(),
-                jwt
-        );
+    // Upgrades the stored hash to the configured cost in the background; encoding is a separate task on the
+    // hashing pool, and only the password column is written, so changes to the user made meanwhile are kept
+    private void rehash(User user, String rawPassword) {
+        String oldHash = user.getPassword();
+        try {
+            passwordHashingService.encode(rawPassword)
+                    .thenApply(encoded -> userRepository.replacePasswordHash(user.getUsername(), oldHash, encoded))
+                    .whenComplete((updated, failure) -> {
+                        if (failure != null) {
+                            logger.error("Failed to upgrade the password hash of user {}", user.getUsername(), failure);
+                        }
+                    });
+        } catch (LoginThrottledException e) {
+            // Pool is busy; the hash is upgraded on a later login instead
+        }
     }
 }
-
@@ -0,0 +1,250 @@
+package com.quardintel.product_api.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedCacheTest {
+
+    private static BoundedCache cache(long maximumWeight) {
+        return new BoundedCache("test", maximumWeight, null, null, value -> 1);
+    }
+
+    /**
+     * Test: Entries beyond the weight bound are evicted and counted
+     */
+    @Test
+    void testPut_EvictsToMaximumWeight() {
+        BoundedCache cache = cache(10);
+
+        for (int i = 0; i < 25; i++) {
+            cache.put(i, "value" + i);
+        }
+
+        CacheStats stats = cache.stats();
+        assertEquals(10, stats.estimatedSize());
+        assertEquals(10, stats.weightedSize());
+        assertEquals(15, stats.evictionCount());
+        assertEquals(15, stats.evictionWeight());
+    }
+
+    /**
+     * Test: Frequently read entries survive a scan of one-off keys that alone would fill the cache twice
+     */
+    @Test
+    void testPut_ScanDoesNotFlushHotEntries() {
+        BoundedCache cache = cache(100);
+        for (int i = 0; i < 100; i++) {
+            cache.put("hot" + i, i);
+        }
+        for (int read = 0; read < 5; read++) {
+            for (int i = 0; i < 100; i++) {
+                assertNotNull(cache.get("hot" + i));
+            }
+        }
+
+        for (int i = 0; i < 200; i++) {
+            cache.put("scan" + i, i);
+        }
+
+        int hot = 0;
+        int scanned = 0;
+        for (int i = 0; i < 100; i++) {
+            hot += cache.get("hot" + i) != null ? 1 : 0;
+        }
+        for (int i = 0; i < 200; i++) {
+            scanned += cache.get("scan" + i) != null ? 1 : 0;
+        }
+        assertTrue(hot >= 95, "Hot entries left: " + hot);
+        assertTrue(scanned <= 5, "Scanned entries admitted: " + scanned);
+    }
+
+    /**
+     * Test: Weights come from the weigher; a value heavier than the bound is not stored and removes the old one
+     */
+    @Test
+    void testPut_UsesWeigher() {
+        BoundedCache cache = new BoundedCache("test", 10, null, null, value -> ((String) value).length());
+
+        cache.put("a", "12345");
+        cache.put("b", "1234");
+        assertEquals(9, cache.stats().weightedSize());
+
+        cache.put("a", "12345678901");
+        assertNull(cache.get("a"));
+        assertEquals(4, cache.stats().weightedSize());
+
+        cache.put("c", "1234567");
+        assertTrue(cache.stats().weightedSize() <= 10);
+        assertEquals(1, cache.stats().evictionCount());
+    }
+
+    /**
+     * Test: Entries expire a fixed time after being written, even if read in between
+     */
+    @Test
+    void testGet_ExpiresAfterWrite() throws InterruptedException {
+        BoundedCache cache = new BoundedCache("test", 100, Duration.ofMillis(200), null, value -> 1);
+        cache.put("key", "value");
+        assertNotNull(cache.get("key"));
+
+        Thread.sleep(300);
+
+        assertNull(cache.get("key"));
+        assertEquals(1, cache.stats().evictionCount());
+        assertEquals(0, cache.stats().estimatedSize());
+    }
+
+    /**
+     * Test: Entries expire once they have not been read for the access timeout, and reads keep them alive
+     */
+    @Test
+    void testGet_ExpiresAfterAccess() throws InterruptedException {
+        BoundedCache cache = new BoundedCache("test", 100, null, Duration.ofMillis(500), value -> 1);
+        cache.put("key", "value");
+        for (int i = 0; i < 4; i++) {
+            Thread.sleep(200);
+            assertNotNull(cache.get("key"), "Expired despite reads");
+        }
+
+        Thread.sleep(700);
+
+        assertNull(cache.get("key"));
+    }
+
+    /**
+     * Test: Hits, misses and loads are counted, including failed loads
+     */
+    @Test
+    void testStats_CountsLookupsAndLoads() {
+        BoundedCache cache = cache(100);
+
+        assertNull(cache.get("missing"));
+        assertEquals("loaded", cache.get("key", () -> "loaded"));
+        assertEquals("loaded", cache.get("key", () -> "reloaded"));
+        assertThrows(Cache.ValueRetrievalException.class, () -> cache.get("broken", () -> {
+            throw new IllegalStateException("Load failed");
+        }));
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.hitCount());
+        assertEquals(3, stats.missCount());
+        assertEquals(0.25, stats.hitRate());
+        assertEquals(1, stats.loadSuccessCount());
+        assertEquals(1, stats.loadFailureCount());
+        assertTrue(stats.totalLoadTimeNanos() > 0);
+        assertEquals(1, stats.estimatedSize());
+        assertEquals(100, stats.maximumWeight());
+    }
+
+    /**
+     * Test: Concurrent misses of one key run the loader once and share its value
+     */
+    @Test
+    void testGet_ConcurrentMissesLoadOnce() throws Exception {
+        BoundedCache cache = cache(100);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await(5, TimeUnit.SECONDS);
+                    return cache.get("key", () -> {
+                        Thread.sleep(100);
+                        return calls.incrementAndGet();
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> result : results) {
+                assertEquals(1, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, calls.get());
+    }
+
+    /**
+     * Test: Targeted invalidation removes only the matching entries and gives their weight back
+     */
+    @Test
+    void testInvalidateIf_RemovesMatches() {
+        BoundedCache cache = cache(100);
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, i);
+        }
+
+        assertEquals(5, cache.invalidateIf((key, value) -> (Integer) value % 2 == 0));
+
+        assertNull(cache.get(2));
+        assertNotNull(cache.get(3));
+        assertEquals(5, cache.stats().weightedSize());
+        assertEquals(0, cache.stats().evictionCount());
+    }
+
+    /**
+     * Test: Tagged invalidation removes the entries carrying the tag and follows replaced and evicted entries
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testInvalidateTagged_UsesTagIndex() {
+        BoundedCache cache = new BoundedCache("test", 100, null, null, value -> 1, value -> (List<Integer>) value);
+        cache.put("page1", List.of(1, 2));
+        cache.put("page2", List.of(2, 3));
+        cache.put("page3", List.of(3));
+
+        assertEquals(2, cache.invalidateTagged(2));
+        assertNull(cache.get("page1"));
+        assertNull(cache.get("page2"));
+        assertNotNull(cache.get("page3"));
+
+        cache.put("page3", List.of(4)); // Replaced: no longer tagged 3
+        assertEquals(0, cache.invalidateTagged(3));
+        cache.evict("page3");
+        assertEquals(0, cache.invalidateTagged(4));
+        assertEquals(0, cache.stats().weightedSize());
+    }
+
+    /**
+     * Test: A value loaded while its key is evicted is returned to the caller but not stored
+     */
+    @Test
+    void testGet_EvictDuringLoadDropsResult() throws Exception {
+        BoundedCache cache = cache(100);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch evicted = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> load = executor.submit(() -> cache.get("key", () -> {
+                loading.countDown();
+                evicted.await(5, TimeUnit.SECONDS);
+                return "stale";
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            cache.evict("key");
+            evicted.countDown();
+
+            assertEquals("stale", load.get(5, TimeUnit.SECONDS));
+            assertNull(cache.get("key"));
+            assertEquals("fresh", cache.get("key", () -> "fresh"));
+            assertEquals("fresh", cache.get("key").get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.quardintel.product_api.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrequencySketchTest {
+
+    /**
+     * Test: The estimate follows the number of increments and is zero for keys never seen
+     */
+    @Test
+    void testFrequency_CountsIncrements() {
+        FrequencySketch sketch = new FrequencySketch(1_000);
+
+        for (int i = 0; i < 5; i++) {
+            sketch.increment("key");
+        }
+
+        assertEquals(5, sketch.frequency("key"));
+        assertEquals(0, sketch.frequency("other"));
+    }
+
+    /**
+     * Test: Counters stop at 15
+     */
+    @Test
+    void testFrequency_SaturatesAtFifteen() {
+        FrequencySketch sketch = new FrequencySketch(1_000);
+
+        for (int i = 0; i < 40; i++) {
+            sketch.increment("key");
+        }
+
+        assertEquals(15, sketch.frequency("key"));
+    }
+
+    /**
+     * Test: Once the sample size is reached every counter is halved, so old popularity fades out
+     */
+    @Test
+    void testIncrement_ResetHalvesCounters() {
+        FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < 15; i++) {
+            sketch.increment("hot");
+        }
+        assertEquals(15, sketch.frequency("hot"));
+
+        for (int i = 0; sketch.frequency("hot") == 15 && i < 10_000; i++) {
+            sketch.increment("key" + i);
+        }
+
+        assertEquals(7, sketch.frequency("hot"));
+    }
+}
@@ -0,0 +1,71 @@
+package com.quardintel.product_api.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedBitmapTest {
+
+    /**
+     * Test: Set operations agree with a TreeSet, across sparse and dense groups
+     */
+    @Test
+    void testSetOperationsMatchTreeSet() {
+        Random random = new Random(42);
+        for (int range : new int[]{10_000, 200_000, 3_000_000}) {
+            CompressedBitmap a = new CompressedBitmap();
+            CompressedBitmap b = new CompressedBitmap();
+            TreeSet<Long> setA = new TreeSet<>();
+            TreeSet<Long> setB = new TreeSet<>();
+            for (int i = 0; i < 20_000; i++) {
+                long x = random.nextInt(range);
+                long y = random.nextInt(range);
+                assertEquals(setA.add(x), a.add(x));
+                setB.add(y);
+                b.add(y);
+            }
+            for (int i = 0; i < 5_000; i++) {
+                long x = random.nextInt(range);
+                assertEquals(setA.remove(x), a.remove(x));
+            }
+
+            TreeSet<Long> and = new TreeSet<>(setA);
+            and.retainAll(setB);
+            TreeSet<Long> or = new TreeSet<>(setA);
+            or.addAll(setB);
+            TreeSet<Long> andNot = new TreeSet<>(setA);
+            andNot.removeAll(setB);
+
+            assertContents(setA, a);
+            assertContents(and, a.and(b));
+            assertContents(or, a.or(b));
+            assertContents(andNot, a.andNot(b));
+        }
+    }
+
+    /**
+     * Test: next() walks values after a starting point in either direction, across groups
+     */
+    @Test
+    void testNextInBothDirections() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (long value : new long[]{3, 7, 65_535, 65_536, 200_000}) {
+            bitmap.add(value);
+        }
+
+        assertArrayEquals(new long[]{3, 7, 65_535}, bitmap.next(-1, true, 3));
+        assertArrayEquals(new long[]{65_536, 200_000}, bitmap.next(65_535, true, 10));
+        assertArrayEquals(new long[]{65_536, 65_535, 7}, bitmap.next(200_000, false, 3));
+        assertArrayEquals(new long[]{200_000}, bitmap.next(Long.MAX_VALUE, false, 1));
+        assertArrayEquals(new long[0], bitmap.next(3, false, 5));
+    }
+
+    private static void assertContents(TreeSet<Long> expected, CompressedBitmap actual) {
+        assertEquals(expected.size(), actual.cardinality());
+        assertArrayEquals(expected.stream().mapToLong(Long::longValue).toArray(),
+                actual.next(-1, true, expected.size() + 1));
+    }
+}
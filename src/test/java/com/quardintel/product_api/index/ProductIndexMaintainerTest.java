@@ -0,0 +1,116 @@
+package com.quardintel.product_api.index;
+
+import com.quardintel.product_api.event.ProductChangedEvent;
+import com.quardintel.product_api.event.ProductSnapshot;
+import com.quardintel.product_api.event.ProductsImportedEvent;
+import com.quardintel.product_api.event.StockLevel;
+import com.quardintel.product_api.model.Product;
+import com.quardintel.product_api.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductIndexMaintainerTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProductRangeIndex rangeIndex;
+    private ProductIndexMaintainer maintainer;
+
+    @BeforeEach
+    void setUp() {
+        rangeIndex = new ProductRangeIndex();
+        maintainer = new ProductIndexMaintainer(List.of(rangeIndex), productRepository, entityManager, transactionManager);
+    }
+
+    private static ProductSnapshot product(long id, double price, int quantity, long version) {
+        return new ProductSnapshot(id, "Product " + id, null, price, quantity, Set.of(), version);
+    }
+
+    private long[] quantities() {
+        return rangeIndex.range(ProductRangeIndex.Field.QUANTITY, 0, Long.MAX_VALUE, true, null, 10).keys();
+    }
+
+    /**
+     * Test: A snapshot older than the indexed version is ignored
+     */
+    @Test
+    void testOlderSnapshotIgnored() {
+        maintainer.onProductChanged(ProductChangedEvent.updated(product(1, 10.0, 10, 2)));
+        maintainer.onProductChanged(ProductChangedEvent.updated(product(1, 10.0, 50, 1)));
+
+        assertArrayEquals(new long[]{10}, quantities());
+    }
+
+    /**
+     * Test: Stock changes set the stored quantity in version order; a stock change already part of a newer
+     * snapshot is ignored
+     */
+    @Test
+    void testStockChangesInOrder() {
+        maintainer.onProductsImported(new ProductsImportedEvent(
+                List.of(product(1, 10.0, 10, 0))));
+        maintainer.onProductChanged(ProductChangedEvent.stockChanged(1L, -2, new StockLevel(8, 1)));
+        maintainer.onProductChanged(ProductChangedEvent.updated(product(1, 10.0, 20, 3)));
+        maintainer.onProductChanged(ProductChangedEvent.stockChanged(1L, -1, new StockLevel(7, 2)));
+
+        assertArrayEquals(new long[]{20}, quantities());
+        verifyNoInteractions(productRepository);
+    }
+
+    /**
+     * Test: A stock change that arrives before the change preceding it reloads the product, and the late
+     * change is then ignored
+     */
+    @Test
+    void testStockChangeAfterGapReloads() {
+        Product stored = new Product();
+        stored.setId(1L);
+        stored.setName("Product 1");
+        stored.setPrice(25.0);
+        stored.setQuantity(4);
+        stored.setVersion(3L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(stored));
+
+        maintainer.onProductChanged(ProductChangedEvent.updated(product(1, 10.0, 10, 1)));
+        maintainer.onProductChanged(ProductChangedEvent.stockChanged(1L, -1, new StockLevel(4, 3))); // Version 2 not seen yet
+        maintainer.onProductChanged(ProductChangedEvent.updated(product(1, 25.0, 5, 2)));
+
+        assertArrayEquals(new long[]{4}, quantities());
+        assertArrayEquals(new long[]{1}, rangeIndex.range(ProductRangeIndex.Field.PRICE,
+                ProductRangeIndex.priceKey(20), ProductRangeIndex.priceKey(30), true, null, 10).ids());
+    }
+
+    /**
+     * Test: A change that arrives after the product's deletion does not bring it back
+     */
+    @Test
+    void testLateChangeAfterDeletionIgnored() {
+        maintainer.onProductChanged(ProductChangedEvent.added(product(1, 10.0, 10, 0)));
+        maintainer.onProductChanged(ProductChangedEvent.deleted(1L));
+        maintainer.onProductChanged(ProductChangedEvent.updated(product(1, 10.0, 10, 1)));
+        maintainer.onProductChanged(ProductChangedEvent.stockChanged(1L, -1, new StockLevel(9, 2)));
+
+        assertEquals(0, quantities().length);
+        verifyNoInteractions(productRepository);
+    }
+}
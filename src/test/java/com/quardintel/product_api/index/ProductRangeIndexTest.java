@@ -0,0 +1,71 @@
+package com.quardintel.product_api.index;
+
+import com.quardintel.product_api.event.ProductSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductRangeIndexTest {
+
+    private static ProductSnapshot product(long id, double price, int quantity) {
+        return new ProductSnapshot(id, "Product " + id, null, price, quantity, Set.of(), 0L);
+    }
+
+    /**
+     * Test: Price keys keep the ordering of the prices they encode
+     */
+    @Test
+    void testPriceKeyPreservesOrder() {
+        double[] prices = {-10.5, -0.01, 0, 0.01, 1, 9.99, 10, 1e9};
+        for (int i = 1; i < prices.length; i++) {
+            assertTrue(ProductRangeIndex.priceKey(prices[i - 1]) < ProductRangeIndex.priceKey(prices[i]));
+        }
+    }
+
+    /**
+     * Test: Price range is inclusive, ordered by price then ID, and pages continue after the cursor position
+     */
+    @Test
+    void testPriceRangePagination() {
+        ProductRangeIndex index = new ProductRangeIndex();
+        index.putAll(List.of(product(1, 5, 1), product(2, 20, 1), product(3, 10, 1),
+                product(4, 10, 1), product(5, 30, 1), product(6, 15, 1)));
+
+        long min = ProductRangeIndex.priceKey(10);
+        long max = ProductRangeIndex.priceKey(20);
+        List<Long> ids = new ArrayList<>();
+        long[] after = null;
+        ProductRangeIndex.Slice slice;
+        do {
+            slice = index.range(ProductRangeIndex.Field.PRICE, min, max, true, after, 2);
+            for (long id : slice.ids()) {
+                ids.add(id);
+            }
+            int last = slice.ids().length - 1;
+            after = last < 0 ? null : new long[]{slice.keys()[last], slice.ids()[last]};
+        } while (slice.ids().length == 2);
+
+        assertEquals(List.of(3L, 4L, 6L, 2L), ids);
+    }
+
+    /**
+     * Test: Stock changes and updates move products within the quantity index; removed products disappear
+     */
+    @Test
+    void testQuantityIndexFollowsChanges() {
+        ProductRangeIndex index = new ProductRangeIndex();
+        index.putAll(List.of(product(1, 1, 50), product(2, 1, 8), product(3, 1, 3)));
+
+        index.setStock(1L, 5);        // 50 -> 5
+        index.put(product(2, 1, 100)); // 8 -> 100
+        index.remove(3L);
+
+        ProductRangeIndex.Slice below10 = index.range(ProductRangeIndex.Field.QUANTITY, 0, 9, false, null, 10);
+        assertArrayEquals(new long[]{1L}, below10.ids());
+        assertArrayEquals(new long[]{5L}, below10.keys());
+    }
+}
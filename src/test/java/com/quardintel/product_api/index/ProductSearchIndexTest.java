@@ -0,0 +1,96 @@
+package com.quardintel.product_api.index;
+
+import com.quardintel.product_api.dto.ProductSearchHit;
+import com.quardintel.product_api.event.ProductSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.putAll(List.of(
+                product(1L, "Wireless Mouse", "Ergonomic mouse with USB receiver"),
+                product(2L, "Mouse Pad", "Large desk pad"),
+                product(3L, "USB Keyboard", "Mechanical keyboard, wired"),
+                product(4L, "Desk Lamp", "LED lamp for the office desk")));
+    }
+
+    /**
+     * Test: Name matches rank above description-only matches
+     */
+    @Test
+    void testRanksNameMatchesFirst() {
+        List<Long> ids = ids(index.search("desk", 10));
+
+        assertEquals(List.of(4L, 2L), ids);
+    }
+
+    /**
+     * Test: Query terms match as prefixes and every term must match
+     */
+    @Test
+    void testPrefixAndAllTermsMatch() {
+        assertEquals(List.of(1L, 3L), ids(index.search("usb", 10)).stream().sorted().toList());
+        assertEquals(List.of(3L), ids(index.search("keyb us", 10)));
+        assertTrue(index.search("mouse lamp", 10).isEmpty());
+    }
+
+    /**
+     * Test: A prefix matching many terms finds the products of every one of them, also those sorting last,
+     * and single characters only match exactly
+     */
+    @Test
+    void testPrefixWithManyExpansions() {
+        List<ProductSnapshot> products = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String suffix = "" + (char) ('a' + i / 26) + (char) ('a' + i % 26);
+            products.add(product(100L + i, "Cable item" + suffix, "Spare part"));
+        }
+        products.add(product(200L, "Itemzz", "Special spare part"));
+        index.putAll(products);
+
+        assertEquals(101, index.search("item", 101).size());
+        assertEquals(List.of(200L), ids(index.search("item special", 10))); // Only match sorts after the others
+        assertTrue(index.search("i", 10).isEmpty());
+    }
+
+    /**
+     * Test: Updates replace the old terms and removals drop the product
+     */
+    @Test
+    void testUpdateAndRemove() {
+        index.put(product(2L, "Gaming Surface", "Large desk pad"));
+        assertEquals(List.of(1L), ids(index.search("mouse", 10)));
+        assertEquals(List.of(2L), ids(index.search("gaming", 10)));
+
+        index.remove(1L);
+        assertTrue(index.search("mouse", 10).isEmpty());
+        assertEquals(3, index.size());
+    }
+
+    /**
+     * Test: Queries without any word characters are rejected
+     */
+    @Test
+    void testRejectsEmptyQuery() {
+        assertThrows(IllegalArgumentException.class, () -> index.search(" -- ", 10));
+    }
+
+    private static ProductSnapshot product(Long id, String name, String description) {
+        return new ProductSnapshot(id, name, description, 10.0, 5, Set.of(), 0L);
+    }
+
+    private static List<Long> ids(List<ProductSearchHit> hits) {
+        return hits.stream().map(ProductSearchHit::id).toList();
+    }
+}
@@ -0,0 +1,77 @@
+package com.quardintel.product_api.integration;
+
+import com.quardintel.product_api.security.JwtUtil;
+import com.quardintel.product_api.security.UserStateCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Admin-only endpoints must refuse tokens that only carry ROLE_USER.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AdminAccessIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @MockitoBean
+    private UserStateCache userStateCache;
+
+    private String userToken;
+
+    @BeforeEach
+    void setUp() {
+        when(userStateCache.isActive("user")).thenReturn(true);
+        userToken = "Bearer " + jwtUtil.generateToken(User.withUsername("user").password("").roles("USER").build());
+    }
+
+    @Test
+    void testUserCannotSwitchFlashSales() throws Exception {
+        mockMvc.perform(put("/api/admin/flash-sales/1").header(HttpHeaders.AUTHORIZATION, userToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/api/admin/flash-sales/1").header(HttpHeaders.AUTHORIZATION, userToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/admin/flash-sales").header(HttpHeaders.AUTHORIZATION, userToken))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testUserCannotImportProducts() throws Exception {
+        mockMvc.perform(post("/api/products/import").header(HttpHeaders.AUTHORIZATION, userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testUserCannotSellProducts() throws Exception {
+        mockMvc.perform(post("/api/products/sell").header(HttpHeaders.AUTHORIZATION, userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"lines\": [{\"productId\": 1, \"quantity\": 1}]}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/products/1/sell/1").header(HttpHeaders.AUTHORIZATION, userToken))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testUserCanReadProducts() throws Exception {
+        mockMvc.perform(get("/api/products").header(HttpHeaders.AUTHORIZATION, userToken))
+                .andExpect(status().isOk());
+    }
+}
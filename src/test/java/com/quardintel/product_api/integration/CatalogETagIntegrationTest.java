@@ -0,0 +1,75 @@
+package com.quardintel.product_api.integration;
+
+import com.quardintel.product_api.security.JwtUtil;
+import com.quardintel.product_api.security.UserStateCache;
+import com.quardintel.product_api.service.ProductCacheService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A client holding the current catalog ETag gets 304 only for well-formed list requests; malformed ones get 400.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class CatalogETagIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ProductCacheService productCacheService;
+
+    @MockitoBean
+    private UserStateCache userStateCache;
+
+    private String userToken;
+
+    @BeforeEach
+    void setUp() {
+        when(userStateCache.isActive("user")).thenReturn(true);
+        userToken = "Bearer " + jwtUtil.generateToken(User.withUsername("user").password("").roles("USER").build());
+    }
+
+    @Test
+    void testCurrentTagWithValidRequest() throws Exception {
+        perform("/api/products?size=5&sort=price&direction=desc").andExpect(status().isNotModified());
+        perform("/api/products/price-range?min=1&max=50").andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testCurrentTagWithMalformedListRequest() throws Exception {
+        perform("/api/products?cursor=not-a-cursor").andExpect(status().isBadRequest());
+        perform("/api/products?size=0").andExpect(status().isBadRequest());
+        perform("/api/products?sort=colour").andExpect(status().isBadRequest());
+        perform("/api/products?direction=sideways").andExpect(status().isBadRequest());
+        perform("/api/products?category=1&match=some").andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testCurrentTagWithMalformedRangeRequest() throws Exception {
+        perform("/api/products/price-range?min=50&max=1").andExpect(status().isBadRequest());
+        perform("/api/products/price-range?cursor=not-a-cursor").andExpect(status().isBadRequest());
+        perform("/api/products/stock-range?size=500").andExpect(status().isBadRequest());
+        perform("/api/products/stock-range?direction=sideways").andExpect(status().isBadRequest());
+    }
+
+    private ResultActions perform(String uri) throws Exception {
+        return mockMvc.perform(get(uri).header(HttpHeaders.AUTHORIZATION, userToken)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"" + productCacheService.catalogETag() + "\""));
+    }
+}
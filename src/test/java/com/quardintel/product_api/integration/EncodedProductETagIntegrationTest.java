@@ -0,0 +1,90 @@
+package com.quardintel.product_api.integration;
+
+import com.quardintel.product_api.model.Product;
+import com.quardintel.product_api.repository.ProductRepository;
+import com.quardintel.product_api.security.JwtUtil;
+import com.quardintel.product_api.security.UserStateCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * With cached product JSON, the ETag of a read must still be accepted as If-Match by an update.
+ */
+@SpringBootTest(properties = "app.cache.product-json.enabled=true")
+@AutoConfigureMockMvc
+class EncodedProductETagIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @MockitoBean
+    private UserStateCache userStateCache;
+
+    private String adminToken;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        when(userStateCache.isActive("admin")).thenReturn(true);
+        adminToken = "Bearer " + jwtUtil.generateToken(User.withUsername("admin").password("").roles("ADMIN").build());
+
+        product = new Product();
+        product.setName("ETag Lamp");
+        product.setDescription("Desk lamp");
+        product.setPrice(25.0);
+        product.setQuantity(4);
+        product = productRepository.save(product);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteById(product.getId());
+    }
+
+    @Test
+    void testCachedReadETagMatchesUpdate() throws Exception {
+        String eTag = mockMvc.perform(get("/api/products/" + product.getId()).header(HttpHeaders.AUTHORIZATION, adminToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v" + product.getVersion() + "\""))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+
+        mockMvc.perform(get("/api/products/" + product.getId()).header(HttpHeaders.AUTHORIZATION, adminToken)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(put("/api/products/" + product.getId()).header(HttpHeaders.AUTHORIZATION, adminToken)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"ETag Lamp\", \"description\": \"Brighter desk lamp\", \"price\": 27.5, \"quantity\": 4}"))
+                .andExpect(status().isOk());
+
+        // The update evicted the cached JSON, so the old tag is now stale
+        mockMvc.perform(put("/api/products/" + product.getId()).header(HttpHeaders.AUTHORIZATION, adminToken)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"ETag Lamp\", \"description\": \"Desk lamp\", \"price\": 25.0, \"quantity\": 4}"))
+                .andExpect(status().isConflict());
+    }
+}
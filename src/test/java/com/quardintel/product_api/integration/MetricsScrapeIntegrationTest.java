@@ -0,0 +1,70 @@
+package com.quardintel.product_api.integration;
+
+import com.quardintel.product_api.security.JwtUtil;
+import com.quardintel.product_api.security.UserStateCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The scrape token opens /metrics, and nothing else.
+ */
+@SpringBootTest(properties = "app.metrics.scrape-token=scrape-secret")
+@AutoConfigureMockMvc
+class MetricsScrapeIntegrationTest {
+
+    private static final String SCRAPE_TOKEN = "Bearer scrape-secret";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @MockitoBean
+    private UserStateCache userStateCache;
+
+    private String userToken;
+
+    @BeforeEach
+    void setUp() {
+        when(userStateCache.isActive("user")).thenReturn(true);
+        userToken = "Bearer " + jwtUtil.generateToken(User.withUsername("user").password("").roles("USER").build());
+    }
+
+    @Test
+    void testScrapeWithToken() throws Exception {
+        mockMvc.perform(get("/metrics").header(HttpHeaders.AUTHORIZATION, SCRAPE_TOKEN))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/plain"));
+    }
+
+    @Test
+    void testScrapeWithWrongToken() throws Exception {
+        mockMvc.perform(get("/metrics").header(HttpHeaders.AUTHORIZATION, "Bearer wrong"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/metrics"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/metrics").header(HttpHeaders.AUTHORIZATION, userToken))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testScrapeTokenOnlyOpensMetrics() throws Exception {
+        mockMvc.perform(get("/api/admin/caches").header(HttpHeaders.AUTHORIZATION, SCRAPE_TOKEN))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/products").header(HttpHeaders.AUTHORIZATION, SCRAPE_TOKEN))
+                .andExpect(status().isUnauthorized());
+    }
+}
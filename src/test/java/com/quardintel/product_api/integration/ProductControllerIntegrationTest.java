@@ -1,5 +1,6 @@
 package com.quardintel.product_api.integration;
 
+import com.quardintel.product_api.dto.ProductPage;
 import com.quardintel.product_api.model.Product;
 import com.quardintel.product_api.model.Category;
 import com.quardintel.product_api.repository.ProductRepository;
@@ -70,12 +71,12 @@ public class ProductControllerIntegrationTest {
 
     @Test
     void testGetAllProducts() {
-        // Send GET request to fetch all products
-        ResponseEntity<Product[]> response = restTemplate.getForEntity("/api/products", Product[].class);
+        // Send GET request to fetch the first page of products
+        ResponseEntity<ProductPage> response = restTemplate.getForEntity("/api/products?size=10", ProductPage.class);
 
         // Validate the response
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(1, response.getBody().length);  // Adjust if more products are inserted
+        assertEquals(1, response.getBody().items().size());  // Adjust if more products are inserted
     }
 
     @Test
@@ -0,0 +1,66 @@
+package com.quardintel.product_api.repository;
+
+import com.quardintel.product_api.dto.ProductSortKey;
+import com.quardintel.product_api.dto.ProductView;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCursorTest {
+
+    private static final ProductView PRODUCT = new ProductView(42L, "Desk | Oak", "Solid", 199.5, 3, 1L);
+
+    /**
+     * Test: A cursor decodes to the position it was encoded from, for every sort key and direction
+     */
+    @Test
+    void testEncodeDecode_RoundTrip() {
+        for (ProductSortKey sort : ProductSortKey.values()) {
+            for (boolean ascending : new boolean[]{true, false}) {
+                ProductCursor cursor = ProductCursor.after(PRODUCT, sort, ascending);
+
+                ProductCursor decoded = ProductCursor.decode(cursor.encode(), sort, ascending);
+
+                assertEquals(sort, decoded.getSort());
+                assertEquals(ascending, decoded.isAscending());
+                assertEquals(42L, decoded.getId());
+                assertEquals(cursor.getValue(), decoded.getValue());
+            }
+        }
+        assertEquals("Desk | Oak", ProductCursor.decode(ProductCursor.after(PRODUCT, ProductSortKey.NAME, true).encode(),
+                ProductSortKey.NAME, true).getValue()); // The separator may appear in the value
+    }
+
+    /**
+     * Test: A cursor is only accepted for the sort key and direction it was issued for
+     */
+    @Test
+    void testDecode_MismatchedSortOrder() {
+        String token = ProductCursor.after(PRODUCT, ProductSortKey.PRICE, true).encode();
+
+        IllegalArgumentException otherKey = assertThrows(IllegalArgumentException.class,
+                () -> ProductCursor.decode(token, ProductSortKey.NAME, true));
+        assertEquals("Cursor does not match the requested sort order.", otherKey.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> ProductCursor.decode(token, ProductSortKey.PRICE, false));
+    }
+
+    /**
+     * Test: Tokens that are not well-formed cursors are rejected
+     */
+    @Test
+    void testDecode_InvalidTokens() {
+        for (String token : new String[]{"not base64!", encode("v1|PRICE|asc|42"), encode("v0|PRICE|asc|42|1.0"),
+                encode("v1|PRICE|asc|x|1.0"), encode("v1|PRICE|asc|42|cheap")}) {
+            IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                    () -> ProductCursor.decode(token, ProductSortKey.PRICE, true), token);
+            assertEquals("Invalid cursor.", ex.getMessage());
+        }
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
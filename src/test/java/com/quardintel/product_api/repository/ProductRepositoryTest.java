@@ -0,0 +1,193 @@
+package com.quardintel.product_api.repository;
+
+import com.quardintel.product_api.dto.CategoryFilter;
+import com.quardintel.product_api.dto.CategoryView;
+import com.quardintel.product_api.dto.ProductPageRequest;
+import com.quardintel.product_api.dto.ProductSortKey;
+import com.quardintel.product_api.dto.ProductView;
+import com.quardintel.product_api.model.Category;
+import com.quardintel.product_api.model.Product;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the number of SQL statements issued to read products together with their categories.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ProductRepositoryTest {
+
+    private static final int PRODUCTS = 30;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Category electronics = new Category();
+        electronics.setName("Electronics");
+        Category appliances = new Category();
+        appliances.setName("Home Appliances");
+        categoryRepository.saveAll(List.of(electronics, appliances));
+
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setDescription("Description " + i);
+            product.setPrice(10.0 + i);
+            product.setQuantity(i);
+            product.setCategories(new HashSet<>(i % 2 == 0 ? Set.of(electronics, appliances) : Set.of(electronics)));
+            productRepository.save(product);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    /**
+     * Test: A page and the categories of all its products are read in two statements, whatever the page size,
+     * without loading any entity
+     */
+    @Test
+    void testFindPage_LoadsCategoriesInOneExtraStatement() {
+        ProductPageRequest request = new ProductPageRequest(null, 20, ProductSortKey.PRICE, true,
+                null, null, null, CategoryFilter.NONE);
+
+        List<ProductView> page = productRepository.findPage(request, null, 21);
+        int links = page.stream().mapToInt(product -> product.categories().size()).sum();
+
+        assertEquals(21, page.size());
+        assertEquals(32, links); // 11 products in both categories, 10 in one
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals("Product 0", page.get(0).name()); // Page order is kept
+    }
+
+    /**
+     * Test: Walking the pages with cursors returns every product once, in sort order, with ties broken by ID
+     */
+    @Test
+    void testFindPage_CursorWalkWithTies() {
+        for (int i = 0; i < 5; i++) {
+            Product product = new Product();
+            product.setName("Tied " + i);
+            product.setDescription("Same price");
+            product.setPrice(15.0); // Same price as "Product 5"
+            product.setQuantity(1);
+            productRepository.save(product);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        for (boolean ascending : new boolean[]{true, false}) {
+            ProductPageRequest request = new ProductPageRequest(null, 4, ProductSortKey.PRICE, ascending,
+                    null, null, null, CategoryFilter.NONE);
+            List<ProductView> walked = new ArrayList<>();
+            ProductCursor after = null;
+            List<ProductView> page;
+            do {
+                page = productRepository.findPage(request, after, 4);
+                walked.addAll(page);
+                if (!page.isEmpty()) {
+                    after = ProductCursor.after(page.get(page.size() - 1), ProductSortKey.PRICE, ascending);
+                }
+            } while (page.size() == 4);
+
+            Comparator<ProductView> order = Comparator.comparing(ProductView::price).thenComparing(ProductView::id);
+            List<ProductView> expected = walked.stream().sorted(ascending ? order : order.reversed()).toList();
+            assertEquals(PRODUCTS + 5, walked.size());
+            assertEquals(PRODUCTS + 5, walked.stream().map(ProductView::id).distinct().count());
+            assertEquals(expected, walked);
+        }
+    }
+
+    /**
+     * Test: Name and price filters are applied together with the cursor
+     */
+    @Test
+    void testFindPage_FiltersWithCursor() {
+        ProductPageRequest request = new ProductPageRequest(null, 5, ProductSortKey.NAME, true,
+                "Product 1", 12.0, 25.0, CategoryFilter.NONE);
+
+        List<ProductView> first = productRepository.findPage(request, null, 5);
+        List<ProductView> second = productRepository.findPage(request,
+                ProductCursor.after(first.get(first.size() - 1), ProductSortKey.NAME, true), 5);
+
+        // "Product 1" prefix within the price range: Product 10 to Product 15
+        assertEquals(List.of("Product 10", "Product 11", "Product 12", "Product 13", "Product 14"),
+                first.stream().map(ProductView::name).toList());
+        assertEquals(List.of("Product 15"), second.stream().map(ProductView::name).toList());
+    }
+
+    /**
+     * Test: Read models looked up by ID come with their categories in two statements
+     */
+    @Test
+    void testFindViewsByIdIn_TwoStatements() {
+        List<Long> ids = productRepository.findPage(new ProductPageRequest(null, 10, ProductSortKey.ID, true,
+                null, null, null, CategoryFilter.NONE), null, 10).stream().map(ProductView::id).toList();
+        statistics.clear();
+
+        List<ProductView> products = productRepository.findViewsByIdIn(ids);
+
+        assertEquals(10, products.size());
+        assertEquals(List.of("Electronics", "Home Appliances"), products.stream()
+                .filter(product -> product.name().equals("Product 0")).findFirst().orElseThrow()
+                .categories().stream().map(CategoryView::name).toList());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    /**
+     * Test: A single product is read with its categories in one statement
+     */
+    @Test
+    void testFindById_SingleStatement() {
+        Long id = productRepository.findByName("Product 0").getId();
+        entityManager.clear();
+        statistics.clear();
+
+        Product product = productRepository.findById(id).orElseThrow();
+
+        assertEquals(2, product.getCategories().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Test: Taking stock bumps the product version, so cached copies and ETags of the product go stale
+     */
+    @Test
+    void testDecrementStock_BumpsVersion() {
+        Product product = productRepository.findByName("Product 5");
+        long version = product.getVersion();
+
+        assertEquals(1, productRepository.decrementStock(product.getId(), 2));
+        assertEquals(0, productRepository.decrementStock(product.getId(), 10)); // Only 3 left
+
+        Product updated = productRepository.findById(product.getId()).orElseThrow();
+        assertEquals(3, updated.getQuantity());
+        assertEquals(version + 1, updated.getVersion());
+    }
+}
@@ -0,0 +1,187 @@
+package com.quardintel.product_api.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private AuthenticationManager authenticationManager;
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private UserStateCache userStateCache;
+
+    private JwtAuthenticationFilter filter;
+    private Claims claims;
+
+    @BeforeEach
+    void setUp() {
+        filter = new JwtAuthenticationFilter(authenticationManager, jwtUtil, userDetailsService, userStateCache, true);
+        claims = Jwts.claims().setSubject("alice");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * Test: The token after the "Bearer " prefix is verified once and the request is authenticated from its claims
+     */
+    @Test
+    void testBearerToken_Authenticates() throws Exception {
+        List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        when(jwtUtil.verifyToken("token")).thenReturn(claims);
+        when(jwtUtil.extractAuthorities(claims)).thenReturn(authorities);
+        when(jwtUtil.validateToken(eq(claims), any())).thenReturn(true);
+        when(userStateCache.isActive("alice")).thenReturn(true);
+
+        MockFilterChain chain = filter("Bearer  token ");
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals("alice", authentication.getName());
+        assertEquals(authorities, List.copyOf(authentication.getAuthorities()));
+        verify(jwtUtil, times(1)).verifyToken("token");
+        assertNotNull(chain.getRequest()); // The request continued down the chain
+    }
+
+    /**
+     * Test: With claims-only authentication the user is not loaded; the cached account state is checked instead
+     */
+    @Test
+    void testClaimsOnly_SkipsUserLookup() throws Exception {
+        when(jwtUtil.verifyToken("token")).thenReturn(claims);
+        when(jwtUtil.extractAuthorities(claims)).thenReturn(List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        when(jwtUtil.validateToken(eq(claims), any())).thenReturn(true);
+        when(userStateCache.isActive("alice")).thenReturn(true);
+
+        filter("Bearer token");
+
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(userStateCache).isActive("alice");
+        verifyNoInteractions(userDetailsService);
+    }
+
+    /**
+     * Test: A token of a user whose account is no longer active is not accepted from its claims
+     */
+    @Test
+    void testClaimsOnly_InactiveUserRejected() throws Exception {
+        when(jwtUtil.verifyToken("token")).thenReturn(claims);
+        when(jwtUtil.extractAuthorities(claims)).thenReturn(List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        when(userStateCache.isActive("alice")).thenReturn(false);
+
+        filter("Bearer token");
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(jwtUtil, never()).validateToken(any(Claims.class), any());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    /**
+     * Test: A token issued before authorities were embedded falls back to loading the user
+     */
+    @Test
+    void testTokenWithoutAuthorities_LoadsUser() throws Exception {
+        UserDetails loaded = User.withUsername("alice").password("").roles("USER").build();
+        when(jwtUtil.verifyToken("token")).thenReturn(claims);
+        when(jwtUtil.extractAuthorities(claims)).thenReturn(null);
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(loaded);
+        when(jwtUtil.validateToken(claims, loaded)).thenReturn(true);
+
+        filter("Bearer token");
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertSame(loaded, authentication.getPrincipal());
+        verifyNoInteractions(userStateCache);
+    }
+
+    /**
+     * Test: With claims-only authentication switched off every token loads the user
+     */
+    @Test
+    void testClaimsOnlyOff_LoadsUser() throws Exception {
+        filter = new JwtAuthenticationFilter(authenticationManager, jwtUtil, userDetailsService, userStateCache, false);
+        UserDetails loaded = User.withUsername("alice").password("").roles("USER").build();
+        when(jwtUtil.verifyToken("token")).thenReturn(claims);
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(loaded);
+        when(jwtUtil.validateToken(claims, loaded)).thenReturn(true);
+
+        filter("Bearer token");
+
+        assertSame(loaded, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        verify(jwtUtil, never()).extractAuthorities(any());
+        verifyNoInteractions(userStateCache);
+    }
+
+    /**
+     * Test: Headers without the "Bearer " prefix are ignored; the request continues unauthenticated
+     */
+    @Test
+    void testNonBearerHeaders_Ignored() throws Exception {
+        for (String header : new String[]{"token", "Basic dXNlcjpwYXNz", "bearer token", "Bearertoken"}) {
+            MockFilterChain chain = filter(header);
+
+            assertNull(SecurityContextHolder.getContext().getAuthentication(), header);
+            assertNotNull(chain.getRequest(), header);
+        }
+        filter(null);
+        verifyNoInteractions(jwtUtil, userDetailsService, userStateCache);
+    }
+
+    /**
+     * Test: A token that fails verification leaves the request unauthenticated instead of failing it
+     */
+    @Test
+    void testInvalidToken_ContinuesUnauthenticated() throws Exception {
+        when(jwtUtil.verifyToken("broken")).thenThrow(new RuntimeException("Token parsing failed"));
+
+        MockFilterChain chain = filter("Bearer broken");
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertNotNull(chain.getRequest());
+    }
+
+    private MockFilterChain filter(String authorization) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        if (authorization != null) {
+            request.addHeader(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return chain;
+    }
+}
@@ -0,0 +1,116 @@
+package com.quardintel.product_api.security;
+
+import com.quardintel.product_api.metrics.MetricsRegistry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private final MutableClock clock = new MutableClock(Instant.now());
+    private JwtUtil jwtUtil;
+    private UserDetails alice;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil(100, new MetricsRegistry(), clock);
+        alice = User.withUsername("alice").password("").roles("USER").build();
+    }
+
+    /**
+     * Test: A verified token's claims are cached, so the next verification returns them without parsing
+     */
+    @Test
+    void testVerifyToken_CachesClaims() {
+        String token = jwtUtil.generateToken(alice);
+
+        Claims first = jwtUtil.verifyToken(token);
+        Claims second = jwtUtil.verifyToken(token);
+
+        assertSame(first, second);
+        assertEquals("alice", second.getSubject());
+        assertTrue(jwtUtil.validateToken(second, alice));
+    }
+
+    /**
+     * Test: Cached claims of a token that has since expired are rejected and dropped, then the token fails parsing
+     */
+    @Test
+    void testVerifyToken_ExpiredCachedClaims() {
+        String token = jwtUtil.generateToken(alice);
+        jwtUtil.verifyToken(token);
+        clock.advance(Duration.ofHours(2));
+
+        RuntimeException cached = assertThrows(RuntimeException.class, () -> jwtUtil.verifyToken(token));
+        assertEquals("Token has expired", cached.getMessage());
+        assertNull(cached.getCause()); // Rejected from the cache
+
+        RuntimeException parsed = assertThrows(RuntimeException.class, () -> jwtUtil.verifyToken(token));
+        assertEquals("Token has expired", parsed.getMessage());
+        assertInstanceOf(ExpiredJwtException.class, parsed.getCause()); // Evicted, so parsed again
+    }
+
+    /**
+     * Test: A token with a tampered signature is rejected and not cached
+     */
+    @Test
+    void testVerifyToken_TamperedSignature() {
+        String token = jwtUtil.generateToken(alice);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(RuntimeException.class, () -> jwtUtil.verifyToken(tampered));
+        assertThrows(RuntimeException.class, () -> jwtUtil.verifyToken(tampered));
+        assertEquals("alice", jwtUtil.verifyToken(token).getSubject());
+    }
+
+    /**
+     * Test: The user's authorities are embedded in the token and read back from its claims
+     */
+    @Test
+    void testExtractAuthorities() {
+        Claims claims = jwtUtil.verifyToken(jwtUtil.generateToken(alice));
+
+        assertEquals(List.of("ROLE_USER"), jwtUtil.extractAuthorities(claims).stream()
+                .map(GrantedAuthority::getAuthority).toList());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
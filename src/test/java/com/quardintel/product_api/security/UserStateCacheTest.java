@@ -0,0 +1,92 @@
+package com.quardintel.product_api.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserStateCacheTest {
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    private UserStateCache userStateCache;
+
+    @BeforeEach
+    void setUp() {
+        userStateCache = new UserStateCache(userDetailsService, 100, Duration.ofMinutes(5));
+    }
+
+    /**
+     * Test: The account is loaded once and its state served from the cache afterwards
+     */
+    @Test
+    void testIsActive_LoadsOnce() {
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(user("alice", true));
+
+        assertTrue(userStateCache.isActive("alice"));
+        assertTrue(userStateCache.isActive("alice"));
+
+        verify(userDetailsService, times(1)).loadUserByUsername("alice");
+    }
+
+    /**
+     * Test: A disabled account stays cached as active until invalidated, and is inactive right after
+     */
+    @Test
+    void testIsActive_DisabledUserAfterInvalidate() {
+        when(userDetailsService.loadUserByUsername("alice"))
+                .thenReturn(user("alice", true))
+                .thenReturn(user("alice", false));
+        assertTrue(userStateCache.isActive("alice"));
+
+        userStateCache.invalidate("alice");
+
+        assertFalse(userStateCache.isActive("alice"));
+        verify(userDetailsService, times(2)).loadUserByUsername("alice");
+    }
+
+    /**
+     * Test: Unknown users are inactive, and that answer is cached too
+     */
+    @Test
+    void testIsActive_UnknownUser() {
+        when(userDetailsService.loadUserByUsername("ghost")).thenThrow(new UsernameNotFoundException("ghost"));
+
+        assertFalse(userStateCache.isActive("ghost"));
+        assertFalse(userStateCache.isActive("ghost"));
+
+        verify(userDetailsService, times(1)).loadUserByUsername("ghost");
+    }
+
+    /**
+     * Test: Cached states are reloaded after the TTL, so a change is picked up without invalidation
+     */
+    @Test
+    void testIsActive_ReloadsAfterTtl() throws InterruptedException {
+        userStateCache = new UserStateCache(userDetailsService, 100, Duration.ofMillis(100));
+        when(userDetailsService.loadUserByUsername("alice"))
+                .thenReturn(user("alice", true))
+                .thenReturn(user("alice", false));
+        assertTrue(userStateCache.isActive("alice"));
+
+        Thread.sleep(200);
+
+        assertFalse(userStateCache.isActive("alice"));
+    }
+
+    private static UserDetails user(String username, boolean enabled) {
+        return User.withUsername(username).password("").roles("USER").disabled(!enabled).build();
+    }
+}
@@ -0,0 +1,232 @@
+package com.quardintel.product_api.service;
+
+import com.quardintel.product_api.event.StockLevel;
+import com.quardintel.product_api.metrics.InventoryMetrics;
+import com.quardintel.product_api.metrics.MetricsRegistry;
+import com.quardintel.product_api.model.FlashSaleCheckpoint;
+import com.quardintel.product_api.model.Product;
+import com.quardintel.product_api.repository.FlashSaleCheckpointRepository;
+import com.quardintel.product_api.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FlashSaleServiceTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private FlashSaleCheckpointRepository checkpointRepository;
+
+    @Mock
+    private ProductCacheService productCacheService;
+
+    @Mock
+    private InventoryMetrics inventoryMetrics;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicLong checkpoint = new AtomicLong(); // Stored applied sequence
+    private FlashSaleService flashSaleService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(checkpointRepository.findById(FlashSaleCheckpoint.ID))
+                .thenAnswer(invocation -> Optional.of(new FlashSaleCheckpoint(FlashSaleCheckpoint.ID, checkpoint.get())));
+        lenient().when(checkpointRepository.save(any(FlashSaleCheckpoint.class))).thenAnswer(invocation -> {
+            FlashSaleCheckpoint saved = invocation.getArgument(0);
+            checkpoint.set(saved.getAppliedSequence());
+            return saved;
+        });
+        lenient().when(productRepository.applyStockSold(anyLong(), anyInt())).thenReturn(1);
+        lenient().when(productRepository.findStockLevelById(anyLong())).thenReturn(new StockLevel(0, 1L));
+        flashSaleService = new FlashSaleService(productRepository, checkpointRepository, productCacheService,
+                inventoryMetrics, eventPublisher, transactionManager, new MetricsRegistry(), directory.toString(),
+                Duration.ofHours(1), List.of());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        flashSaleService.destroy();
+    }
+
+    /**
+     * Test: Startup applies only the journaled sales past the checkpoint, coalesced per product
+     */
+    @Test
+    void testStartup_ReplaysPastCheckpoint() throws IOException {
+        try (StockJournal journal = new StockJournal(directory, 0)) {
+            journal.append(1, 2); // Sequence 1, already applied
+            journal.append(1, 3);
+            journal.append(2, 1);
+            journal.append(1, 4);
+        }
+        checkpoint.set(1);
+
+        flashSaleService.afterSingletonsInstantiated();
+
+        verify(productRepository).applyStockSold(1L, 7);
+        verify(productRepository).applyStockSold(2L, 1);
+        verify(productRepository, times(2)).applyStockSold(anyLong(), anyInt());
+        assertEquals(4, checkpoint.get());
+        assertTrue(StockJournal.segments(directory).isEmpty());
+    }
+
+    /**
+     * Test: A flush whose commit reported failure after the database applied it is not applied again
+     */
+    @Test
+    void testFlush_FailsAfterCommit() throws IOException {
+        when(productRepository.findLockedById(1L)).thenReturn(Optional.of(product(1L, 10)));
+        flashSaleService.afterSingletonsInstantiated();
+        flashSaleService.enable(1L);
+        assertTrue(flashSaleService.sell(1L, 3));
+        doThrow(new TransactionSystemException("Commit outcome unknown"))
+                .doNothing()
+                .when(transactionManager).commit(any());
+
+        assertThrows(TransactionSystemException.class, () -> flashSaleService.flush());
+        assertEquals(2, StockJournal.segments(directory).size()); // Applied segment kept, next segment open
+
+        assertTrue(flashSaleService.sell(1L, 2));
+        flashSaleService.flush();
+
+        verify(productRepository).applyStockSold(1L, 3);
+        verify(productRepository).applyStockSold(1L, 2);
+        assertEquals(2, checkpoint.get());
+        assertEquals(1, StockJournal.segments(directory).size());
+        assertEquals(5, flashSaleService.status().get(0).available());
+    }
+
+    /**
+     * Test: The mode is visible while the locked row is read, so a database sale finishing meanwhile rolls
+     * back, and flash sales arriving meanwhile wait for the counter instead of going to the database
+     */
+    @Test
+    void testEnable_DuringDatabaseSale() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch saleStarted = new CountDownLatch(1);
+        AtomicBoolean enabledWhileReading = new AtomicBoolean();
+        AtomicBoolean soldFromCounter = new AtomicBoolean();
+        when(productRepository.findLockedById(1L)).thenAnswer(invocation -> {
+            enabledWhileReading.set(flashSaleService.isEnabled(1L)); // What a database sale re-checks after its update
+            reading.countDown();
+            saleStarted.await(5, TimeUnit.SECONDS);
+            Thread.sleep(50); // Gives the sale time to reach the gate
+            return Optional.of(product(1L, 4));
+        });
+        try {
+            flashSaleService.afterSingletonsInstantiated();
+            Future<Boolean> enabled = executor.submit(() -> flashSaleService.enable(1L) != null);
+            assertTrue(reading.await(5, TimeUnit.SECONDS));
+
+            Thread sale = new Thread(() -> {
+                saleStarted.countDown();
+                soldFromCounter.set(flashSaleService.sell(1L, 4));
+            });
+            sale.start();
+            assertTrue(enabled.get(5, TimeUnit.SECONDS));
+            sale.join(5000);
+
+            assertTrue(enabledWhileReading.get());
+            assertTrue(soldFromCounter.get());
+            assertEquals(0, flashSaleService.status().get(0).available());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test: Switching off while sales run applies every flash sale; later sales go to the database
+     */
+    @Test
+    void testDisable_DuringSales() throws Exception {
+        when(productRepository.findLockedById(1L)).thenReturn(Optional.of(product(1L, 1_000)));
+        AtomicInteger applied = new AtomicInteger();
+        when(productRepository.applyStockSold(eq(1L), anyInt())).thenAnswer(invocation -> {
+            applied.addAndGet(invocation.getArgument(1));
+            return 1;
+        });
+        flashSaleService.afterSingletonsInstantiated();
+        flashSaleService.enable(1L);
+
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicInteger flashSold = new AtomicInteger();
+        AtomicInteger databaseSales = new AtomicInteger();
+        CountDownLatch selling = new CountDownLatch(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    selling.countDown();
+                    for (int i = 0; i < 100; i++) {
+                        if (flashSaleService.sell(1L, 1)) {
+                            flashSold.incrementAndGet();
+                        } else {
+                            databaseSales.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            selling.await(5, TimeUnit.SECONDS);
+            assertTrue(flashSaleService.disable(1L));
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertFalse(flashSaleService.isEnabled(1L));
+        assertEquals(threads * 100, flashSold.get() + databaseSales.get());
+        assertEquals(flashSold.get(), applied.get());
+        assertFalse(flashSaleService.sell(1L, 1));
+    }
+
+    private static Product product(Long id, int quantity) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Flash " + id);
+        product.setQuantity(quantity);
+        product.setVersion(1L);
+        return product;
+    }
+}
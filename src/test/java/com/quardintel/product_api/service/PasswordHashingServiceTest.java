@@ -0,0 +1,99 @@
+package com.quardintel.product_api.service;
+
+import com.quardintel.product_api.dto.AuthResponse;
+import com.quardintel.product_api.exception.GlobalExceptionHandler;
+import com.quardintel.product_api.exception.LoginThrottledException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PasswordHashingServiceTest {
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    private PasswordHashingService hashingService;
+
+    @AfterEach
+    void tearDown() {
+        if (hashingService != null) {
+            hashingService.destroy();
+        }
+    }
+
+    /**
+     * Test: Password checks run on the hashing pool, not on the calling thread
+     */
+    @Test
+    void testMatches_RunsOnPool() throws Exception {
+        hashingService = new PasswordHashingService(passwordEncoder, 2, 10);
+        AtomicReference<String> thread = new AtomicReference<>();
+        when(passwordEncoder.matches("secret", "hash")).thenAnswer(invocation -> {
+            thread.set(Thread.currentThread().getName());
+            return true;
+        });
+
+        assertTrue(hashingService.matches("secret", "hash").get(5, TimeUnit.SECONDS));
+
+        assertTrue(thread.get().startsWith("login-hash-"), thread.get());
+        assertEquals(1, hashingService.stats().completedCount());
+    }
+
+    /**
+     * Test: With every worker busy and the queue full, a login is rejected at once and answered with 429
+     */
+    @Test
+    void testSaturatedPool_Rejects() throws Exception {
+        hashingService = new PasswordHashingService(passwordEncoder, 1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(passwordEncoder.matches(anyString(), anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return true;
+        });
+        CompletableFuture<Boolean> running = hashingService.matches("a", "hash");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = hashingService.matches("b", "hash");
+
+        LoginThrottledException rejected = assertThrows(LoginThrottledException.class,
+                () -> hashingService.matches("c", "hash"));
+
+        assertEquals(1, hashingService.stats().rejectedCount());
+        assertEquals(1, hashingService.stats().queueDepth());
+        ResponseEntity<AuthResponse> response = new GlobalExceptionHandler().handleLoginThrottled(rejected);
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Test: Hashes with a lower BCrypt cost than configured need rehashing; hashes at the cost do not
+     */
+    @Test
+    void testNeedsRehash_ComparesCost() {
+        hashingService = new PasswordHashingService(new BCryptPasswordEncoder(5), 1, 1);
+
+        assertTrue(hashingService.needsRehash(new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(hashingService.needsRehash(new BCryptPasswordEncoder(5).encode("secret")));
+    }
+}
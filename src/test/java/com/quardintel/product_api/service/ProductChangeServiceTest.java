@@ -0,0 +1,205 @@
+package com.quardintel.product_api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quardintel.product_api.dto.ProductChangeEntry;
+import com.quardintel.product_api.dto.ProductChangePage;
+import com.quardintel.product_api.dto.ProductView;
+import com.quardintel.product_api.event.ProductChangedEvent;
+import com.quardintel.product_api.exception.SyncTokenExpiredException;
+import com.quardintel.product_api.model.ProductChange;
+import com.quardintel.product_api.repository.ProductChangeRepository;
+import com.quardintel.product_api.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductChangeServiceTest {
+
+    @Mock
+    private ProductChangeRepository productChangeRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProductChangeService productChangeService;
+
+    @BeforeEach
+    void setUp() {
+        productChangeService = new ProductChangeService(productChangeRepository, productRepository, new ObjectMapper(),
+                transactionManager, Duration.ofDays(7), Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        productChangeService.destroy();
+    }
+
+    private static ProductChange change(long sequence, long productId, ProductChangedEvent.Type type, Instant recordedAt) {
+        ProductChange change = new ProductChange(productId, type, recordedAt);
+        change.setId(sequence);
+        return change;
+    }
+
+    private static ProductChange imported(long sequence, long firstProductId, long lastProductId, Instant recordedAt) {
+        ProductChange change = new ProductChange(firstProductId, lastProductId, ProductChangedEvent.Type.ADDED, recordedAt);
+        change.setId(sequence);
+        return change;
+    }
+
+    /**
+     * Test: Each product appears once with its latest change; deleted products come back as tombstones
+     */
+    @Test
+    void testGetChanges_CoalescesAndKeepsTombstones() {
+        Instant old = Instant.now().minusSeconds(60);
+        when(productChangeRepository.findByIdGreaterThanOrderByIdAsc(10L, Limit.of(11))).thenReturn(List.of(
+                change(11, 1, ProductChangedEvent.Type.ADDED, old),
+                change(12, 2, ProductChangedEvent.Type.STOCK_CHANGED, old),
+                change(13, 1, ProductChangedEvent.Type.UPDATED, old),
+                change(14, 3, ProductChangedEvent.Type.DELETED, old)));
+        ProductView product1 = new ProductView(1L, "One", "First", 10.0, 5, 2L);
+        ProductView product2 = new ProductView(2L, "Two", "Second", 20.0, 3, 7L);
+        when(productRepository.findViewsByIdIn(List.of(2L, 1L))).thenReturn(List.of(product1, product2));
+
+        ProductChangePage page = productChangeService.getChanges("10", 10);
+
+        assertEquals(List.of(
+                new ProductChangeEntry(12, 2L, ProductChangedEvent.Type.STOCK_CHANGED, product2),
+                new ProductChangeEntry(13, 1L, ProductChangedEvent.Type.UPDATED, product1),
+                new ProductChangeEntry(14, 3L, ProductChangedEvent.Type.DELETED, null)), page.changes());
+        assertEquals("14", page.nextToken());
+        assertFalse(page.hasMore());
+    }
+
+    /**
+     * Test: An import entry stands for every product of its run and is coalesced with later entries per product
+     */
+    @Test
+    void testGetChanges_ExpandsImportRuns() {
+        Instant old = Instant.now().minusSeconds(60);
+        when(productChangeRepository.findByIdGreaterThanOrderByIdAsc(10L, Limit.of(11))).thenReturn(List.of(
+                imported(11, 1, 3, old),
+                change(12, 2, ProductChangedEvent.Type.DELETED, old)));
+        ProductView product1 = new ProductView(1L, "One", "First", 10.0, 5, 1L);
+        ProductView product3 = new ProductView(3L, "Three", "Third", 30.0, 1, 1L);
+        when(productRepository.findViewsByIdIn(List.of(1L, 3L))).thenReturn(List.of(product1, product3));
+
+        ProductChangePage page = productChangeService.getChanges("10", 10);
+
+        assertEquals(List.of(
+                new ProductChangeEntry(11, 1L, ProductChangedEvent.Type.ADDED, product1),
+                new ProductChangeEntry(11, 3L, ProductChangedEvent.Type.ADDED, product3),
+                new ProductChangeEntry(12, 2L, ProductChangedEvent.Type.DELETED, null)), page.changes());
+        assertEquals("12", page.nextToken());
+    }
+
+    /**
+     * Test: Products of import entries count toward the limit, but the first entry is always read
+     */
+    @Test
+    void testGetChanges_LimitCountsImportedProducts() {
+        Instant old = Instant.now().minusSeconds(60);
+        when(productChangeRepository.findByIdGreaterThanOrderByIdAsc(10L, Limit.of(3))).thenReturn(List.of(
+                imported(11, 1, 3, old),
+                change(12, 4, ProductChangedEvent.Type.UPDATED, old)));
+        when(productRepository.findViewsByIdIn(List.of(1L, 2L, 3L))).thenReturn(List.of());
+
+        ProductChangePage page = productChangeService.getChanges("10", 2);
+
+        assertEquals("11", page.nextToken());
+        assertTrue(page.hasMore());
+    }
+
+    /**
+     * Test: Sorted IDs are grouped into runs of consecutive IDs, one entry each
+     */
+    @Test
+    void testImportRuns_GroupsConsecutiveIds() {
+        Instant now = Instant.now();
+
+        List<ProductChange> runs = ProductChangeService.importRuns(new long[]{1, 2, 3, 7, 9, 10}, now);
+
+        assertEquals(List.of(1L, 7L, 9L), runs.stream().map(ProductChange::getProductId).toList());
+        assertEquals(List.of(3L, 7L, 10L), runs.stream().map(ProductChange::getLastProductId).toList());
+    }
+
+    /**
+     * Test: A token from before the oldest kept entry is refused with a token to continue from after a reload
+     */
+    @Test
+    void testGetChanges_TokenOlderThanRetention() {
+        when(productChangeRepository.findFirstId()).thenReturn(100L);
+        when(productChangeRepository.findLastIdRecordedBefore(any(Instant.class))).thenReturn(150L);
+
+        SyncTokenExpiredException expired = assertThrows(SyncTokenExpiredException.class,
+                () -> productChangeService.getChanges("10", 10));
+        assertEquals("150", expired.getResyncToken());
+        assertThrows(SyncTokenExpiredException.class, () -> productChangeService.checkToken("0"));
+
+        assertTrue(productChangeService.getChanges("99", 10).changes().isEmpty());
+    }
+
+    /**
+     * Test: Expired entries are deleted in bounded ranges, and the newest entry is kept
+     */
+    @Test
+    void testPrune_DeletesInBatchesAndKeepsNewest() {
+        when(productChangeRepository.findFirstId()).thenReturn(1L);
+        when(productChangeRepository.findLastIdRecordedBefore(any(Instant.class))).thenReturn(25_000L);
+        when(productChangeRepository.findLastId()).thenReturn(25_000L);
+        when(productChangeRepository.deleteByIdRange(0, 10_000)).thenReturn(10_000);
+        when(productChangeRepository.deleteByIdRange(10_000, 20_000)).thenReturn(10_000);
+        when(productChangeRepository.deleteByIdRange(20_000, 24_999)).thenReturn(4_999);
+
+        assertEquals(24_999, productChangeService.prune());
+        verify(productChangeRepository, times(3)).deleteByIdRange(anyLong(), anyLong());
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    /**
+     * Test: Reading stops before a recent hole in the sequence, but not before one older than the grace period
+     */
+    @Test
+    void testVisibleChanges_StopsAtRecentGap() {
+        Instant now = Instant.now();
+        Instant recent = now.minusSeconds(1);
+        Instant old = now.minus(ProductChangeService.GAP_GRACE).minusSeconds(1);
+
+        List<ProductChange> recentGap = List.of(
+                change(5, 1, ProductChangedEvent.Type.UPDATED, recent),
+                change(7, 2, ProductChangedEvent.Type.UPDATED, recent));
+        assertEquals(List.of(5L), ProductChangeService.visibleChanges(4, recentGap, now).stream()
+                .map(ProductChange::getId).toList());
+
+        List<ProductChange> oldGap = List.of(
+                change(5, 1, ProductChangedEvent.Type.UPDATED, old),
+                change(7, 2, ProductChangedEvent.Type.UPDATED, old));
+        assertEquals(2, ProductChangeService.visibleChanges(4, oldGap, now).size());
+    }
+
+    /**
+     * Test: Malformed sync tokens are rejected
+     */
+    @Test
+    void testGetChanges_InvalidToken() {
+        assertThrows(IllegalArgumentException.class, () -> productChangeService.getChanges("abc", 10));
+        assertThrows(IllegalArgumentException.class, () -> productChangeService.getChanges("-1", 10));
+        verifyNoInteractions(productChangeRepository);
+    }
+}
@@ -0,0 +1,66 @@
+package com.quardintel.product_api.service;
+
+import com.quardintel.product_api.model.Category;
+import com.quardintel.product_api.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCsvReaderTest {
+
+    /**
+     * Test: Quoted fields, reordered columns and category lists are parsed
+     */
+    @Test
+    void testReadsRows() throws IOException {
+        String csv = "price,name,quantity,description,categories\n"
+                + "19.99,\"Desk Lamp, LED\",12,\"Says \"\"bright\"\"\",Home|Lighting\n"
+                + "5,Pen,100,Blue ink,\n";
+        ProductCsvReader reader = new ProductCsvReader(new BufferedReader(new StringReader(csv)));
+
+        ProductImportRow first = reader.next();
+        Product lamp = first.product();
+        assertNull(first.error());
+        assertEquals("Desk Lamp, LED", lamp.getName());
+        assertEquals("Says \"bright\"", lamp.getDescription());
+        assertEquals(19.99, lamp.getPrice());
+        assertEquals(12, lamp.getQuantity());
+        assertEquals(List.of("Home", "Lighting"), lamp.getCategories().stream()
+                .map(Category::getName).sorted().collect(Collectors.toList()));
+
+        Product pen = reader.next().product();
+        assertEquals("Pen", pen.getName());
+        assertTrue(pen.getCategories().isEmpty());
+        assertFalse(reader.hasNext());
+    }
+
+    /**
+     * Test: Rows with malformed numbers are reported instead of failing the import
+     */
+    @Test
+    void testInvalidNumberIsReported() throws IOException {
+        String csv = "name,description,price,quantity\nPen,Blue ink,cheap,1\n";
+        ProductCsvReader reader = new ProductCsvReader(new BufferedReader(new StringReader(csv)));
+
+        ProductImportRow row = reader.next();
+
+        assertNull(row.product());
+        assertEquals(1, row.rowNumber());
+        assertNotNull(row.error());
+    }
+
+    /**
+     * Test: A header without the required columns is rejected
+     */
+    @Test
+    void testMissingColumn() {
+        assertThrows(IllegalArgumentException.class, () ->
+                new ProductCsvReader(new BufferedReader(new StringReader("name,price\n"))));
+    }
+}
@@ -0,0 +1,202 @@
+package com.quardintel.product_api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quardintel.product_api.dto.ProductImportResult;
+import com.quardintel.product_api.event.ProductsImportedEvent;
+import com.quardintel.product_api.model.Category;
+import com.quardintel.product_api.model.Product;
+import com.quardintel.product_api.repository.CategoryRepository;
+import com.quardintel.product_api.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private ProductCacheService productCacheService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ProductImportService importService;
+    private Category electronics;
+
+    @BeforeEach
+    void setUp() {
+        importService = new ProductImportService(productRepository, categoryRepository, productCacheService,
+                entityManager, new ObjectMapper(), Validation.buildDefaultValidatorFactory().getValidator(),
+                eventPublisher, 2);
+
+        electronics = new Category();
+        electronics.setId(1L);
+        electronics.setName("Electronics");
+    }
+
+    /**
+     * Test: Every chunk is checked with one name query, flushed and cleared, and published as one event
+     */
+    @Test
+    void testImportCsv_FlushesEveryChunk() throws IOException {
+        when(productRepository.findExistingNames(anyCollection())).thenReturn(Set.of());
+        String csv = "name,description,price,quantity,categories\n"
+                + "Pen,Blue ink,1.5,100,\n"
+                + "Pencil,HB,0.5,200,\n"
+                + "Eraser,White,0.25,50,\n";
+
+        ProductImportResult result = importService.importCsv(stream(csv));
+
+        assertEquals(3, result.received());
+        assertEquals(3, result.imported());
+        assertEquals(0, result.rejected());
+        verify(productRepository).findExistingNames(List.of("Pen", "Pencil"));
+        verify(productRepository).findExistingNames(List.of("Eraser"));
+        verify(entityManager, times(3)).persist(any(Product.class));
+        verify(eventPublisher, times(2)).publishEvent(any(ProductsImportedEvent.class));
+        InOrder inOrder = inOrder(entityManager);
+        inOrder.verify(entityManager, times(2)).persist(any(Product.class));
+        inOrder.verify(entityManager).flush();
+        inOrder.verify(entityManager).clear();
+        inOrder.verify(entityManager).persist(any(Product.class));
+        inOrder.verify(entityManager).flush();
+        inOrder.verify(entityManager).clear();
+        verify(productCacheService).invalidatePages();
+        verifyNoInteractions(categoryRepository);
+    }
+
+    /**
+     * Test: Names repeated in the import, even across chunks, or already stored are rejected with their rows
+     */
+    @Test
+    void testImportJson_RejectsDuplicateNames() throws IOException {
+        when(productRepository.findExistingNames(anyCollection())).thenReturn(Set.of("Lamp"));
+        String json = "["
+                + product("Pen") + ","
+                + product("Lamp") + ","
+                + product("Pen")
+                + "]";
+
+        ProductImportResult result = importService.importJson(stream(json));
+
+        assertEquals(3, result.received());
+        assertEquals(1, result.imported());
+        assertEquals(2, result.rejected());
+        assertEquals(List.of("Row 2: Product already exists: Lamp", "Row 3: Duplicate product name in import: Pen"),
+                result.errors());
+        ArgumentCaptor<Product> persisted = ArgumentCaptor.forClass(Product.class);
+        verify(entityManager).persist(persisted.capture());
+        assertEquals("Pen", persisted.getValue().getName());
+    }
+
+    /**
+     * Test: Names differing only in case count as duplicates, within the import and against stored names
+     */
+    @Test
+    void testImportJson_RejectsCaseOnlyDuplicates() throws IOException {
+        when(productRepository.findExistingNames(anyCollection())).thenReturn(Set.of("Lamp"));
+        String json = "["
+                + product("Widget") + ","
+                + product("lamp") + ","
+                + product("WIDGET")
+                + "]";
+
+        ProductImportResult result = importService.importJson(stream(json));
+
+        assertEquals(1, result.imported());
+        assertEquals(List.of("Row 2: Product already exists: lamp", "Row 3: Duplicate product name in import: WIDGET"),
+                result.errors());
+        ArgumentCaptor<Product> persisted = ArgumentCaptor.forClass(Product.class);
+        verify(entityManager).persist(persisted.capture());
+        assertEquals("Widget", persisted.getValue().getName());
+    }
+
+    /**
+     * Test: Categories resolve by ID or name; a product with an unknown category is rejected, the rest imported
+     */
+    @Test
+    void testImportJson_RejectsUnknownCategories() throws IOException {
+        when(productRepository.findExistingNames(anyCollection())).thenReturn(Set.of());
+        when(categoryRepository.findAllById(Set.of(1L, 9L))).thenReturn(List.of(electronics));
+        when(categoryRepository.findByNameIn(Set.of("Electronics"))).thenReturn(List.of(electronics));
+        String json = "["
+                + product("Phone", "{\"id\": 1}") + ","
+                + product("Radio", "{\"name\": \"Electronics\"}") + ","
+                + product("Robot", "{\"id\": 9}")
+                + "]";
+        importService = new ProductImportService(productRepository, categoryRepository, productCacheService,
+                entityManager, new ObjectMapper(), Validation.buildDefaultValidatorFactory().getValidator(),
+                eventPublisher, 3);
+
+        ProductImportResult result = importService.importJson(stream(json));
+
+        assertEquals(2, result.imported());
+        assertEquals(List.of("Row 3: Unknown category for product: Robot"), result.errors());
+        ArgumentCaptor<Product> persisted = ArgumentCaptor.forClass(Product.class);
+        verify(entityManager, times(2)).persist(persisted.capture());
+        for (Product product : persisted.getAllValues()) {
+            assertEquals(Set.of(electronics), product.getCategories());
+        }
+    }
+
+    /**
+     * Test: Elements that do not map to a product are rejected like invalid CSV rows
+     */
+    @Test
+    void testImportJson_RejectsUnmappableElement() throws IOException {
+        when(productRepository.findExistingNames(anyCollection())).thenReturn(Set.of());
+        String json = "[{\"name\": \"Pen\", \"description\": \"Ink\", \"price\": \"cheap\", \"quantity\": 1},"
+                + product("Pencil") + "]";
+
+        ProductImportResult result = importService.importJson(stream(json));
+
+        assertEquals(1, result.imported());
+        assertEquals(1, result.rejected());
+        assertTrue(result.errors().get(0).startsWith("Row 1: Invalid product"));
+    }
+
+    /**
+     * Test: Input that is not well-formed JSON fails the whole import
+     */
+    @Test
+    void testImportJson_MalformedInput() {
+        assertThrows(IllegalArgumentException.class, () -> importService.importJson(stream("[{\"name\": ")));
+        verifyNoInteractions(entityManager);
+    }
+
+    private static String product(String name, String... categories) {
+        return "{\"name\": \"" + name + "\", \"description\": \"Test\", \"price\": 9.99, \"quantity\": 5, "
+                + "\"categories\": [" + String.join(",", categories) + "]}";
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,18 +1,43 @@
 package com.quardintel.product_api.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quardintel.product_api.dto.CategoryFilter;
+import com.quardintel.product_api.dto.CategoryView;
+import com.quardintel.product_api.dto.EncodedProduct;
+import com.quardintel.product_api.dto.ProductPage;
+import com.quardintel.product_api.dto.ProductPageRequest;
+import com.quardintel.product_api.dto.ProductSortKey;
+import com.quardintel.product_api.dto.ProductView;
+import com.quardintel.product_api.dto.SellLineResult;
+import com.quardintel.product_api.dto.SellOrderLine;
+import com.quardintel.product_api.event.ProductChangedEvent;
+import com.quardintel.product_api.event.StockLevel;
+import com.quardintel.product_api.index.CategoryBitmapIndex;
+import com.quardintel.product_api.index.CompressedBitmap;
+import com.quardintel.product_api.index.ProductRangeIndex;
 import com.quardintel.product_api.model.Product;
 import com.quardintel.product_api.model.Category;
 import com.quardintel.product_api.repository.ProductRepository;
+import com.quardintel.product_api.exception.FlashSaleActiveException;
+import com.quardintel.product_api.exception.ProductVersionConflictException;
 import com.quardintel.product_api.exception.ResourceNotFoundException;
+import com.quardintel.product_api.metrics.InventoryMetrics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.mockito.Spy;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -23,6 +48,30 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductCacheService productCacheService;
+
+    @Mock
+    private InventoryMetrics inventoryMetrics;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CategoryBitmapIndex categoryIndex;
+
+    @Mock
+    private ProductRangeIndex rangeIndex;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private FlashSaleService flashSaleService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @Spy
     @InjectMocks
     private ProductService productService;  // Use @Spy for ProductService to spy on its internal methods
@@ -59,15 +108,15 @@ class ProductServiceTest {
      */
     @Test
     void testGetProductById_Success() {
-        when(productRepository.findById(1L)).thenReturn(Optional.of(sampleProduct));
+        when(productRepository.findViewById(1L)).thenReturn(Optional.of(ProductView.of(sampleProduct)));
 
-        Product result = productService.getProduct(1L);
+        ProductView result = productService.getProduct(1L);
 
         assertNotNull(result);
-        assertEquals("Test Product", result.getName());
-        assertEquals(1, result.getCategories().size());
+        assertEquals("Test Product", result.name());
+        assertEquals(1, result.categories().size());
 
-        verify(productRepository, times(1)).findById(1L);
+        verify(productRepository, times(1)).findViewById(1L);
     }
 
     /**
@@ -75,11 +124,65 @@ class ProductServiceTest {
      */
     @Test
     void testGetProductById_NotFound() {
-        when(productRepository.findById(2L)).thenReturn(Optional.empty());
+        when(productRepository.findViewById(2L)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> productService.getProduct(2L));
 
-        verify(productRepository, times(1)).findById(2L);
+        verify(productRepository, times(1)).findViewById(2L);
+    }
+
+    /**
+     * Test: Encoded product holds the same JSON as a serialized read, with the product's version
+     */
+    @Test
+    void testGetEncodedProduct() throws Exception {
+        sampleProduct.setVersion(4L);
+        ProductView view = ProductView.of(sampleProduct);
+        when(productRepository.findViewById(1L)).thenReturn(Optional.of(view));
+
+        EncodedProduct result = productService.getEncodedProduct(1L);
+
+        assertArrayEquals(objectMapper.writeValueAsBytes(view), result.json());
+        assertEquals(4L, result.version());
+    }
+
+    /**
+     * Test: The export writes one JSON line per product with its categories, flushing the first line
+     * right away instead of after every product, and leaves the stream open
+     */
+    @Test
+    void testExportCatalog_WritesNdjson() throws Exception {
+        when(productRepository.streamCatalogRows()).thenReturn(Stream.of(
+                new Object[]{1L, "Lamp", "Desk lamp", 20.0, 5, 0L, 1L, "Electronics"},
+                new Object[]{1L, "Lamp", "Desk lamp", 20.0, 5, 0L, 2L, "Home Appliances"},
+                new Object[]{2L, "Chair", "Office chair", 80.0, 2, 1L, null, null},
+                new Object[]{3L, "Kettle", "Steel kettle", 30.0, 9, 0L, 2L, "Home Appliances"}));
+        AtomicInteger flushes = new AtomicInteger();
+        AtomicInteger closes = new AtomicInteger();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+
+            @Override
+            public void close() {
+                closes.incrementAndGet();
+            }
+        };
+
+        long count = productService.exportCatalog(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, count);
+        assertEquals(3, lines.length);
+        assertEquals(List.of(new CategoryView(1L, "Electronics"), new CategoryView(2L, "Home Appliances")),
+                objectMapper.readValue(lines[0], ProductView.class).categories());
+        assertEquals(objectMapper.writeValueAsString(new ProductView(2L, "Chair", "Office chair", 80.0, 2, 1L)
+                .withCategories(List.of())), lines[1]);
+        assertEquals("Kettle", objectMapper.readValue(lines[2], ProductView.class).name());
+        assertEquals(2, flushes.get()); // First line, then the rest when the generator closes
+        assertEquals(0, closes.get());
     }
 
     /**
@@ -94,8 +197,8 @@ class ProductServiceTest {
         assertNotNull(result);
         assertEquals("Test Product", result.getName());
         verify(productRepository, times(1)).save(sampleProduct);
-        // Verifying cache eviction is called (if you are using a cache library like Spring's @CacheEvict)
-        verify(productService, times(1)).evictAllProductsCache();  // Ensure this is working with spy
+        // A new product can land on any page, so cached pages are invalidated
+        verify(productCacheService, times(1)).invalidatePages();
     }
 
     /**
@@ -117,7 +220,7 @@ class ProductServiceTest {
         updatedProduct.setCategories(updatedCategories);
 
         when(productRepository.findById(1L)).thenReturn(Optional.of(sampleProduct));
-        when(productRepository.save(any(Product.class))).thenReturn(updatedProduct);
+        when(productRepository.saveAndFlush(any(Product.class))).thenReturn(updatedProduct);
 
         // Perform update
         Product result = productService.updateProduct(1L, updatedProduct);
@@ -129,8 +232,94 @@ class ProductServiceTest {
         assertTrue(result.getCategories().contains(category1));
         assertTrue(result.getCategories().contains(category2));
 
-        verify(productRepository, times(1)).save(any(Product.class));
-        verify(productService, times(1)).evictAllProductsCache();  // Ensure this is working with spy
+        verify(productRepository, times(1)).saveAndFlush(any(Product.class));
+        verify(productCacheService, times(1)).evictProduct(1L);
+        verify(productCacheService, times(1)).invalidatePages();  // Name and price changed
+    }
+
+    /**
+     * Test: Changing only the categories invalidates cached pages, since category filters may now match differently
+     */
+    @Test
+    void testUpdateProduct_CategoriesOnly() {
+        Product updatedProduct = new Product();
+        updatedProduct.setName(sampleProduct.getName());
+        updatedProduct.setDescription(sampleProduct.getDescription());
+        updatedProduct.setPrice(sampleProduct.getPrice());
+        updatedProduct.setQuantity(sampleProduct.getQuantity());
+        updatedProduct.setCategories(new HashSet<>(Set.of(category2)));
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(sampleProduct));
+        when(productRepository.saveAndFlush(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        productService.updateProduct(1L, updatedProduct);
+
+        verify(productCacheService, times(1)).evictProduct(1L);
+        verify(productCacheService, times(1)).invalidatePages();
+        verify(productCacheService, never()).evictPagesContaining(1L);
+    }
+
+    /**
+     * Test: An update based on a stale version is rejected with the current version and nothing is saved
+     */
+    @Test
+    void testUpdateProduct_StaleVersion() {
+        sampleProduct.setVersion(3L);
+        Product updatedProduct = new Product();
+        updatedProduct.setName("Updated Product");
+        updatedProduct.setDescription(sampleProduct.getDescription());
+        updatedProduct.setPrice(sampleProduct.getPrice());
+        updatedProduct.setQuantity(sampleProduct.getQuantity());
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(sampleProduct));
+
+        ProductVersionConflictException conflict = assertThrows(ProductVersionConflictException.class,
+                () -> productService.updateProduct(1L, updatedProduct, 2L, 10));
+
+        assertEquals(3L, conflict.getCurrentVersion());
+        verify(productRepository, never()).saveAndFlush(any(Product.class));
+        verify(productCacheService, never()).evictProduct(anyLong());
+    }
+
+    /**
+     * Test: A stale stock-only update without the stock it started from is rejected, not written over newer sales
+     */
+    @Test
+    void testUpdateProduct_StaleVersion_StockOnlyWithoutBase() {
+        sampleProduct.setVersion(3L);
+        Product updatedProduct = new Product();
+        updatedProduct.setName(sampleProduct.getName());
+        updatedProduct.setDescription(sampleProduct.getDescription());
+        updatedProduct.setPrice(sampleProduct.getPrice());
+        updatedProduct.setQuantity(42);
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(sampleProduct));
+
+        assertThrows(ProductVersionConflictException.class,
+                () -> productService.updateProduct(1L, updatedProduct, 2L, null));
+        verify(productRepository, never()).saveAndFlush(any(Product.class));
+    }
+
+    /**
+     * Test: A stale stock-only update applies its change to the current stock, keeping sales made since its read
+     */
+    @Test
+    void testUpdateProduct_StaleVersion_StockOnlyMerged() {
+        sampleProduct.setVersion(3L); // 5 units sold since the client read 15 at version 2
+        Product updatedProduct = new Product();
+        updatedProduct.setName(sampleProduct.getName());
+        updatedProduct.setDescription(sampleProduct.getDescription());
+        updatedProduct.setPrice(sampleProduct.getPrice());
+        updatedProduct.setQuantity(42); // Restock of 27
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(sampleProduct));
+        when(productRepository.saveAndFlush(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Product result = productService.updateProduct(1L, updatedProduct, 2L, 15);
+
+        assertEquals(37, result.getQuantity());
+        verify(productCacheService, times(1)).evictProduct(1L);
+        verify(productCacheService, never()).invalidatePages();  // Stock does not move the product between pages
     }
 
     /**
@@ -144,7 +333,8 @@ class ProductServiceTest {
         productService.deleteProduct(1L);
 
         verify(productRepository, times(1)).delete(sampleProduct);
-        verify(productService, times(1)).evictAllProductsCache();  // Ensure this is working with spy
+        verify(productCacheService, times(1)).evictProduct(1L);
+        verify(productCacheService, times(1)).evictPagesContaining(1L);
     }
 
     /**
@@ -152,13 +342,49 @@ class ProductServiceTest {
      */
     @Test
     void testSellProduct_Success() {
-        when(productRepository.findById(1L)).thenReturn(Optional.of(sampleProduct));
+        StockLevel stock = new StockLevel(5, 2L);
+        when(productRepository.decrementStock(1L, 5)).thenReturn(1);
+        when(productRepository.findStockLevelById(1L)).thenReturn(stock);
 
         productService.sellProduct(1L, 5);
 
-        assertEquals(5, sampleProduct.getQuantity());
-        verify(productRepository, times(1)).save(sampleProduct);
-        verify(productService, times(1)).evictAllProductsCache();  // Ensure this is working with spy
+        verify(productRepository, times(1)).decrementStock(1L, 5);
+        verify(productRepository, never()).findById(1L);  // The entity is not loaded on the happy path
+        verify(productRepository, never()).save(any(Product.class));
+        verify(productCacheService, times(1)).evictProduct(1L);
+        verify(productCacheService, times(1)).evictPagesContaining(1L);
+        verify(productCacheService, never()).invalidatePages();
+        verify(inventoryMetrics).recordSale(5);
+        verify(eventPublisher).publishEvent(ProductChangedEvent.stockChanged(1L, -5, stock));
+    }
+
+    /**
+     * Test: Products in flash-sale mode are sold from their counter, without touching the product row
+     */
+    @Test
+    void testSellProduct_FlashSale() {
+        when(flashSaleService.sell(1L, 5)).thenReturn(true);
+
+        productService.sellProduct(1L, 5);
+
+        verify(productRepository, never()).decrementStock(anyLong(), anyInt());
+        verify(productCacheService, never()).evictProduct(1L);
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+        verify(inventoryMetrics).recordSale(5);
+    }
+
+    /**
+     * Test: Batch sales refuse products in flash-sale mode, before any stock is taken
+     */
+    @Test
+    void testSellProducts_FlashSaleProduct() {
+        when(flashSaleService.isEnabled(1L)).thenReturn(true);
+
+        assertThrows(FlashSaleActiveException.class, () -> productService.sellProducts(List.of(
+                new SellOrderLine(1L, 1),
+                new SellOrderLine(2L, 1))));
+
+        verify(productRepository, never()).decrementStock(anyLong(), anyInt());
     }
 
     /**
@@ -166,10 +392,136 @@ class ProductServiceTest {
      */
     @Test
     void testSellProduct_InsufficientStock() {
+        when(productRepository.decrementStock(1L, 20)).thenReturn(0);
         when(productRepository.findById(1L)).thenReturn(Optional.of(sampleProduct));
 
         assertThrows(IllegalArgumentException.class, () -> productService.sellProduct(1L, 20));
 
         verify(productRepository, never()).save(sampleProduct);
+        verify(productCacheService, never()).evictProduct(1L);
+        verify(inventoryMetrics).recordInsufficientStock();
+        verify(inventoryMetrics, never()).recordSale(anyInt());
+    }
+
+    /**
+     * Test: Sell a product that does not exist
+     */
+    @Test
+    void testSellProduct_NotFound() {
+        when(productRepository.decrementStock(2L, 1)).thenReturn(0);
+        when(productRepository.findById(2L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> productService.sellProduct(2L, 1));
+    }
+
+    /**
+     * Test: Batch sale merges duplicate lines and takes stock in ascending product ID order
+     */
+    @Test
+    void testSellProducts_MergesLinesInIdOrder() {
+        when(productRepository.decrementStock(anyLong(), anyInt())).thenReturn(1);
+        when(productRepository.findStockLevelById(1L)).thenReturn(new StockLevel(7, 1L));
+        when(productRepository.findStockLevelById(2L)).thenReturn(new StockLevel(4, 1L));
+
+        List<SellLineResult> results = productService.sellProducts(List.of(
+                new SellOrderLine(2L, 1),
+                new SellOrderLine(1L, 2),
+                new SellOrderLine(1L, 1)));
+
+        InOrder inOrder = inOrder(productRepository);
+        inOrder.verify(productRepository).decrementStock(1L, 3);
+        inOrder.verify(productRepository).decrementStock(2L, 1);
+        assertEquals(List.of(new SellLineResult(1L, 3, 7), new SellLineResult(2L, 1, 4)), results);
+    }
+
+    /**
+     * Test: Batch sale fails as a whole when one line has insufficient stock
+     */
+    @Test
+    void testSellProducts_InsufficientStock() {
+        when(productRepository.decrementStock(1L, 5)).thenReturn(1);
+        when(productRepository.findStockLevelById(1L)).thenReturn(new StockLevel(5, 1L));
+        when(productRepository.decrementStock(2L, 50)).thenReturn(0);
+        when(productRepository.findById(2L)).thenReturn(Optional.of(sampleProduct));
+
+        assertThrows(IllegalArgumentException.class, () -> productService.sellProducts(List.of(
+                new SellOrderLine(1L, 5),
+                new SellOrderLine(2L, 50))));
+
+        verify(productCacheService, never()).evictProduct(anyLong());
+    }
+
+    /**
+     * Test: Lines whose merged quantity does not fit an int are rejected before any stock is taken
+     */
+    @Test
+    void testSellProducts_MergedQuantityOverflows() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> productService.sellProducts(List.of(
+                new SellOrderLine(1L, Integer.MAX_VALUE),
+                new SellOrderLine(1L, 1))));
+
+        assertEquals("Sale quantity for product ID 1 is too large.", ex.getMessage());
+        verifyNoInteractions(productRepository);
+    }
+
+    /**
+     * Test: Range page keeps the index order, reads only the page's rows and returns a cursor when more follow
+     */
+    @Test
+    void testGetProductRangePage() {
+        ProductView expensive = ProductView.of(sampleProduct);
+        ProductView cheaper = new ProductView(2L, "Cheaper Product", "Test Description", 50.0, 3, 0L);
+        when(rangeIndex.range(eq(ProductRangeIndex.Field.PRICE), anyLong(), anyLong(), eq(true), isNull(), eq(3)))
+                .thenReturn(new ProductRangeIndex.Slice(new long[]{2L, 1L, 3L}, new long[]{
+                        ProductRangeIndex.priceKey(50), ProductRangeIndex.priceKey(100), ProductRangeIndex.priceKey(120)}));
+        when(productRepository.findViewsByIdIn(List.of(2L, 1L))).thenReturn(List.of(expensive, cheaper));
+
+        ProductPage page = productService.getProductRangePage(ProductRangeIndex.Field.PRICE, 0, 200, true, null, 2);
+
+        assertEquals(List.of(cheaper, expensive), page.items());
+        assertTrue(page.hasMore());
+        assertNotNull(page.nextCursor());
+    }
+
+    /**
+     * Test: An ID-sorted category page with a name filter is read in one query instead of walking the index
+     */
+    @Test
+    void testGetProductPage_CategoryWithNameFilter() {
+        CompressedBitmap matching = new CompressedBitmap();
+        for (long id = 1; id <= 500; id++) {
+            matching.add(id);
+        }
+        ProductPageRequest request = new ProductPageRequest(null, 2, ProductSortKey.ID, true, "Rare", null, null,
+                CategoryFilter.of(List.of(1L), "any", List.of()));
+        when(categoryIndex.match(request.categories())).thenReturn(matching);
+        when(productRepository.findPage(eq(request), isNull(), anyCollection(), eq(3))).thenReturn(List.of());
+
+        ProductPage page = productService.getProductPage(request);
+
+        assertTrue(page.items().isEmpty());
+        verify(productRepository, times(1)).findPage(eq(request), isNull(), anyCollection(), anyInt());
+    }
+
+    /**
+     * Test: A category walk that keeps finding deleted products falls back to filtering in SQL
+     */
+    @Test
+    void testGetProductPage_CategoryWalkFallsBack() {
+        CompressedBitmap matching = new CompressedBitmap();
+        for (long id = 1; id <= 500; id++) {
+            matching.add(id);
+        }
+        ProductPageRequest request = new ProductPageRequest(null, 2, ProductSortKey.ID, true, null, null, null,
+                CategoryFilter.of(List.of(1L), "any", List.of()));
+        ProductView product = ProductView.of(sampleProduct);
+        when(categoryIndex.match(request.categories())).thenReturn(matching);
+        when(productRepository.findPage(eq(request), isNull(), anyCollection(), anyInt())).thenReturn(List.of());
+        when(productRepository.findPage(request, null, 3)).thenReturn(List.of(product));
+
+        ProductPage page = productService.getProductPage(request);
+
+        assertEquals(List.of(product), page.items());
+        verify(productRepository, times(4)).findPage(eq(request), isNull(), anyCollection(), anyInt());
     }
 }
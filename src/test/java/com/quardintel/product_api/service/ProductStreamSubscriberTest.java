@@ -0,0 +1,150 @@
+package com.quardintel.product_api.service;
+
+import com.quardintel.product_api.dto.ProductStreamEvent;
+import com.quardintel.product_api.event.ProductChangedEvent;
+import com.quardintel.product_api.event.ProductSnapshot;
+import com.quardintel.product_api.event.StockLevel;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProductStreamSubscriberTest {
+
+    private static ProductStreamEvent stock(long productId, int delta) {
+        return ProductStreamEvent.of(ProductChangedEvent.stockChanged(productId, delta, new StockLevel(0, 1)));
+    }
+
+    /**
+     * Test: Pending stock changes to one product are summed, and folded into a pending snapshot
+     */
+    @Test
+    void testMerge_CoalescesStockChanges() {
+        ProductStreamEvent updated = ProductStreamEvent.of(ProductChangedEvent.updated(
+                new ProductSnapshot(1L, "Laptop", "Gaming laptop", 1500.0, 10, Set.of(3L), 4L)));
+
+        ProductStreamEvent sold = stock(1, -2).merge(stock(1, -3));
+        assertEquals(ProductChangedEvent.Type.STOCK_CHANGED, sold.type());
+        assertEquals(-5, sold.stockDelta());
+
+        ProductStreamEvent merged = updated.merge(sold);
+        assertEquals(ProductChangedEvent.Type.UPDATED, merged.type());
+        assertEquals(5, merged.product().quantity());
+        assertEquals(Set.of(3L), merged.product().categoryIds());
+
+        ProductStreamEvent deleted = ProductStreamEvent.of(ProductChangedEvent.deleted(1L));
+        assertSame(deleted, merged.merge(deleted));
+    }
+
+    /**
+     * Test: Changes queued for the same product are sent once
+     */
+    @Test
+    void testDrain_SendsOneEventPerProduct() throws IOException {
+        SseEmitter emitter = mock(SseEmitter.class);
+        ProductStreamSubscriber subscriber = new ProductStreamSubscriber(emitter, Set.of(), Set.of(), 10);
+
+        assertTrue(subscriber.offer(stock(1, -1)));
+        assertTrue(subscriber.offer(stock(2, -1)));
+        assertTrue(subscriber.offer(stock(1, -4)));
+
+        assertTrue(subscriber.startDrain());
+        assertEquals(2, subscriber.drain());
+        verify(emitter, times(2)).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    /**
+     * Test: A subscriber that falls too far behind drops its backlog and gets a resync
+     */
+    @Test
+    void testOffer_OverflowDropsBacklog() throws IOException {
+        SseEmitter emitter = mock(SseEmitter.class);
+        ProductStreamSubscriber subscriber = new ProductStreamSubscriber(emitter, Set.of(), Set.of(), 2);
+
+        assertTrue(subscriber.offer(stock(1, -1)));
+        assertTrue(subscriber.offer(stock(2, -1)));
+        assertFalse(subscriber.offer(stock(3, -1)));
+
+        assertTrue(subscriber.startDrain());
+        assertEquals(1, subscriber.drain()); // Only the event after the overflow
+        verify(emitter, times(2)).send(any(SseEmitter.SseEventBuilder.class)); // Resync plus that event
+    }
+
+    /**
+     * Test: A failed write closes the subscriber so that no further drains are started
+     */
+    @Test
+    void testDrain_ClosesOnWriteFailure() throws IOException {
+        SseEmitter emitter = mock(SseEmitter.class);
+        doThrow(new IOException("Broken pipe")).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+        ProductStreamSubscriber subscriber = new ProductStreamSubscriber(emitter, Set.of(), Set.of(), 10);
+
+        subscriber.offer(stock(1, -1));
+        assertTrue(subscriber.startDrain());
+        assertEquals(0, subscriber.drain());
+        verify(emitter).completeWithError(any(IOException.class));
+
+        subscriber.offer(stock(1, -1));
+        assertFalse(subscriber.startDrain());
+    }
+
+    /**
+     * Test: A write blocked past the timeout marks the subscriber stalled; its drain ends the stream once the
+     * write returns and sends nothing more
+     */
+    @Test
+    void testMarkStalled_DropsBlockedSubscriber() throws Exception {
+        SseEmitter emitter = mock(SseEmitter.class);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS); // Client not reading
+            return null;
+        }).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+        ProductStreamSubscriber subscriber = new ProductStreamSubscriber(emitter, Set.of(), Set.of(), 10);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            subscriber.offer(stock(1, -1));
+            assertTrue(subscriber.startDrain());
+            Future<Integer> drain = executor.submit(subscriber::drain);
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+            long timeout = TimeUnit.SECONDS.toNanos(10);
+            assertFalse(subscriber.markStalled(System.nanoTime(), timeout)); // Not blocked long enough yet
+            assertTrue(subscriber.markStalled(System.nanoTime() + timeout, timeout));
+            assertFalse(subscriber.markStalled(System.nanoTime() + timeout, timeout)); // Reported once
+            subscriber.offer(stock(2, -1));
+            assertFalse(subscriber.startDrain());
+
+            release.countDown();
+            assertEquals(1, drain.get(5, TimeUnit.SECONDS));
+            assertTrue(subscriber.isStalled());
+            verify(emitter, times(1)).send(any(SseEmitter.SseEventBuilder.class));
+            verify(emitter).complete();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test: A subscriber that is not writing is never stalled, however long it waits for events
+     */
+    @Test
+    void testMarkStalled_IdleSubscriber() {
+        ProductStreamSubscriber subscriber = new ProductStreamSubscriber(mock(SseEmitter.class), Set.of(), Set.of(), 10);
+
+        assertFalse(subscriber.markStalled(System.nanoTime() + TimeUnit.HOURS.toNanos(1), 1));
+        assertTrue(subscriber.startDrain());
+    }
+}
@@ -0,0 +1,91 @@
+package com.quardintel.product_api.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockJournalTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Test: Rolling closes the segment holding the appended sales; sequence numbers continue after the given one
+     */
+    @Test
+    void testRoll_ReturnsClosedSegments() throws IOException {
+        try (StockJournal journal = new StockJournal(directory, 41)) {
+            assertEquals(42, journal.append(1, 2));
+            assertEquals(43, journal.append(2, 1));
+
+            List<Path> closed = journal.roll();
+            assertEquals(1, closed.size());
+            assertEquals(List.of(new StockJournal.Entry(42, 1, 2), new StockJournal.Entry(43, 2, 1)),
+                    StockJournal.read(closed.get(0)));
+
+            assertEquals(closed, journal.roll()); // Nothing appended since, so no new segment
+            journal.append(1, 1);
+            assertEquals(2, journal.roll().size());
+        }
+    }
+
+    /**
+     * Test: Reading stops at a torn record at the end of a segment
+     */
+    @Test
+    void testRead_IgnoresIncompleteTail() throws IOException {
+        Path segment;
+        try (StockJournal journal = new StockJournal(directory, 0)) {
+            journal.append(7, 3);
+            segment = journal.roll().get(0);
+        }
+        Files.write(segment, new byte[StockJournal.RECORD_SIZE - 5], StandardOpenOption.APPEND);
+
+        assertEquals(List.of(new StockJournal.Entry(1, 7, 3)), StockJournal.read(segment));
+    }
+
+    /**
+     * Test: Concurrent sales all reach the journal with distinct sequence numbers, sharing fsyncs
+     */
+    @Test
+    void testAppend_Concurrent() throws Exception {
+        int threads = 8;
+        int salesPerThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (StockJournal journal = new StockJournal(directory, 0)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < salesPerThread; i++) {
+                        journal.append(1, 1);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            List<StockJournal.Entry> entries = new ArrayList<>();
+            for (Path segment : journal.roll()) {
+                entries.addAll(StockJournal.read(segment));
+            }
+            assertEquals(threads * salesPerThread, entries.size());
+            assertEquals(threads * salesPerThread, entries.stream().mapToLong(StockJournal.Entry::sequence).distinct().count());
+            assertTrue(journal.syncCount() <= threads * salesPerThread);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.quardintel.product_api.service;
+
+import com.quardintel.product_api.dto.AuthResponse;
+import com.quardintel.product_api.dto.LoginRequest;
+import com.quardintel.product_api.dto.RegisterRequest;
+import com.quardintel.product_api.exception.LoginThrottledException;
+import com.quardintel.product_api.exception.UserAlreadyExistsException;
+import com.quardintel.product_api.model.Role;
+import com.quardintel.product_api.model.User;
+import com.quardintel.product_api.repository.UserRepository;
+import com.quardintel.product_api.security.JwtUtil;
+import com.quardintel.product_api.security.UserStateCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RoleRegistry roleRegistry;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private UserStateCache userStateCache;
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @Mock
+    private PasswordHashingService passwordHashingService;
+
+    @InjectMocks
+    private UserService userService;
+
+    private RegisterRequest request;
+
+    @BeforeEach
+    void setUp() {
+        request = new RegisterRequest();
+        request.setUsername("alice");
+        request.setEmail("alice@example.com");
+        request.setPassword("secret123");
+        lenient().when(roleRegistry.get("USER")).thenReturn(role("USER"));
+        lenient().when(roleRegistry.get("ADMIN")).thenReturn(role("ADMIN"));
+        lenient().when(passwordEncoder.encode("secret123")).thenReturn("hashed");
+    }
+
+    /**
+     * Test: Registration is one insert with the role from the registry, and the cached account state is dropped
+     */
+    @Test
+    void testRegisterUser_Success() {
+        request.setEmail("alice@quardintel.com");
+
+        String result = userService.registerUser(request);
+
+        assertEquals("User registered successfully with role: ADMIN", result);
+        ArgumentCaptor<User> saved = ArgumentCaptor.forClass(User.class);
+        verify(userRepository).saveAndFlush(saved.capture());
+        assertEquals("hashed", saved.getValue().getPassword());
+        assertEquals("ADMIN", saved.getValue().getRole().getName());
+        verify(userStateCache).invalidate("alice");
+    }
+
+    /**
+     * Test: A violation of the email constraint, named in upper case as MySQL reports it, means the email is taken
+     */
+    @Test
+    void testRegisterUser_DuplicateEmail() {
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(violation(
+                "Duplicate entry 'alice@example.com' for key 'users.UK_USERS_EMAIL'"));
+
+        UserAlreadyExistsException ex = assertThrows(UserAlreadyExistsException.class,
+                () -> userService.registerUser(request));
+        assertEquals("Email is already in use.", ex.getMessage());
+        verifyNoInteractions(userStateCache);
+    }
+
+    /**
+     * Test: A violation of the username constraint means the username is taken
+     */
+    @Test
+    void testRegisterUser_DuplicateUsername() {
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(violation(
+                "Unique index or primary key violation: \"PUBLIC." + User.USERNAME_CONSTRAINT.toUpperCase() + " ON PUBLIC.USERS(USERNAME)\""));
+
+        UserAlreadyExistsException ex = assertThrows(UserAlreadyExistsException.class,
+                () -> userService.registerUser(request));
+        assertEquals("Username is already taken.", ex.getMessage());
+    }
+
+    /**
+     * Test: Violations of other constraints are not reported as duplicates
+     */
+    @Test
+    void testRegisterUser_OtherConstraintViolation() {
+        DataIntegrityViolationException violation = violation("Column 'role_id' cannot be null");
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(violation);
+
+        assertSame(violation, assertThrows(DataIntegrityViolationException.class,
+                () -> userService.registerUser(request)));
+    }
+
+    /**
+     * Test: With rehash-on-login, a hash below the configured cost is replaced after a successful login
+     */
+    @Test
+    void testAuthenticateUser_RehashesWeakHash() {
+        ReflectionTestUtils.setField(userService, "rehashOnLogin", true);
+        User user = storedUser("old-hash");
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user));
+        when(passwordHashingService.matches("secret123", "old-hash")).thenReturn(CompletableFuture.completedFuture(true));
+        when(passwordHashingService.needsRehash("old-hash")).thenReturn(true);
+        when(passwordHashingService.encode("secret123")).thenReturn(CompletableFuture.completedFuture("new-hash"));
+        when(jwtUtil.generateToken(any())).thenReturn("jwt");
+
+        AuthResponse response = userService.authenticateUser(login("secret123")).join();
+
+        assertEquals("jwt", response.getToken());
+        verify(userRepository).replacePasswordHash("alice", "old-hash", "new-hash");
+        verify(userRepository, never()).save(any());
+    }
+
+    /**
+     * Test: Without rehash-on-login the stored hash is left alone
+     */
+    @Test
+    void testAuthenticateUser_RehashOff() {
+        User user = storedUser("old-hash");
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user));
+        when(passwordHashingService.matches("secret123", "old-hash")).thenReturn(CompletableFuture.completedFuture(true));
+        when(jwtUtil.generateToken(any())).thenReturn("jwt");
+
+        userService.authenticateUser(login("secret123")).join();
+
+        verify(passwordHashingService, never()).encode(anyString());
+        verify(userRepository, never()).replacePasswordHash(any(), any(), any());
+    }
+
+    /**
+     * Test: A rehash refused by a saturated pool does not fail the login; the hash is upgraded on a later one
+     */
+    @Test
+    void testAuthenticateUser_RehashThrottled() {
+        ReflectionTestUtils.setField(userService, "rehashOnLogin", true);
+        User user = storedUser("old-hash");
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user));
+        when(passwordHashingService.matches("secret123", "old-hash")).thenReturn(CompletableFuture.completedFuture(true));
+        when(passwordHashingService.needsRehash("old-hash")).thenReturn(true);
+        when(passwordHashingService.encode("secret123")).thenThrow(new LoginThrottledException("Busy"));
+        when(jwtUtil.generateToken(any())).thenReturn("jwt");
+
+        assertEquals("jwt", userService.authenticateUser(login("secret123")).join().getToken());
+
+        verify(userRepository, never()).replacePasswordHash(any(), any(), any());
+    }
+
+    /**
+     * Test: A login refused by the saturated hashing pool surfaces as LoginThrottledException (429)
+     */
+    @Test
+    void testAuthenticateUser_Throttled() {
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(storedUser("hash")));
+        when(passwordHashingService.matches("secret123", "hash")).thenThrow(new LoginThrottledException("Busy"));
+
+        assertThrows(LoginThrottledException.class, () -> userService.authenticateUser(login("secret123")));
+        verifyNoInteractions(jwtUtil);
+    }
+
+    private static LoginRequest login(String password) {
+        LoginRequest login = new LoginRequest();
+        login.setUsername("alice");
+        login.setPassword(password);
+        return login;
+    }
+
+    private static User storedUser(String passwordHash) {
+        User user = new User();
+        user.setUsername("alice");
+        user.setEmail("alice@example.com");
+        user.setPassword(passwordHash);
+        user.setRole(role("USER"));
+        return user;
+    }
+
+    private static DataIntegrityViolationException violation(String databaseMessage) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new SQLIntegrityConstraintViolationException(databaseMessage));
+    }
+
+    private static Role role(String name) {
+        Role role = new Role();
+        role.setName(name);
+        return role;
+    }
+}